@@ -0,0 +1,248 @@
+package com.example.service;
+
+import com.example.SoapServiceConsumerExampleApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: starts a {@link StubSoapServer}, boots the application against it and
+ * drives the {@code AuthorizationController} REST endpoints at a fixed request rate.
+ * <p>
+ * The driver is open-loop: requests are scheduled at fixed intervals regardless of how fast
+ * responses come back, and latency is measured from the scheduled send time, so a stalled server
+ * shows up as queueing delay instead of a lower request rate. Requests that would exceed
+ * {@code --max-in-flight} are counted as dropped. Run with
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.service.LoadTestHarness \
+ *     -Dbenchmark.args="--rate=500 --duration=60 --endpoints=identity,roles,profile"
+ * </pre>
+ * Options: rate (req/s), duration and warmup (s), endpoints (identity, roles, offices, profile, users),
+ * ids (distinct eauth IDs, drives the cache hit rate), max-in-flight, stub-median-ms, stub-p99-ms,
+ * stub-offices, stub-roles, stub-users, stub-fault-rate. Any {@code --soap.*}, {@code --server.*}
+ * or {@code --logging.*} option is passed on to the application; the DEBUG/TRACE message logging
+ * of application.yml is turned down to WARN unless overridden.
+ */
+public final class LoadTestHarness {
+
+    private static final String API = "/api/authorization";
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--soap.") || arg.startsWith("--server.") || arg.startsWith("--logging.")) {
+                applicationArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unrecognised argument " + arg);
+            }
+        }
+
+        int rate = intOption(options, "rate", 200);
+        int durationSeconds = intOption(options, "duration", 30);
+        int warmupSeconds = intOption(options, "warmup", 5);
+        int ids = intOption(options, "ids", 1000);
+        int maxInFlight = intOption(options, "max-in-flight", 2000);
+        List<String> endpoints = Arrays.asList(options.getOrDefault("endpoints", "identity,roles,offices").split(","));
+
+        StubSoapServer.Settings stubSettings = new StubSoapServer.Settings(
+                StubSoapServer.Latency.logNormal(
+                        Duration.ofMillis(intOption(options, "stub-median-ms", 20)),
+                        Duration.ofMillis(intOption(options, "stub-p99-ms", 150))),
+                intOption(options, "stub-offices", 20),
+                intOption(options, "stub-roles", 20),
+                intOption(options, "stub-users", 500),
+                Double.parseDouble(options.getOrDefault("stub-fault-rate", "0")));
+
+        try (StubSoapServer stub = StubSoapServer.start(stubSettings)) {
+            applicationArgs.addAll(0, List.of(
+                    "--server.port=0",
+                    "--soap.service.url=" + stub.getUrl(),
+                    "--logging.level.com.example=WARN",
+                    "--logging.level.org.springframework.ws=WARN",
+                    "--logging.level.org.springframework.ws.client.MessageTracing=WARN"));
+            try (ConfigurableApplicationContext context = SpringApplication.run(
+                    SoapServiceConsumerExampleApplication.class, applicationArgs.toArray(new String[0]))) {
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port")
+                        + context.getEnvironment().getProperty("server.servlet.context-path", "") + API;
+
+                System.out.printf(Locale.ROOT, "Stub %s, target %d req/s, endpoints %s, %d IDs%n",
+                        stub.getUrl(), rate, endpoints, ids);
+                Driver driver = new Driver(baseUrl, endpoints, ids, maxInFlight);
+                if (warmupSeconds > 0) {
+                    System.out.printf(Locale.ROOT, "Warming up for %d s%n", warmupSeconds);
+                    driver.run(rate, Duration.ofSeconds(warmupSeconds));
+                }
+                System.out.printf(Locale.ROOT, "Measuring for %d s%n", durationSeconds);
+                Map<String, Recorder> results = driver.run(rate, Duration.ofSeconds(durationSeconds));
+                report(results, durationSeconds, stub);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static void report(Map<String, Recorder> results, int durationSeconds, StubSoapServer stub) {
+        System.out.printf(Locale.ROOT, "%n%-10s %9s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Recorder> entry : results.entrySet()) {
+            Recorder recorder = entry.getValue();
+            long[] latencies = recorder.sortedLatencies();
+            System.out.printf(Locale.ROOT, "%-10s %9d %9.1f %7.2f%% %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    latencies.length,
+                    (double) latencies.length / durationSeconds,
+                    latencies.length == 0 ? 0.0 : 100.0 * recorder.errors.get() / latencies.length,
+                    recorder.dropped.get(),
+                    percentileMillis(latencies, 0.50),
+                    percentileMillis(latencies, 0.90),
+                    percentileMillis(latencies, 0.99),
+                    percentileMillis(latencies, 0.999),
+                    percentileMillis(latencies, 1.0));
+        }
+        System.out.printf(Locale.ROOT, "%nUpstream (stub) requests: %d, faults: %d%n",
+                stub.getRequestCount(), stub.getFaultCount());
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Open-loop request generator
+     */
+    private static final class Driver {
+        private final String baseUrl;
+        private final List<String> endpoints;
+        private final int ids;
+        private final int maxInFlight;
+        private final HttpClient httpClient;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Driver(String baseUrl, List<String> endpoints, int ids, int maxInFlight) {
+            this.baseUrl = baseUrl;
+            this.endpoints = endpoints;
+            this.ids = ids;
+            this.maxInFlight = maxInFlight;
+            this.httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+
+        Map<String, Recorder> run(int rate, Duration duration) throws InterruptedException {
+            Map<String, Recorder> recorders = new LinkedHashMap<>();
+            for (String endpoint : endpoints) {
+                recorders.put(endpoint, new Recorder());
+            }
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            long total = rate * duration.toSeconds();
+            long start = System.nanoTime();
+            for (long i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String endpoint = endpoints.get((int) (i % endpoints.size()));
+                send(endpoint, recorders.get(endpoint), scheduled);
+            }
+            // Let outstanding requests finish before the recorders are read
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return recorders;
+        }
+
+        private void send(String endpoint, Recorder recorder, long scheduled) {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                recorder.dropped.incrementAndGet();
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uriFor(endpoint))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.decrementAndGet();
+                        boolean error = failure != null || response.statusCode() >= 400;
+                        recorder.record(System.nanoTime() - scheduled, error);
+                    });
+        }
+
+        private URI uriFor(String endpoint) {
+            String eauthId = "2820031016902102" + ThreadLocalRandom.current().nextInt(ids);
+            switch (endpoint) {
+                case "identity":
+                    return URI.create(baseUrl + "/user-identity/" + eauthId);
+                case "roles":
+                    return URI.create(baseUrl + "/user-roles/" + eauthId);
+                case "offices":
+                    return URI.create(baseUrl + "/offices/" + eauthId + "?officeType=FLP");
+                case "profile":
+                    return URI.create(baseUrl + "/profile/" + eauthId);
+                case "users":
+                    return URI.create(baseUrl + "/users?officeId=47310&roleName=app.fsa.flp.dls.lm");
+                default:
+                    throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+            }
+        }
+    }
+
+    /**
+     * Latencies and error counts of one endpoint
+     */
+    private static final class Recorder {
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        synchronized void record(long latencyNanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (error) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
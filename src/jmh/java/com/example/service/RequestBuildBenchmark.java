@@ -0,0 +1,82 @@
+package com.example.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of building each operation's request payload from its {@link SoapRequestTemplate}.
+ * <p>
+ * {@code saajMessage} is the full client-side path: a new SAAJ message with the payload written
+ * into its body. {@code bytes} writes only the encoded payload. Run with {@code -prof gc} for
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBuildBenchmark {
+
+    @Param({"isHealthy", "findMatchingUserIdentity", "findOfficesByEauthId", "getUserRoles"})
+    public String operation;
+
+    private SoapRequestTemplate template;
+    private String[] values;
+    private SaajSoapMessageFactory messageFactory;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() {
+        switch (operation) {
+            case "isHealthy":
+                template = SimpleAuthorizationSoapClient.IS_HEALTHY_REQUEST;
+                values = new String[0];
+                break;
+            case "findMatchingUserIdentity":
+                template = SimpleAuthorizationSoapClient.FIND_MATCHING_USER_IDENTITY_REQUEST;
+                values = new String[] {"28200310169021026877"};
+                break;
+            case "findOfficesByEauthId":
+                template = SimpleAuthorizationSoapClient.FIND_OFFICES_BY_EAUTH_ID_REQUEST;
+                values = new String[] {"28692023052412555531317", "FLP"};
+                break;
+            case "getUserRoles":
+                template = SimpleAuthorizationSoapClient.GET_USER_ROLES_REQUEST;
+                values = new String[] {"28200310169021026877", "-1452175789", "emp0007966"};
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+        messageFactory = ResponseFixtures.newMessageFactory();
+        buffer = new ByteArrayOutputStream(1024);
+    }
+
+    @Benchmark
+    public SaajSoapMessage saajMessage() throws Exception {
+        SaajSoapMessage message = messageFactory.createWebServiceMessage();
+        template.writeTo(message.getPayloadResult(), values);
+        return message;
+    }
+
+    @Benchmark
+    public int bytes() throws Exception {
+        buffer.reset();
+        template.writeTo(buffer, values);
+        return buffer.size();
+    }
+}
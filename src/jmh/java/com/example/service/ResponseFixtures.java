@@ -0,0 +1,92 @@
+package com.example.service;
+
+import jakarta.xml.soap.SOAPException;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Representative AuthorizationSharedService responses for the benchmarks
+ */
+final class ResponseFixtures {
+
+    private static final String ENVELOPE_START =
+            "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>";
+    private static final String ENVELOPE_END = "</soap:Body></soap:Envelope>";
+    private static final String NS = " xmlns:ns2=\"http://web.service.eas.citso.fsa.usda.gov\"";
+
+    private static final String IDENTITY =
+            "<ns2:UserIdentity>"
+            + "<AuthenticationSystemIdentifier>28200310169021026877</AuthenticationSystemIdentifier>"
+            + "<AuthorizationSystemIdentifier>-1452175789</AuthorizationSystemIdentifier>"
+            + "<UserLoginName>emp0007966</UserLoginName>"
+            + "</ns2:UserIdentity>";
+
+    private ResponseFixtures() {
+    }
+
+    static String isHealthy() {
+        return ENVELOPE_START
+                + "<ns2:isHealthyResponse" + NS + "><return>true</return></ns2:isHealthyResponse>"
+                + ENVELOPE_END;
+    }
+
+    static String userIdentity() {
+        return ENVELOPE_START
+                + "<ns2:findMatchingUserIdentityResponse" + NS + "><return>" + IDENTITY + "</return>"
+                + "</ns2:findMatchingUserIdentityResponse>"
+                + ENVELOPE_END;
+    }
+
+    /**
+     * Offices response with {@code count} five-digit office IDs
+     */
+    static String offices(int count) {
+        StringBuilder xml = new StringBuilder(ENVELOPE_START)
+                .append("<ns2:findOfficesByEauthIdResponse").append(NS).append("><return><ns2:Offices>");
+        for (int i = 0; i < count; i++) {
+            xml.append("<ns2:ListValue>").append(47310 + i).append("</ns2:ListValue>");
+        }
+        return xml.append("</ns2:Offices></return></ns2:findOfficesByEauthIdResponse>")
+                .append(ENVELOPE_END)
+                .toString();
+    }
+
+    /**
+     * Roles response with {@code count} dotted role names followed by the identity
+     */
+    static String userRoles(int count) {
+        StringBuilder xml = new StringBuilder(ENVELOPE_START)
+                .append("<ns2:getUserRolesResponse").append(NS).append("><return><ns2:UserRoles>");
+        for (int i = 0; i < count; i++) {
+            xml.append("<ns2:ListValue>app.fsa.flp.dls.role").append(i).append("</ns2:ListValue>");
+        }
+        return xml.append("</ns2:UserRoles>").append(IDENTITY)
+                .append("</return></ns2:getUserRolesResponse>")
+                .append(ENVELOPE_END)
+                .toString();
+    }
+
+    /**
+     * Reads the envelope into a SAAJ message, as the transport does for a real response
+     */
+    static SaajSoapMessage toMessage(SaajSoapMessageFactory messageFactory, String envelope) throws IOException {
+        return messageFactory.createWebServiceMessage(
+                new ByteArrayInputStream(envelope.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static SaajSoapMessageFactory newMessageFactory() {
+        try {
+            SaajSoapMessageFactory messageFactory = new SaajSoapMessageFactory();
+            messageFactory.afterPropertiesSet();
+            return messageFactory;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create SAAJ message factory", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each {@link SoapResponseParser} method.
+ * <p>
+ * {@code source=saaj} parses the body payload of a pre-built SAAJ message (the DOMSource the
+ * client sees today); {@code source=stream} parses the raw payload bytes. List responses are
+ * measured with 1, 50, 500 and 5,000 ListValue entries. Run with {@code -prof gc} for allocation
+ * rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseParseBenchmark {
+
+    @Param({"stax", "dom"})
+    public String parser;
+
+    @Param({"saaj", "stream"})
+    public String source;
+
+    @Param({"1", "50", "500", "5000"})
+    public int listSize;
+
+    private SoapResponseParser responseParser;
+    private Payload isHealthy;
+    private Payload userIdentity;
+    private Payload offices;
+    private Payload userRoles;
+
+    @Setup
+    public void setUp() throws Exception {
+        responseParser = "dom".equals(parser) ? new DomSoapResponseParser() : new StaxSoapResponseParser();
+        SaajSoapMessageFactory messageFactory = ResponseFixtures.newMessageFactory();
+        isHealthy = new Payload(messageFactory, ResponseFixtures.isHealthy());
+        userIdentity = new Payload(messageFactory, ResponseFixtures.userIdentity());
+        offices = new Payload(messageFactory, ResponseFixtures.offices(listSize));
+        userRoles = new Payload(messageFactory, ResponseFixtures.userRoles(listSize));
+
+        if (responseParser.parseOffices(offices.source()).size() != listSize) {
+            throw new IllegalStateException("Offices fixture did not parse to " + listSize + " entries");
+        }
+    }
+
+    @Benchmark
+    public boolean parseIsHealthy() throws Exception {
+        return responseParser.parseIsHealthy(isHealthy.source());
+    }
+
+    @Benchmark
+    public UserIdentityDto parseUserIdentity() throws Exception {
+        return responseParser.parseUserIdentity(userIdentity.source());
+    }
+
+    @Benchmark
+    public List<String> parseOffices() throws Exception {
+        return responseParser.parseOffices(offices.source());
+    }
+
+    @Benchmark
+    public UserRolesResponseDto parseUserRoles() throws Exception {
+        return responseParser.parseUserRoles(userRoles.source());
+    }
+
+    /**
+     * One fixture, available both as a SAAJ payload and as raw payload bytes
+     */
+    private final class Payload {
+        private final Source saajPayload;
+        private final byte[] payloadBytes;
+
+        Payload(SaajSoapMessageFactory messageFactory, String envelope) throws Exception {
+            this.saajPayload = ResponseFixtures.toMessage(messageFactory, envelope).getPayloadSource();
+            String body = envelope.substring(envelope.indexOf("<soap:Body>") + "<soap:Body>".length(),
+                    envelope.indexOf("</soap:Body>"));
+            this.payloadBytes = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        Source source() {
+            return "stream".equals(source) ? new StreamSource(new ByteArrayInputStream(payloadBytes)) : saajPayload;
+        }
+    }
+}
@@ -1,10 +1,39 @@
 package com.example.config;
 
+import com.example.service.AdaptiveLatencyPolicy;
+import com.example.service.BufferPool;
+import com.example.service.DomSoapResponseParser;
+import com.example.service.JaxWsAuthorizationSoapClient;
+import com.example.service.RequestCoalescer;
+import com.example.service.SoapClientMetrics;
+import com.example.service.SoapHttpCompression;
+import com.example.service.SoapResponseParser;
+import com.example.service.StaxSoapResponseParser;
+import com.example.service.StreamingMessageFactory;
+import com.example.service.UpstreamEndpoints;
+import com.example.service.UpstreamGuard;
+import jakarta.xml.soap.MessageFactory;
+import jakarta.xml.soap.SOAPException;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.WebServiceMessageSender;
+import org.springframework.ws.transport.http.HttpComponents5ClientFactory;
 import org.springframework.ws.transport.http.HttpUrlConnectionMessageSender;
+import org.springframework.ws.transport.http.SimpleHttpComponents5MessageSender;
 
 import java.time.Duration;
 
@@ -20,17 +49,164 @@ public class SoapConfig {
     @Value("${soap.read.timeout:60000}")
     private int readTimeout;
 
+    @Value("${soap.pool.max-total:200}")
+    private int poolMaxTotal;
+
+    @Value("${soap.pool.max-per-route:100}")
+    private int poolMaxPerRoute;
+
+    @Value("${soap.pool.idle-timeout:30000}")
+    private long poolIdleTimeout;
+
+    @Value("${soap.pool.time-to-live:300000}")
+    private long poolTimeToLive;
+
+    @Value("${soap.pool.keep-alive:30000}")
+    private long poolKeepAlive;
+
+    @Value("${soap.pool.validate-after-inactivity:2000}")
+    private long poolValidateAfterInactivity;
+
+    @Value("${soap.compression.response:true}")
+    private boolean compressResponses;
+
+    @Value("${soap.compression.request.enabled:false}")
+    private boolean compressRequests;
+
+    @Value("${soap.compression.request.min-size:2048}")
+    private long compressRequestsMinSize;
+
+    @Value("${soap.buffer.size:8192}")
+    private int bufferSize;
+
+    @Value("${soap.buffer.max-size:65536}")
+    private int bufferMaxSize;
+
+    @Value("${soap.buffer.max-pooled:256}")
+    private int bufferMaxPooled;
+
+    /**
+     * Requests are written into pooled buffers and responses parsed off the connection stream;
+     * SAAJ only handles error responses (see StreamingMessageFactory)
+     */
     @Bean
-    public WebServiceTemplate webServiceTemplate() {
-        WebServiceTemplate template = new WebServiceTemplate();
+    public WebServiceTemplate webServiceTemplate(WebServiceMessageSender soapMessageSender) throws SOAPException {
+        SaajSoapMessageFactory saajMessageFactory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+        WebServiceTemplate template = new WebServiceTemplate(new StreamingMessageFactory(saajMessageFactory,
+                new BufferPool(bufferSize, bufferMaxSize, bufferMaxPooled)));
         template.setDefaultUri(serviceUrl);
-        
+        template.setMessageSender(soapMessageSender);
+        return template;
+    }
+
+    /**
+     * Pooled connection manager shared by all SOAP calls (soap.transport.type=pooled)
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "soap.transport.type", havingValue = "pooled", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager soapConnectionManager() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectionTimeout))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                .setTimeToLive(TimeValue.ofMilliseconds(poolTimeToLive))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(poolValidateAfterInactivity))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolMaxTotal)
+                .setMaxConnPerRoute(poolMaxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+    }
+
+    /**
+     * HttpClient over the pooled connection manager, with compressed exchanges (see
+     * SoapHttpCompression). Closed on shutdown to stop its idle-connection evictor thread; it
+     * closes the connection manager along with it, which tolerates the second close of its bean.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "soap.transport.type", havingValue = "pooled", matchIfMissing = true)
+    public CloseableHttpClient soapHttpClient(PoolingHttpClientConnectionManager soapConnectionManager,
+                                              SoapClientMetrics metrics) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(poolKeepAlive))
+                .build();
+
+        SoapHttpCompression compression = new SoapHttpCompression(metrics, compressResponses, compressRequests,
+                compressRequestsMinSize);
+        return compression.applyTo(HttpClients.custom())
+                .setConnectionManager(soapConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(poolIdleTimeout))
+                // Spring WS sets Content-Length/Transfer-Encoding itself
+                .addRequestInterceptorFirst(new HttpComponents5ClientFactory.RemoveSoapHeadersInterceptor())
+                .build();
+    }
+
+    /**
+     * Keep-alive message sender on the pooled HttpClient
+     */
+    @Bean
+    @ConditionalOnProperty(name = "soap.transport.type", havingValue = "pooled", matchIfMissing = true)
+    public WebServiceMessageSender pooledSoapMessageSender(CloseableHttpClient soapHttpClient) {
+        return pooledMessageSender(soapHttpClient);
+    }
+
+    /**
+     * Message sender over an HttpClient built like {@link #soapHttpClient}
+     */
+    public static SimpleHttpComponents5MessageSender pooledMessageSender(HttpClient httpClient) {
+        SimpleHttpComponents5MessageSender messageSender = new SimpleHttpComponents5MessageSender(httpClient);
+        // HttpClient advertises and decodes the encodings itself
+        messageSender.setAcceptGzipEncoding(false);
+        return messageSender;
+    }
+
+    /**
+     * Plain HttpURLConnection sender, one connection per call (soap.transport.type=url-connection)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "soap.transport.type", havingValue = "url-connection")
+    public WebServiceMessageSender urlConnectionSoapMessageSender() {
         HttpUrlConnectionMessageSender messageSender = new HttpUrlConnectionMessageSender();
         messageSender.setConnectionTimeout(Duration.ofMillis(connectionTimeout));
         messageSender.setReadTimeout(Duration.ofMillis(readTimeout));
-        
-        template.setMessageSender(messageSender);
-        
-        return template;
+        return messageSender;
+    }
+
+    /**
+     * Single-pass StAX response parser (soap.response.parser=stax)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "soap.response.parser", havingValue = "stax", matchIfMissing = true)
+    public SoapResponseParser staxSoapResponseParser() {
+        return new StaxSoapResponseParser();
+    }
+
+    /**
+     * DOM + XPath response parser (soap.response.parser=dom)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "soap.response.parser", havingValue = "dom")
+    public SoapResponseParser domSoapResponseParser() {
+        return new DomSoapResponseParser();
+    }
+
+    /**
+     * Generated JAX-WS client in place of the Spring WS one (soap.client.engine=jaxws)
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "soap.client.engine", havingValue = "jaxws")
+    public JaxWsAuthorizationSoapClient jaxWsAuthorizationSoapClient(
+            RequestCoalescer requestCoalescer, SoapClientMetrics metrics, UpstreamGuard upstreamGuard,
+            AdaptiveLatencyPolicy latencyPolicy, UpstreamEndpoints endpoints,
+            @Value("${soap.jaxws.pool-size:16}") int poolSize,
+            @Value("${soap.request-token.application-identifier:}") String requestTokenApplicationIdentifier,
+            @Value("${soap.request-token.request-host:}") String requestTokenRequestHost) {
+        return new JaxWsAuthorizationSoapClient(requestCoalescer, metrics, upstreamGuard, latencyPolicy, endpoints,
+                poolSize, connectionTimeout, readTimeout, requestTokenApplicationIdentifier, requestTokenRequestHost);
     }
-}
\ No newline at end of file
+}
@@ -1,42 +1,138 @@
 package com.example.controller;
 
-import com.example.service.SimpleAuthorizationSoapClient;
+import com.example.service.AdaptiveLatencyPolicy;
+import com.example.service.AuthorizationDecisionDto;
+import com.example.service.AuthorizationDecisionService;
+import com.example.service.AuthorizationSoapClient;
+import com.example.service.BatchAuthorizationService;
+import com.example.service.BatchUserRolesResultDto;
+import com.example.service.CacheStatsDto;
+import com.example.service.CoalescingStatsDto;
+import com.example.service.ConnectionPoolStatsDto;
+import com.example.service.DecisionRequestDto;
+import com.example.service.DiskCacheTier;
+import com.example.service.EndpointStatsDto;
+import com.example.service.HedgingStatsDto;
+import com.example.service.HealthStatusDto;
+import com.example.service.IndexStatsDto;
+import com.example.service.OfficeRoleIndex;
+import com.example.service.RefreshAheadScheduler;
+import com.example.service.RefreshAheadStatsDto;
+import com.example.service.RequestCoalescer;
+import com.example.service.ResilienceStatsDto;
+import com.example.service.SoapCallRejectedException;
+import com.example.service.SoapHealthMonitor;
+import com.example.service.UserIdentityCache;
+import com.example.service.UserProfileDto;
+import com.example.service.UserProfileService;
 import com.example.service.UserIdentityDto;
+import com.example.service.UserOfficesCache;
+import com.example.service.UserRolesCache;
 import com.example.service.UserRolesResponseDto;
+import com.example.service.UpstreamEndpoints;
+import com.example.service.UpstreamGuard;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/authorization")
 public class AuthorizationController {
 
     @Autowired
-    private SimpleAuthorizationSoapClient authorizationSoapClient;
+    private AuthorizationSoapClient authorizationSoapClient;
+
+    @Autowired
+    private SoapHealthMonitor soapHealthMonitor;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private UserRolesCache userRolesCache;
+
+    @Autowired
+    private UserOfficesCache userOfficesCache;
+
+    @Autowired
+    private DiskCacheTier diskCacheTier;
+
+    @Autowired
+    private RefreshAheadScheduler refreshAheadScheduler;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private BatchAuthorizationService batchAuthorizationService;
+
+    @Autowired
+    private AuthorizationDecisionService authorizationDecisionService;
+
+    @Autowired
+    private OfficeRoleIndex officeRoleIndex;
+
+    @Autowired
+    private UpstreamGuard upstreamGuard;
+
+    @Autowired
+    private AdaptiveLatencyPolicy adaptiveLatencyPolicy;
+
+    @Autowired
+    private UpstreamEndpoints upstreamEndpoints;
+
+    @Autowired(required = false)
+    private PoolingHttpClientConnectionManager soapConnectionManager;
 
     /**
-     * Health check endpoint
+     * Health check endpoint (answered from the background health monitor)
      */
     @GetMapping("/health")
     public ResponseEntity<Boolean> checkHealth() {
         try {
-            boolean isHealthy = authorizationSoapClient.isHealthy();
+            boolean isHealthy = soapHealthMonitor.getStatus().isHealthy();
             return ResponseEntity.ok(isHealthy);
         } catch (Exception e) {
             return ResponseEntity.ok(false);
         }
     }
 
+    /**
+     * Last probe result, latency and state transitions of the upstream service
+     */
+    @GetMapping("/health/details")
+    public ResponseEntity<HealthStatusDto> getHealthDetails() {
+        return ResponseEntity.ok(soapHealthMonitor.getStatus());
+    }
+
     /**
      * Find matching user identity by eauth ID
      */
     @GetMapping("/user-identity/{eauthId}")
     public ResponseEntity<UserIdentityDto> findUserIdentity(@PathVariable String eauthId) {
         try {
-            UserIdentityDto userIdentity = authorizationSoapClient.findMatchingUserIdentity(eauthId);
+            UserIdentityDto userIdentity = userIdentityCache.findMatchingUserIdentity(eauthId);
             return ResponseEntity.ok(userIdentity);
+        } catch (SoapCallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -50,21 +146,92 @@ public class AuthorizationController {
             @PathVariable String eauthId,
             @RequestParam(defaultValue = "FLP") String officeType) {
         try {
-            List<String> offices = authorizationSoapClient.findOfficesByEauthId(eauthId, officeType);
+            List<String> offices = userOfficesCache.findOfficesByEauthId(eauthId, officeType);
             return ResponseEntity.ok(offices);
+        } catch (SoapCallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Users holding a role in an office, streamed as NDJSON (one JSON string per line) while the
+     * upstream response is still being read. The body runs after this method returns, so a shed
+     * call is turned away here, and one rejected inside the body is mapped by
+     * {@link #handleRejectedStream} before anything is written.
+     */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> findUsersByCriteria(
+            @RequestParam String officeId,
+            @RequestParam String roleName) {
+        if (!upstreamGuard.isAdmitting()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+            authorizationSoapClient.findUsersByCriteria(officeId, roleName, user -> {
+                try {
+                    writer.write('"');
+                    writer.write(encoder.quoteAsString(user));
+                    writer.write("\"\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Calls shed by the guard while a streamed body is running; the guard rejects before the
+     * upstream is called, so nothing has been written and the status can still change
+     */
+    @ExceptionHandler(SoapCallRejectedException.class)
+    public ResponseEntity<Void> handleRejectedStream(SoapCallRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Users holding a role in an office, answered from the local index; 404 when the office/role
+     * pair is not indexed
+     */
+    @GetMapping("/index/users")
+    public ResponseEntity<List<String>> findIndexedUsers(
+            @RequestParam String officeId,
+            @RequestParam String roleName) {
+        List<String> users = officeRoleIndex.findUsers(officeId, roleName);
+        return users == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(users);
+    }
+
+    /**
+     * Offices in which a user holds any indexed role, answered from the local index
+     */
+    @GetMapping("/index/offices/{eauthId}")
+    public ResponseEntity<List<String>> findIndexedOffices(@PathVariable String eauthId) {
+        return ResponseEntity.ok(officeRoleIndex.findOffices(eauthId));
+    }
+
+    /**
+     * Snapshot age, build time and size of the office/role index
+     */
+    @GetMapping("/index")
+    public ResponseEntity<IndexStatsDto> getIndexStats() {
+        return ResponseEntity.ok(officeRoleIndex.getStats());
+    }
+
     /**
      * Get user roles
      */
     @PostMapping("/user-roles")
     public ResponseEntity<UserRolesResponseDto> getUserRoles(@RequestBody UserIdentityDto userIdentity) {
         try {
-            UserRolesResponseDto userRoles = authorizationSoapClient.getUserRoles(userIdentity);
+            UserRolesResponseDto userRoles = userRolesCache.getUserRoles(userIdentity);
             return ResponseEntity.ok(userRoles);
+        } catch (SoapCallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -77,13 +244,169 @@ public class AuthorizationController {
     public ResponseEntity<UserRolesResponseDto> getUserRolesByEauthId(@PathVariable String eauthId) {
         try {
             // First get user identity
-            UserIdentityDto userIdentity = authorizationSoapClient.findMatchingUserIdentity(eauthId);
+            UserIdentityDto userIdentity = userIdentityCache.findMatchingUserIdentity(eauthId);
             
             // Then get user roles
-            UserRolesResponseDto userRoles = authorizationSoapClient.getUserRoles(userIdentity);
+            UserRolesResponseDto userRoles = userRolesCache.getUserRoles(userIdentity);
             return ResponseEntity.ok(userRoles);
+        } catch (SoapCallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get user roles for many eauth IDs (deduplicated, per-ID errors)
+     */
+    @PostMapping("/user-roles/batch")
+    public ResponseEntity<List<BatchUserRolesResultDto>> getUserRolesBatch(@RequestBody List<String> eauthIds) {
+        try {
+            return ResponseEntity.ok(batchAuthorizationService.getUserRoles(eauthIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Allow/deny decision: does the user hold the role(s) ({@code match=any} or {@code all}) and,
+     * if given, belong to the office
+     */
+    @GetMapping("/decide")
+    public ResponseEntity<AuthorizationDecisionDto> decide(
+            @RequestParam String eauthId,
+            @RequestParam(name = "role", required = false) List<String> roles,
+            @RequestParam(required = false) String office,
+            @RequestParam(defaultValue = AuthorizationDecisionService.DEFAULT_OFFICE_TYPE) String officeType,
+            @RequestParam(defaultValue = AuthorizationDecisionService.MATCH_ANY) String match) {
+        try {
+            return ResponseEntity.ok(authorizationDecisionService.decide(
+                    new DecisionRequestDto(eauthId, roles, match, office, officeType)));
+        } catch (SoapCallRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Decisions for many requests, in request order; a decision that fails is denied with reason "error"
+     */
+    @PostMapping("/decide/batch")
+    public ResponseEntity<List<AuthorizationDecisionDto>> decideBatch(@RequestBody List<DecisionRequestDto> requests) {
+        try {
+            return ResponseEntity.ok(batchAuthorizationService.decide(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Identity, roles and offices for every requested office type in one call (all office types by default)
+     */
+    @GetMapping("/profile/{eauthId}")
+    public CompletableFuture<ResponseEntity<UserProfileDto>> getUserProfile(
+            @PathVariable String eauthId,
+            @RequestParam(required = false) List<String> officeTypes) {
+        List<String> types = officeTypes == null || officeTypes.isEmpty()
+                ? UserProfileService.ALL_OFFICE_TYPES
+                : officeTypes;
+        return userProfileService.getProfileAsync(eauthId, types)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> e.getCause() instanceof SoapCallRejectedException
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()
+                        : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Connection pool statistics of the pooled SOAP transport
+     */
+    @GetMapping("/transport/pool")
+    public ResponseEntity<ConnectionPoolStatsDto> getConnectionPoolStats() {
+        if (soapConnectionManager == null) {
+            return ResponseEntity.notFound().build();
+        }
+        PoolStats totals = soapConnectionManager.getTotalStats();
+        return ResponseEntity.ok(new ConnectionPoolStatsDto(
+                totals.getLeased(),
+                totals.getPending(),
+                totals.getAvailable(),
+                totals.getMax(),
+                soapConnectionManager.getDefaultMaxPerRoute(),
+                soapConnectionManager.getRoutes().size()));
+    }
+
+    /**
+     * Identity cache statistics
+     */
+    @GetMapping("/cache/identity")
+    public ResponseEntity<CacheStatsDto> getIdentityCacheStats() {
+        return ResponseEntity.ok(userIdentityCache.getStats());
+    }
+
+    /**
+     * Roles cache statistics
+     */
+    @GetMapping("/cache/roles")
+    public ResponseEntity<CacheStatsDto> getRolesCacheStats() {
+        return ResponseEntity.ok(userRolesCache.getStats());
+    }
+
+    /**
+     * Offices cache statistics
+     */
+    @GetMapping("/cache/offices")
+    public ResponseEntity<CacheStatsDto> getOfficesCacheStats() {
+        return ResponseEntity.ok(userOfficesCache.getStats());
+    }
+
+    /**
+     * Refresh-ahead counters: hot keys tracked and entries refreshed before going stale
+     */
+    @GetMapping("/refresh-ahead")
+    public ResponseEntity<RefreshAheadStatsDto> getRefreshAheadStats() {
+        return ResponseEntity.ok(refreshAheadScheduler.getStats());
+    }
+
+    /**
+     * Memory-mapped second cache tier statistics
+     */
+    @GetMapping("/cache/disk")
+    public ResponseEntity<CacheStatsDto> getDiskCacheStats() {
+        return ResponseEntity.ok(diskCacheTier.getStats());
+    }
+
+    /**
+     * Request coalescing statistics
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<CoalescingStatsDto> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescer.getStats());
+    }
+
+    /**
+     * Circuit breaker state and adaptive concurrency limit in front of the upstream
+     */
+    @GetMapping("/resilience")
+    public ResponseEntity<ResilienceStatsDto> getResilienceStats() {
+        return ResponseEntity.ok(upstreamGuard.getStats());
+    }
+
+    /**
+     * Hedged request counters of the adaptive latency policy
+     */
+    @GetMapping("/hedging")
+    public ResponseEntity<HedgingStatsDto> getHedgingStats() {
+        return ResponseEntity.ok(adaptiveLatencyPolicy.getStats());
+    }
+
+    /**
+     * Load balancing state and call counters of each upstream replica
+     */
+    @GetMapping("/endpoints")
+    public ResponseEntity<List<EndpointStatsDto>> getEndpointStats() {
+        return ResponseEntity.ok(upstreamEndpoints.getStats());
+    }
+}
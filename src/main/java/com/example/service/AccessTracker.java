@@ -0,0 +1,74 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decaying per-key access counts of a cache, used by {@link RefreshAheadScheduler} to find its
+ * hottest keys.
+ * <p>
+ * Recording is a no-op until the tracker is activated, so caches pay nothing when refresh-ahead is
+ * off. At most {@code maxKeys} keys are tracked; new keys are ignored while the map is full and
+ * get their chance after the next {@link #decay}, which halves every count and drops keys that
+ * reach zero.
+ */
+final class AccessTracker<K> {
+
+    static final int DEFAULT_MAX_KEYS = 50_000;
+
+    private final int maxKeys;
+    private final ConcurrentMap<K, AtomicLong> counts = new ConcurrentHashMap<>();
+    private volatile boolean active;
+
+    AccessTracker(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    void activate() {
+        active = true;
+    }
+
+    void record(K key) {
+        if (!active) {
+            return;
+        }
+        AtomicLong count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= maxKeys) {
+                return;
+            }
+            count = counts.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Keys whose decayed count is at least {@code minAccesses}, hottest first
+     */
+    List<Hot<K>> hottest(long minAccesses) {
+        List<Hot<K>> hot = new ArrayList<>();
+        counts.forEach((key, count) -> {
+            long accesses = count.get();
+            if (accesses >= minAccesses) {
+                hot.add(new Hot<>(key, accesses));
+            }
+        });
+        hot.sort(Comparator.comparingLong((Hot<K> h) -> h.accesses).reversed());
+        return hot;
+    }
+
+    void decay() {
+        counts.values().removeIf(count -> count.updateAndGet(c -> c / 2) == 0);
+    }
+
+    int size() {
+        return counts.size();
+    }
+
+    record Hot<K>(K key, long accesses) {
+    }
+}
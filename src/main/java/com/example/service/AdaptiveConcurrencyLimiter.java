@@ -0,0 +1,93 @@
+package com.example.service;
+
+/**
+ * Concurrency limit that follows the upstream's latency (a simplified gradient limit).
+ * <p>
+ * A long-term average of the call latency is compared with each new sample. While samples stay
+ * near the average the limit grows by about its square root per update; once latency climbs above
+ * {@code tolerance} times the average (requests are queueing upstream) the gradient drops below one
+ * and the limit shrinks proportionally. Failed calls cut the limit multiplicatively (AIMD backoff).
+ * The limit only grows while at least half of it is in use, so an idle client does not build up a
+ * limit it has never exercised.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private double longRttNanos;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Require 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot, or returns false when the current limit is reached
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Returns a slot after a call that completed normally
+     */
+    public synchronized void onSuccess(long rttNanos) {
+        int inFlightAtStart = inFlight;
+        inFlight--;
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(rttNanos, 1)));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && inFlightAtStart < limit / 2) {
+            return;
+        }
+        setLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    /**
+     * Returns a slot after a call that failed or timed out
+     */
+    public synchronized void onDropped() {
+        inFlight--;
+        setLimit(limit * BACKOFF_RATIO);
+    }
+
+    /**
+     * Returns a slot without adjusting the limit (e.g. the call never reached the upstream)
+     */
+    public synchronized void onIgnore() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
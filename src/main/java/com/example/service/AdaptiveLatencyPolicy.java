@@ -0,0 +1,292 @@
+package com.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-operation latency tracking, latency-derived response timeouts and hedged requests.
+ * <p>
+ * The latency of the last {@value #WINDOW_SIZE} calls of each operation is kept in a ring buffer.
+ * Once {@code minSamples} are recorded, the response timeout of that operation becomes its timeout
+ * percentile times the multiplier, clamped between the minimum and the configured read timeout;
+ * until then the read timeout applies unchanged. Failed calls are recorded too, so calls cut off at
+ * the deadline push the percentile up and the timeout widens when the upstream slows down.
+ * <p>
+ * With hedging enabled, an idempotent call still running after its hedge percentile gets a
+ * duplicate, and the first successful result wins. Hedges draw from a token budget that each
+ * call refills by {@code maxHedgeRatio}, so at most that share of calls is ever duplicated,
+ * however slow the upstream becomes. The losing call is not cancelled; its result is discarded.
+ */
+@Component
+public class AdaptiveLatencyPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLatencyPolicy.class);
+
+    static final int WINDOW_SIZE = 1024;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final boolean timeoutsEnabled;
+    private final double timeoutPercentile;
+    private final double timeoutMultiplier;
+    private final long minTimeoutNanos;
+    private final long maxTimeoutNanos;
+    private final int minSamples;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final double maxHedgeRatio;
+    private final ExecutorService hedgeExecutor;
+
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder hedgesOverBudget = new LongAdder();
+
+    @Autowired
+    public AdaptiveLatencyPolicy(@Value("${soap.adaptive-timeout.enabled:true}") boolean timeoutsEnabled,
+                                 @Value("${soap.adaptive-timeout.percentile:99}") double timeoutPercentile,
+                                 @Value("${soap.adaptive-timeout.multiplier:3}") double timeoutMultiplier,
+                                 @Value("${soap.adaptive-timeout.min:500}") long minTimeoutMillis,
+                                 @Value("${soap.read.timeout:60000}") long maxTimeoutMillis,
+                                 @Value("${soap.adaptive-timeout.min-samples:100}") int minSamples,
+                                 @Value("${soap.hedging.enabled:false}") boolean hedgingEnabled,
+                                 @Value("${soap.hedging.percentile:95}") double hedgePercentile,
+                                 @Value("${soap.hedging.max-ratio:0.05}") double maxHedgeRatio,
+                                 @Value("${soap.hedging.threads:64}") int hedgeThreads) {
+        this(timeoutsEnabled, timeoutPercentile, timeoutMultiplier, Duration.ofMillis(minTimeoutMillis),
+                Duration.ofMillis(maxTimeoutMillis), minSamples, hedgingEnabled, hedgePercentile, maxHedgeRatio,
+                hedgingEnabled ? newHedgeExecutor(hedgeThreads) : null);
+    }
+
+    AdaptiveLatencyPolicy(boolean timeoutsEnabled, double timeoutPercentile, double timeoutMultiplier,
+                          Duration minTimeout, Duration maxTimeout, int minSamples, boolean hedgingEnabled,
+                          double hedgePercentile, double maxHedgeRatio, ExecutorService hedgeExecutor) {
+        if (minSamples < 1 || minSamples > WINDOW_SIZE) {
+            throw new IllegalArgumentException("min-samples must be between 1 and " + WINDOW_SIZE);
+        }
+        this.timeoutsEnabled = timeoutsEnabled;
+        this.timeoutPercentile = timeoutPercentile;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeoutNanos = minTimeout.toNanos();
+        this.maxTimeoutNanos = maxTimeout.toNanos();
+        this.minSamples = minSamples;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    /**
+     * Tracks latency only; fixed timeouts and no hedging
+     */
+    static AdaptiveLatencyPolicy disabled() {
+        return new AdaptiveLatencyPolicy(false, 99, 1, Duration.ZERO, Duration.ZERO, 1, false, 0, 0, null);
+    }
+
+    /**
+     * Records the latency of a successful call
+     */
+    public void record(String operation, long latencyNanos) {
+        windows.computeIfAbsent(operation, name -> new LatencyWindow()).record(latencyNanos);
+    }
+
+    /**
+     * Records the elapsed time of a failed call. A call that timed out counts at its deadline:
+     * without it the window would only hold calls faster than the current timeout and could never
+     * raise it again.
+     */
+    public void recordFailure(String operation, long elapsedNanos) {
+        record(operation, elapsedNanos);
+    }
+
+    /**
+     * Latency percentile (0-100] of the recent calls of an operation, or -1 with too few samples
+     */
+    public long percentileNanos(String operation, double percentile) {
+        LatencyWindow window = windows.get(operation);
+        return window == null ? -1 : window.percentile(percentile, minSamples);
+    }
+
+    /**
+     * Response timeout for the next call of an operation, or null to keep the transport default
+     */
+    public Duration responseTimeout(String operation) {
+        if (!timeoutsEnabled) {
+            return null;
+        }
+        long percentile = percentileNanos(operation, timeoutPercentile);
+        if (percentile < 0) {
+            return null;
+        }
+        long timeout = (long) (percentile * timeoutMultiplier);
+        return Duration.ofNanos(Math.max(minTimeoutNanos, Math.min(maxTimeoutNanos, timeout)));
+    }
+
+    /**
+     * Runs an idempotent call, hedging it once it is slower than the hedge percentile
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        if (!hedgingEnabled) {
+            return call.get();
+        }
+        refillHedgeBudget();
+        long hedgeDelay = percentileNanos(operation, hedgePercentile);
+        if (hedgeDelay < 0) {
+            return call.get();
+        }
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(call, hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+        try {
+            return primary.get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // fall through to the hedge
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+
+        if (!tryAcquireHedge()) {
+            hedgesOverBudget.increment();
+            return await(primary, operation);
+        }
+        CompletableFuture<T> hedge;
+        try {
+            hedge = CompletableFuture.supplyAsync(call, hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            return await(primary, operation);
+        }
+        hedgedCalls.increment();
+        logger.debug("Hedging {} after {} ms", operation, TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((result, failure) -> complete(first, result, failure, failures, false));
+        hedge.whenComplete((result, failure) -> complete(first, result, failure, failures, true));
+        return await(first, operation);
+    }
+
+    public HedgingStatsDto getStats() {
+        return new HedgingStatsDto(hedgingEnabled, hedgedCalls.sum(), hedgeWins.sum(), hedgesOverBudget.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private <T> void complete(CompletableFuture<T> first, T result, Throwable failure, AtomicInteger failures,
+                              boolean isHedge) {
+        if (failure == null) {
+            if (first.complete(result) && isHedge) {
+                hedgeWins.increment();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(failure);
+        }
+    }
+
+    private synchronized void refillHedgeBudget() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + maxHedgeRatio);
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens--;
+        return true;
+    }
+
+    private static <T> T await(CompletableFuture<T> future, String operation) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private static ExecutorService newHedgeExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new CustomizableThreadFactory("soap-hedge-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Ring buffer of recent latencies; percentiles are computed from a sorted copy that is
+     * refreshed after every 64 new samples
+     */
+    private static final class LatencyWindow {
+        private static final int RESORT_INTERVAL = 64;
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int position;
+        private int count;
+        private int sinceSort = RESORT_INTERVAL;
+        private long[] sorted = new long[0];
+
+        synchronized void record(long latencyNanos) {
+            samples[position] = latencyNanos;
+            position = (position + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceSort++;
+        }
+
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (sinceSort >= RESORT_INTERVAL || sorted.length < minSamples) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                sinceSort = 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link AuthorizationSoapClient}.
+ * <p>
+ * Calls run on a dedicated, bounded pool so independent lookups can be composed and run in
+ * parallel. Each future fails with a {@link java.util.concurrent.TimeoutException} once the call
+ * timeout elapses, and immediately with a {@link RejectedExecutionException} when the pool and its
+ * queue are full. A timed-out call is not interrupted; its worker finishes in the background.
+ */
+@Service
+public class AsyncAuthorizationSoapClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAuthorizationSoapClient.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final ExecutorService executor;
+    private final Duration callTimeout;
+
+    @Autowired
+    public AsyncAuthorizationSoapClient(AuthorizationSoapClient authorizationSoapClient,
+                                        @Value("${soap.async.threads:32}") int threads,
+                                        @Value("${soap.async.queue-capacity:1000}") int queueCapacity,
+                                        @Value("${soap.async.call-timeout:10000}") long callTimeoutMillis) {
+        this(authorizationSoapClient, newExecutor(threads, queueCapacity), Duration.ofMillis(callTimeoutMillis));
+    }
+
+    AsyncAuthorizationSoapClient(AuthorizationSoapClient authorizationSoapClient, ExecutorService executor,
+                                 Duration callTimeout) {
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.executor = executor;
+        this.callTimeout = callTimeout;
+    }
+
+    public CompletableFuture<Boolean> isHealthyAsync() {
+        return supplyAsync(authorizationSoapClient::isHealthy);
+    }
+
+    public CompletableFuture<UserIdentityDto> findMatchingUserIdentityAsync(String usdaEauthId) {
+        return supplyAsync(() -> authorizationSoapClient.findMatchingUserIdentity(usdaEauthId));
+    }
+
+    public CompletableFuture<List<String>> findOfficesByEauthIdAsync(String usdaEauthId, String officeType) {
+        return supplyAsync(() -> authorizationSoapClient.findOfficesByEauthId(usdaEauthId, officeType));
+    }
+
+    public CompletableFuture<UserRolesResponseDto> getUserRolesAsync(UserIdentityDto userIdentityDto) {
+        return supplyAsync(() -> authorizationSoapClient.getUserRoles(userIdentityDto));
+    }
+
+    /**
+     * Runs any other blocking lookup (e.g. a cached one) on the same pool and with the same timeout
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return supplyAsync(call, callTimeout);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call, Duration timeout) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor)
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.warn("SOAP async pool saturated, rejecting call");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public Duration getCallTimeout() {
+        return callTimeout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("soap-async-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.service;
+
+/**
+ * Allow/deny answer of an authorization decision; reason says why access was denied
+ */
+public class AuthorizationDecisionDto {
+    private boolean allowed;
+    private String reason;
+
+    // Constructors
+    public AuthorizationDecisionDto() {}
+
+    public AuthorizationDecisionDto(boolean allowed, String reason) {
+        this.allowed = allowed;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public void setAllowed(boolean allowed) {
+        this.allowed = allowed;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorizationDecisionDto{" +
+                "allowed=" + allowed +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Answers "may this user do X" inside this service, so callers get a yes/no instead of a full
+ * role list to scan themselves.
+ * <p>
+ * The identity and roles come from their caches, and role checks run against the compact
+ * {@link UserRoleSet}. The office check is made only when an office is asked for and the role
+ * check has passed, since it may cost an upstream call. Upstream failures propagate; a user the
+ * upstream does not know is denied.
+ */
+@Service
+public class AuthorizationDecisionService {
+
+    public static final String MATCH_ANY = "any";
+    public static final String MATCH_ALL = "all";
+    public static final String DEFAULT_OFFICE_TYPE = "FLP";
+
+    public static final String REASON_UNKNOWN_USER = "unknown-user";
+    public static final String REASON_MISSING_ROLE = "missing-role";
+    public static final String REASON_NOT_IN_OFFICE = "not-in-office";
+    public static final String REASON_ERROR = "error";
+
+    private static final String[] NO_ROLES = new String[0];
+
+    private final UserIdentityCache userIdentityCache;
+    private final UserRolesCache userRolesCache;
+    private final UserOfficesCache userOfficesCache;
+
+    @Autowired
+    public AuthorizationDecisionService(UserIdentityCache userIdentityCache, UserRolesCache userRolesCache,
+                                        UserOfficesCache userOfficesCache) {
+        this.userIdentityCache = userIdentityCache;
+        this.userRolesCache = userRolesCache;
+        this.userOfficesCache = userOfficesCache;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the eauth ID is missing or the match mode is unknown
+     */
+    public AuthorizationDecisionDto decide(DecisionRequestDto request) {
+        if (request.getEauthId() == null || request.getEauthId().isBlank()) {
+            throw new IllegalArgumentException("eauthId is required");
+        }
+        boolean matchAll = matchAll(request.getMatch());
+        String[] roles = request.getRoles() == null ? NO_ROLES : request.getRoles().toArray(NO_ROLES);
+
+        UserIdentityDto identity = userIdentityCache.findMatchingUserIdentity(request.getEauthId());
+        if (UserIdentityCache.isUnknown(identity)) {
+            return deny(REASON_UNKNOWN_USER);
+        }
+        if (roles.length > 0) {
+            UserRoleSet roleSet = userRolesCache.getRoleSet(identity);
+            if (matchAll ? !roleSet.hasAllRoles(roles) : !roleSet.hasAnyRole(roles)) {
+                return deny(REASON_MISSING_ROLE);
+            }
+        }
+        if (request.getOffice() != null && !request.getOffice().isBlank()) {
+            String officeType = request.getOfficeType() == null || request.getOfficeType().isBlank()
+                    ? DEFAULT_OFFICE_TYPE
+                    : request.getOfficeType();
+            List<String> offices = userOfficesCache.findOfficesByEauthId(request.getEauthId(), officeType);
+            if (offices == null || !offices.contains(request.getOffice())) {
+                return deny(REASON_NOT_IN_OFFICE);
+            }
+        }
+        return new AuthorizationDecisionDto(true, null);
+    }
+
+    static AuthorizationDecisionDto deny(String reason) {
+        return new AuthorizationDecisionDto(false, reason);
+    }
+
+    private static boolean matchAll(String match) {
+        if (match == null || match.isBlank() || MATCH_ANY.equalsIgnoreCase(match)) {
+            return false;
+        }
+        if (MATCH_ALL.equalsIgnoreCase(match)) {
+            return true;
+        }
+        throw new IllegalArgumentException("match must be '" + MATCH_ANY + "' or '" + MATCH_ALL + "'");
+    }
+}
@@ -8,7 +8,7 @@ import java.util.List;
 public class AuthorizationServiceExample {
 
     @Autowired
-    private SimpleAuthorizationSoapClient authorizationSoapClient;
+    private AuthorizationSoapClient authorizationSoapClient;
 
     /**
      * Example method showing how to use the SOAP client
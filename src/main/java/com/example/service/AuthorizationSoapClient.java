@@ -0,0 +1,35 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Operations of the upstream AuthorizationSharedService.
+ * <p>
+ * Two engines implement it, selected with {@code soap.client.engine}: the hand-rolled Spring WS
+ * client {@link SimpleAuthorizationSoapClient} ({@code spring-ws}, the default) and the
+ * wsimport-generated typed client {@link JaxWsAuthorizationSoapClient} ({@code jaxws}). Both go
+ * through the same guard, load balancer, coalescer and metrics, so they can be compared under
+ * identical load. Failures surface as {@link RuntimeException}s; calls shed by the guard as
+ * {@link SoapCallRejectedException}.
+ */
+public interface AuthorizationSoapClient {
+
+    /**
+     * Probes every replica and reports whether at least one of them is healthy
+     */
+    boolean isHealthy();
+
+    UserIdentityDto findMatchingUserIdentity(String usdaEauthId);
+
+    List<String> findOfficesByEauthId(String usdaEauthId, String officeType);
+
+    UserRolesResponseDto getUserRoles(UserIdentityDto userIdentityDto);
+
+    /**
+     * Passes every user holding the role in the office to the consumer, on the calling thread
+     *
+     * @return the number of users
+     */
+    long findUsersByCriteria(String officeId, String roleName, Consumer<String> userConsumer);
+}
@@ -0,0 +1,153 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Resolves roles for many eauth IDs with bounded fan-out.
+ * <p>
+ * IDs are deduplicated (first occurrence keeps its position) and at most {@code maxConcurrency}
+ * lookups are in flight at any time; a new one starts as soon as one finishes. Every lookup goes
+ * through the identity and roles caches. A failing ID yields an error entry without affecting the
+ * rest of the batch. Batches of authorization decisions are fanned out the same way.
+ */
+@Service
+public class BatchAuthorizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchAuthorizationService.class);
+
+    private final AsyncAuthorizationSoapClient asyncSoapClient;
+    private final UserIdentityCache userIdentityCache;
+    private final UserRolesCache userRolesCache;
+    private final AuthorizationDecisionService decisionService;
+    private final int maxConcurrency;
+    private final int maxBatchSize;
+
+    @Autowired
+    public BatchAuthorizationService(AsyncAuthorizationSoapClient asyncSoapClient,
+                                     UserIdentityCache userIdentityCache,
+                                     UserRolesCache userRolesCache,
+                                     AuthorizationDecisionService decisionService,
+                                     @Value("${soap.batch.max-concurrency:16}") int maxConcurrency,
+                                     @Value("${soap.batch.max-size:10000}") int maxBatchSize) {
+        this.asyncSoapClient = asyncSoapClient;
+        this.userIdentityCache = userIdentityCache;
+        this.userRolesCache = userRolesCache;
+        this.decisionService = decisionService;
+        this.maxConcurrency = maxConcurrency;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Looks up roles for every distinct ID; blocks until the whole batch is done
+     */
+    public List<BatchUserRolesResultDto> getUserRoles(List<String> eauthIds) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(eauthIds));
+        if (distinctIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + distinctIds.size() + " IDs exceeds the limit of " + maxBatchSize);
+        }
+        logger.debug("Resolving roles for {} distinct eauth IDs ({} requested)", distinctIds.size(), eauthIds.size());
+        return fanOut(distinctIds, this::lookup, BatchAuthorizationService::failure);
+    }
+
+    /**
+     * Answers every decision request, in request order; blocks until the whole batch is done
+     */
+    public List<AuthorizationDecisionDto> decide(List<DecisionRequestDto> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + requests.size() + " decisions exceeds the limit of " + maxBatchSize);
+        }
+        logger.debug("Evaluating {} authorization decisions", requests.size());
+        return fanOut(requests, decisionService::decide, BatchAuthorizationService::decisionFailure);
+    }
+
+    /**
+     * Applies the call to every item with at most {@code maxConcurrency} in flight; a failed item is
+     * mapped to its error result
+     */
+    private <T, R> List<R> fanOut(List<T> items, Function<T, R> call, BiFunction<T, Throwable, R> onFailure) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                permits.acquire();
+                // The slot is freed when the lookup itself ends, not when its future times out, or
+                // timed-out lookups would pile up beyond the limit; a rejected one never runs
+                AtomicBoolean released = new AtomicBoolean();
+                Runnable release = () -> {
+                    if (released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                };
+                CompletableFuture<R> future = asyncSoapClient
+                        .supplyAsync(() -> {
+                            try {
+                                return call.apply(item);
+                            } finally {
+                                release.run();
+                            }
+                        })
+                        .whenComplete((result, e) -> {
+                            if (unwrap(e) instanceof RejectedExecutionException) {
+                                release.run();
+                            }
+                        })
+                        .exceptionally(e -> onFailure.apply(item, e));
+                futures.add(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while dispatching batch", e);
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private BatchUserRolesResultDto lookup(String eauthId) {
+        UserIdentityDto identity = userIdentityCache.findMatchingUserIdentity(eauthId);
+        UserRolesResponseDto roles = userRolesCache.getUserRoles(identity);
+        return new BatchUserRolesResultDto(eauthId, roles, null);
+    }
+
+    private static BatchUserRolesResultDto failure(String eauthId, Throwable e) {
+        Throwable cause = unwrap(e);
+        logger.warn("Batch roles lookup failed for eauth ID: {}", eauthId, cause);
+        return new BatchUserRolesResultDto(eauthId, null, String.valueOf(cause.getMessage()));
+    }
+
+    /**
+     * A decision that could not be made is a deny; the caller cannot tell it apart from a refusal
+     * other than by its reason
+     */
+    private static AuthorizationDecisionDto decisionFailure(DecisionRequestDto request, Throwable e) {
+        logger.warn("Authorization decision failed for eauth ID: {}", request.getEauthId(), unwrap(e));
+        return AuthorizationDecisionService.deny(AuthorizationDecisionService.REASON_ERROR);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
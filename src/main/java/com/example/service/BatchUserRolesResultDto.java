@@ -0,0 +1,53 @@
+package com.example.service;
+
+/**
+ * Per-ID result of a batch roles lookup; exactly one of userRoles and error is set
+ */
+public class BatchUserRolesResultDto {
+    private String eauthId;
+    private UserRolesResponseDto userRoles;
+    private String error;
+
+    // Constructors
+    public BatchUserRolesResultDto() {}
+
+    public BatchUserRolesResultDto(String eauthId, UserRolesResponseDto userRoles, String error) {
+        this.eauthId = eauthId;
+        this.userRoles = userRoles;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getEauthId() {
+        return eauthId;
+    }
+
+    public void setEauthId(String eauthId) {
+        this.eauthId = eauthId;
+    }
+
+    public UserRolesResponseDto getUserRoles() {
+        return userRoles;
+    }
+
+    public void setUserRoles(UserRolesResponseDto userRoles) {
+        this.userRoles = userRoles;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchUserRolesResultDto{" +
+                "eauthId='" + eauthId + '\'' +
+                ", userRoles=" + userRoles +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable byte arrays for outbound SOAP envelopes.
+ * <p>
+ * {@link #acquire()} never blocks: when the pool is empty a new array of {@code bufferSize} bytes
+ * is allocated. Buffers grow like a {@link java.io.ByteArrayOutputStream} for larger messages. On
+ * release an array goes back to the pool unless the pool already holds {@code maxPooled} arrays or
+ * the array has grown beyond {@code maxBufferSize}, so one huge message does not pin its memory.
+ * Under steady load every call reuses a pooled array and allocates no body bytes of its own.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final int maxBufferSize;
+    private final BlockingQueue<byte[]> pool;
+    private final LongAdder allocations = new LongAdder();
+
+    public BufferPool(int bufferSize, int maxBufferSize, int maxPooled) {
+        if (bufferSize < 1 || maxBufferSize < bufferSize || maxPooled < 1) {
+            throw new IllegalArgumentException("Invalid buffer pool settings: size " + bufferSize
+                    + ", max size " + maxBufferSize + ", max pooled " + maxPooled);
+        }
+        this.bufferSize = bufferSize;
+        this.maxBufferSize = maxBufferSize;
+        this.pool = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * 8 KiB buffers, up to 64 KiB kept, 256 pooled
+     */
+    public static BufferPool withDefaults() {
+        return new BufferPool(8192, 65536, 256);
+    }
+
+    public PooledBuffer acquire() {
+        byte[] bytes = pool.poll();
+        if (bytes == null) {
+            allocations.increment();
+            bytes = new byte[bufferSize];
+        }
+        return new PooledBuffer(bytes);
+    }
+
+    /**
+     * Arrays currently waiting in the pool
+     */
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    /**
+     * Arrays allocated because the pool was empty
+     */
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    private void release(byte[] bytes) {
+        if (bytes.length <= maxBufferSize) {
+            pool.offer(bytes);
+        }
+    }
+
+    /**
+     * Growable byte sink over a pooled array. Not thread-safe; {@link #release()} hands the array
+     * back, after which the buffer must not be used.
+     */
+    public final class PooledBuffer extends OutputStream {
+        private byte[] bytes;
+        private int size;
+
+        private PooledBuffer(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(size + len);
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void reset() {
+            checkNotReleased();
+            size = 0;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            checkNotReleased();
+            out.write(bytes, 0, size);
+        }
+
+        /**
+         * Reads the written bytes in place, without copying them
+         */
+        public InputStream inputStream() {
+            checkNotReleased();
+            return new ByteArrayInputStream(bytes, 0, size);
+        }
+
+        /**
+         * Returns the array to the pool; further calls are no-ops
+         */
+        public void release() {
+            if (bytes != null) {
+                BufferPool.this.release(bytes);
+                bytes = null;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            checkNotReleased();
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        private void checkNotReleased() {
+            if (bytes == null) {
+                throw new IllegalStateException("Buffer has been released");
+            }
+        }
+    }
+}
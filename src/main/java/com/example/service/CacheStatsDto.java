@@ -0,0 +1,87 @@
+package com.example.service;
+
+/**
+ * Hit/miss/eviction statistics of an in-process cache
+ */
+public class CacheStatsDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadFailureCount;
+    private long evictionCount;
+
+    // Constructors
+    public CacheStatsDto() {}
+
+    public CacheStatsDto(long size, long hitCount, long missCount, double hitRate,
+                         long loadFailureCount, long evictionCount) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+    }
+
+    // Getters and Setters
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public void setLoadFailureCount(long loadFailureCount) {
+        this.loadFailureCount = loadFailureCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatsDto{" +
+                "size=" + size +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + hitRate +
+                ", loadFailureCount=" + loadFailureCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
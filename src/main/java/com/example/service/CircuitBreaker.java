@@ -0,0 +1,135 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * Outcomes of the last {@code windowSize} calls are kept in a ring buffer. Once at least
+ * {@code minimumCalls} are recorded and the share of failures (errors and calls slower than the
+ * slow-call threshold) reaches the threshold, the breaker opens and rejects all calls for the open
+ * duration. It then lets {@code halfOpenCalls} trial calls through: if they all succeed it closes
+ * again, any failure reopens it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoTime;
+
+    private final boolean[] failures;
+    private int position;
+    private int recorded;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, Duration openDuration,
+                          Duration slowCallThreshold, int halfOpenCalls, LongSupplier nanoTime) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Require 1 <= minimum-calls <= window-size and half-open-calls >= 1");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openNanos = openDuration.toNanos();
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoTime = nanoTime;
+        this.failures = new boolean[windowSize];
+    }
+
+    /**
+     * Whether a call may go ahead; in half-open state this hands out the trial calls
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallNanos);
+    }
+
+    public synchronized void onFailure() {
+        record(true);
+    }
+
+    /**
+     * Gives back a permit for a call whose outcome says nothing about the upstream
+     */
+    public synchronized void onIgnore() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call admitted before the breaker opened
+            return;
+        }
+
+        if (recorded == failures.length && failures[position]) {
+            failureCount--;
+        }
+        failures[position] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        position = (position + 1) % failures.length;
+        recorded = Math.min(recorded + 1, failures.length);
+
+        if (recorded >= minimumCalls && failureCount * 100.0 / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+    }
+}
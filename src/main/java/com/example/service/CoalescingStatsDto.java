@@ -0,0 +1,64 @@
+package com.example.service;
+
+/**
+ * Counters of the single-flight request coalescer
+ */
+public class CoalescingStatsDto {
+    private long totalCalls;
+    private long upstreamCalls;
+    private long coalescedCalls;
+    private int inFlight;
+
+    // Constructors
+    public CoalescingStatsDto() {}
+
+    public CoalescingStatsDto(long totalCalls, long upstreamCalls, long coalescedCalls, int inFlight) {
+        this.totalCalls = totalCalls;
+        this.upstreamCalls = upstreamCalls;
+        this.coalescedCalls = coalescedCalls;
+        this.inFlight = inFlight;
+    }
+
+    // Getters and Setters
+    public long getTotalCalls() {
+        return totalCalls;
+    }
+
+    public void setTotalCalls(long totalCalls) {
+        this.totalCalls = totalCalls;
+    }
+
+    public long getUpstreamCalls() {
+        return upstreamCalls;
+    }
+
+    public void setUpstreamCalls(long upstreamCalls) {
+        this.upstreamCalls = upstreamCalls;
+    }
+
+    public long getCoalescedCalls() {
+        return coalescedCalls;
+    }
+
+    public void setCoalescedCalls(long coalescedCalls) {
+        this.coalescedCalls = coalescedCalls;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingStatsDto{" +
+                "totalCalls=" + totalCalls +
+                ", upstreamCalls=" + upstreamCalls +
+                ", coalescedCalls=" + coalescedCalls +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
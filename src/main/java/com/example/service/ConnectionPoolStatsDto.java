@@ -0,0 +1,87 @@
+package com.example.service;
+
+/**
+ * Snapshot of the pooled SOAP transport's connection pool
+ */
+public class ConnectionPoolStatsDto {
+    private int leased;
+    private int pending;
+    private int available;
+    private int max;
+    private int defaultMaxPerRoute;
+    private int routes;
+
+    // Constructors
+    public ConnectionPoolStatsDto() {}
+
+    public ConnectionPoolStatsDto(int leased, int pending, int available, int max,
+                                  int defaultMaxPerRoute, int routes) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+        this.routes = routes;
+    }
+
+    // Getters and Setters
+    public int getLeased() {
+        return leased;
+    }
+
+    public void setLeased(int leased) {
+        this.leased = leased;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return defaultMaxPerRoute;
+    }
+
+    public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+    }
+
+    public int getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(int routes) {
+        this.routes = routes;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatsDto{" +
+                "leased=" + leased +
+                ", pending=" + pending +
+                ", available=" + available +
+                ", max=" + max +
+                ", defaultMaxPerRoute=" + defaultMaxPerRoute +
+                ", routes=" + routes +
+                '}';
+    }
+}
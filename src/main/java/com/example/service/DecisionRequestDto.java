@@ -0,0 +1,77 @@
+package com.example.service;
+
+import java.util.List;
+
+/**
+ * Authorization question: does the user hold the roles (any or all of them) and belong to the office
+ */
+public class DecisionRequestDto {
+    private String eauthId;
+    private List<String> roles;
+    private String match;
+    private String office;
+    private String officeType;
+
+    // Constructors
+    public DecisionRequestDto() {}
+
+    public DecisionRequestDto(String eauthId, List<String> roles, String match, String office, String officeType) {
+        this.eauthId = eauthId;
+        this.roles = roles;
+        this.match = match;
+        this.office = office;
+        this.officeType = officeType;
+    }
+
+    // Getters and Setters
+    public String getEauthId() {
+        return eauthId;
+    }
+
+    public void setEauthId(String eauthId) {
+        this.eauthId = eauthId;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public String getMatch() {
+        return match;
+    }
+
+    public void setMatch(String match) {
+        this.match = match;
+    }
+
+    public String getOffice() {
+        return office;
+    }
+
+    public void setOffice(String office) {
+        this.office = office;
+    }
+
+    public String getOfficeType() {
+        return officeType;
+    }
+
+    public void setOfficeType(String officeType) {
+        this.officeType = officeType;
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionRequestDto{" +
+                "eauthId='" + eauthId + '\'' +
+                ", roles=" + roles +
+                ", match='" + match + '\'' +
+                ", office='" + office + '\'' +
+                ", officeType='" + officeType + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second cache tier for identities and roles, below the Caffeine caches, in a
+ * {@link MappedEntryStore} file that survives restarts.
+ * <p>
+ * The in-process caches look here on a miss before going upstream and write every upstream
+ * result through, so a restarted node answers from the file instead of refetching its whole
+ * working set, and the on-heap caches can be kept small. Entries are encoded compactly with
+ * {@link DataOutputStream}; unknown identities are not stored. When disabled, or when the file
+ * cannot be opened, every lookup is a miss and writes are dropped.
+ */
+@Component
+public class DiskCacheTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheTier.class);
+
+    private static final byte IDENTITY = 'I';
+    private static final byte ROLES = 'R';
+
+    private final MappedEntryStore store;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder unreadable = new LongAdder();
+
+    @Autowired
+    public DiskCacheTier(@Value("${soap.cache.disk.enabled:false}") boolean enabled,
+                         @Value("${soap.cache.disk.path:data/authorization-cache.bin}") String path,
+                         @Value("${soap.cache.disk.slots:131072}") int slots,
+                         @Value("${soap.cache.disk.slot-size:1024}") int slotSize) {
+        this(enabled ? openStore(Path.of(path), slots, slotSize) : null);
+    }
+
+    DiskCacheTier(MappedEntryStore store) {
+        this.store = store;
+    }
+
+    static DiskCacheTier disabled() {
+        return new DiskCacheTier(null);
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Stored identity no older than {@code maxAge}, with its age, or null
+     */
+    public Stored<UserIdentityDto> getIdentity(String usdaEauthId, Duration maxAge) {
+        return read(identityKey(usdaEauthId), maxAge, DiskCacheTier::decodeIdentity);
+    }
+
+    public void putIdentity(String usdaEauthId, UserIdentityDto identity) {
+        if (store != null && !UserIdentityCache.isUnknown(identity)) {
+            store.put(identityKey(usdaEauthId), encode(out -> writeIdentity(out, identity)));
+        }
+    }
+
+    /**
+     * Stored roles no older than {@code maxAge}, with their age, or null
+     */
+    public Stored<UserRolesResponseDto> getRoles(UserIdentityKey key, Duration maxAge) {
+        return read(rolesKey(key), maxAge, DiskCacheTier::decodeRoles);
+    }
+
+    public void putRoles(UserIdentityKey key, UserRolesResponseDto roles) {
+        if (store != null && roles != null) {
+            store.put(rolesKey(key), encode(out -> writeRoles(out, roles)));
+        }
+    }
+
+    public void invalidateIdentity(String usdaEauthId) {
+        if (store != null) {
+            store.remove(identityKey(usdaEauthId));
+        }
+    }
+
+    public void invalidateRoles(UserIdentityKey key) {
+        if (store != null) {
+            store.remove(rolesKey(key));
+        }
+    }
+
+    public void invalidateAll() {
+        if (store != null) {
+            store.clear();
+        }
+    }
+
+    /**
+     * Entries, hits and misses of the file; load failures are entries that could not be decoded
+     */
+    public CacheStatsDto getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new CacheStatsDto(
+                store == null ? 0 : store.getEntryCount(),
+                hitCount,
+                missCount,
+                lookups == 0 ? 1.0 : (double) hitCount / lookups,
+                unreadable.sum(),
+                store == null ? 0 : store.getEvictionCount());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Failed to flush disk cache {}", store.getPath(), e);
+            }
+        }
+    }
+
+    private <T> Stored<T> read(byte[] key, Duration maxAge, Decoder<T> decoder) {
+        if (store == null) {
+            return null;
+        }
+        try {
+            MappedEntryStore.Entry entry = store.get(key, maxAge.toMillis());
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            T value = decoder.decode(new DataInputStream(new ByteArrayInputStream(entry.value())));
+            hits.increment();
+            return new Stored<>(value, entry.ageMillis());
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Dropping unreadable disk cache entry", e);
+            store.remove(key);
+            unreadable.increment();
+            misses.increment();
+            return null;
+        }
+    }
+
+    private static byte[] identityKey(String usdaEauthId) {
+        return encode(out -> {
+            out.writeByte(IDENTITY);
+            writeNullable(out, usdaEauthId);
+        });
+    }
+
+    private static byte[] rolesKey(UserIdentityKey key) {
+        return encode(out -> {
+            out.writeByte(ROLES);
+            writeNullable(out, key.authenticationSystemIdentifier());
+            writeNullable(out, key.authorizationSystemIdentifier());
+            writeNullable(out, key.userLoginName());
+        });
+    }
+
+    private static void writeIdentity(DataOutputStream out, UserIdentityDto identity) throws IOException {
+        out.writeBoolean(identity != null);
+        if (identity != null) {
+            writeNullable(out, identity.getAuthenticationSystemIdentifier());
+            writeNullable(out, identity.getAuthorizationSystemIdentifier());
+            writeNullable(out, identity.getUserLoginName());
+        }
+    }
+
+    private static UserIdentityDto decodeIdentity(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new UserIdentityDto(readNullable(in), readNullable(in), readNullable(in));
+    }
+
+    private static void writeRoles(DataOutputStream out, UserRolesResponseDto roles) throws IOException {
+        List<String> names = roles.getUserRoles();
+        out.writeInt(names == null ? -1 : names.size());
+        if (names != null) {
+            for (String name : names) {
+                writeNullable(out, name);
+            }
+        }
+        writeIdentity(out, roles.getUserIdentity());
+    }
+
+    private static UserRolesResponseDto decodeRoles(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> names = null;
+        if (count >= 0) {
+            names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                names.add(readNullable(in));
+            }
+        }
+        return new UserRolesResponseDto(names, decodeIdentity(in));
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.encode(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MappedEntryStore openStore(Path path, int slots, int slotSize) {
+        try {
+            return MappedEntryStore.open(path, slots, slotSize, Clock.systemUTC());
+        } catch (IOException e) {
+            logger.warn("Disk cache {} unavailable; continuing without it", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * A value read from the file and how long ago it was fetched from upstream
+     */
+    public record Stored<T>(T value, long ageMillis) {
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(DataInputStream in) throws IOException;
+    }
+}
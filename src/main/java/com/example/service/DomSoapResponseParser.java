@@ -0,0 +1,182 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.XMLConstants;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Response parser that materializes the payload as a DOM and queries it with XPath
+ */
+public class DomSoapResponseParser implements SoapResponseParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomSoapResponseParser.class);
+
+    private static final NamespaceContext NAMESPACE_CONTEXT = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            switch (prefix) {
+                case "ns2":
+                    return "http://web.service.eas.citso.fsa.usda.gov";
+                case "soap":
+                    return "http://schemas.xmlsoap.org/soap/envelope/";
+                default:
+                    return XMLConstants.NULL_NS_URI;
+            }
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            return null;
+        }
+    };
+
+    private final DocumentBuilderFactory docBuilderFactory;
+    private final XPathFactory xPathFactory;
+    private final TransformerFactory transformerFactory;
+
+    public DomSoapResponseParser() {
+        this.docBuilderFactory = DocumentBuilderFactory.newInstance();
+        this.docBuilderFactory.setNamespaceAware(true);
+        this.xPathFactory = XPathFactory.newInstance();
+        this.transformerFactory = TransformerFactory.newInstance();
+    }
+
+    @Override
+    public boolean parseIsHealthy(Source source) throws Exception {
+        Node responseNode = toNode(source);
+
+        XPath xpath = xPathFactory.newXPath();
+        String result = (String) xpath.evaluate("//return/text()", responseNode, XPathConstants.STRING);
+
+        return Boolean.parseBoolean(result);
+    }
+
+    @Override
+    public UserIdentityDto parseUserIdentity(Source source) throws Exception {
+        Node responseNode = toNode(source);
+        XPath xpath = xPathFactory.newXPath();
+
+        String authSysId = (String) xpath.evaluate("//AuthenticationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
+        String authzSysId = (String) xpath.evaluate("//AuthorizationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
+        String loginName = (String) xpath.evaluate("//UserLoginName/text()", responseNode, XPathConstants.STRING);
+
+        return new UserIdentityDto(authSysId, authzSysId, loginName);
+    }
+
+    @Override
+    public List<String> parseOffices(Source source) throws Exception {
+        return parseListValues(toNode(source), "//ns2:Offices/ns2:ListValue");
+    }
+
+    @Override
+    public UserRolesResponseDto parseUserRoles(Source source) throws Exception {
+        Node responseNode = toNode(source);
+        XPath xpath = xPathFactory.newXPath();
+        xpath.setNamespaceContext(NAMESPACE_CONTEXT);
+
+        // Parse roles
+        List<String> roles = parseListValues(responseNode, "//ns2:UserRoles/ns2:ListValue");
+
+        // Parse user identity
+        String authSysId = (String) xpath.evaluate("//ns2:UserIdentity/AuthenticationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
+        String authzSysId = (String) xpath.evaluate("//ns2:UserIdentity/AuthorizationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
+        String loginName = (String) xpath.evaluate("//ns2:UserIdentity/UserLoginName/text()", responseNode, XPathConstants.STRING);
+
+        UserIdentityDto userIdentity = new UserIdentityDto(authSysId, authzSysId, loginName);
+
+        return new UserRolesResponseDto(roles, userIdentity);
+    }
+
+    /**
+     * Materializes the whole list first; use the StAX parser for large user lists
+     */
+    @Override
+    public long parseUsers(Source source, Consumer<String> userConsumer) throws Exception {
+        List<String> users = parseListValues(toNode(source), "//ns2:Users/ns2:ListValue");
+        users.forEach(userConsumer);
+        return users.size();
+    }
+
+    private Node toNode(Source source) throws Exception {
+        Node node;
+        // Check if it's a DOMSource
+        if (source instanceof DOMSource) {
+            node = ((DOMSource) source).getNode();
+        } else {
+            // Handle other source types by converting to DOM
+            DocumentBuilder builder = docBuilderFactory.newDocumentBuilder();
+            Document doc = builder.newDocument();
+
+            // Create a transformer to convert Source to DOM
+            Transformer transformer = transformerFactory.newTransformer();
+            DOMResult result = new DOMResult(doc);
+            transformer.transform(source, result);
+
+            node = doc.getDocumentElement();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Response: {}", nodeToString(node));
+        }
+        return node;
+    }
+
+    private List<String> parseListValues(Node responseNode, String xpathExpression) throws Exception {
+        XPath xpath = xPathFactory.newXPath();
+        xpath.setNamespaceContext(NAMESPACE_CONTEXT);
+
+        NodeList nodeList = (NodeList) xpath.evaluate(xpathExpression, responseNode, XPathConstants.NODESET);
+
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            Node node = nodeList.item(i);
+            values.add(node.getTextContent());
+        }
+
+        logger.debug("Parsed {} values from xpath: {}", values.size(), xpathExpression);
+        logger.debug("Values: {}", values);
+
+        return values;
+    }
+
+    private String nodeToString(Node node) {
+        try {
+            Transformer transformer = transformerFactory.newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+
+            StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(node), new StreamResult(writer));
+            return writer.toString();
+        } catch (Exception e) {
+            return "Error converting node to string: " + e.getMessage();
+        }
+    }
+}
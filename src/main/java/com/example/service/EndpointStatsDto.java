@@ -0,0 +1,120 @@
+package com.example.service;
+
+/**
+ * Load balancing state and call counters of one upstream replica
+ */
+public class EndpointStatsDto {
+    private String url;
+    private boolean available;
+    private boolean probeHealthy;
+    private String ejectionState;
+    private int inFlight;
+    private double latencyMillis;
+    private long successes;
+    private long failures;
+    private long ejections;
+
+    // Constructors
+    public EndpointStatsDto() {}
+
+    public EndpointStatsDto(String url, boolean available, boolean probeHealthy, String ejectionState,
+                            int inFlight, double latencyMillis, long successes, long failures, long ejections) {
+        this.url = url;
+        this.available = available;
+        this.probeHealthy = probeHealthy;
+        this.ejectionState = ejectionState;
+        this.inFlight = inFlight;
+        this.latencyMillis = latencyMillis;
+        this.successes = successes;
+        this.failures = failures;
+        this.ejections = ejections;
+    }
+
+    // Getters and Setters
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public boolean isProbeHealthy() {
+        return probeHealthy;
+    }
+
+    public void setProbeHealthy(boolean probeHealthy) {
+        this.probeHealthy = probeHealthy;
+    }
+
+    public String getEjectionState() {
+        return ejectionState;
+    }
+
+    public void setEjectionState(String ejectionState) {
+        this.ejectionState = ejectionState;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public void setLatencyMillis(double latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public void setSuccesses(long successes) {
+        this.successes = successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getEjections() {
+        return ejections;
+    }
+
+    public void setEjections(long ejections) {
+        this.ejections = ejections;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointStatsDto{" +
+                "url='" + url + '\'' +
+                ", available=" + available +
+                ", probeHealthy=" + probeHealthy +
+                ", ejectionState='" + ejectionState + '\'' +
+                ", inFlight=" + inFlight +
+                ", latencyMillis=" + latencyMillis +
+                ", successes=" + successes +
+                ", failures=" + failures +
+                ", ejections=" + ejections +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.service;
+
+import java.time.Instant;
+
+/**
+ * Last known upstream health as tracked by {@link SoapHealthMonitor}
+ */
+public class HealthStatusDto {
+    private boolean healthy;
+    private boolean checked;
+    private Instant lastCheck;
+    private Instant lastTransition;
+    private long lastLatencyMillis;
+    private long consecutiveFailures;
+    private long transitions;
+
+    // Constructors
+    public HealthStatusDto() {}
+
+    public HealthStatusDto(boolean healthy, boolean checked, Instant lastCheck, Instant lastTransition,
+                           long lastLatencyMillis, long consecutiveFailures, long transitions) {
+        this.healthy = healthy;
+        this.checked = checked;
+        this.lastCheck = lastCheck;
+        this.lastTransition = lastTransition;
+        this.lastLatencyMillis = lastLatencyMillis;
+        this.consecutiveFailures = consecutiveFailures;
+        this.transitions = transitions;
+    }
+
+    // Getters and Setters
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public boolean isChecked() {
+        return checked;
+    }
+
+    public void setChecked(boolean checked) {
+        this.checked = checked;
+    }
+
+    public Instant getLastCheck() {
+        return lastCheck;
+    }
+
+    public void setLastCheck(Instant lastCheck) {
+        this.lastCheck = lastCheck;
+    }
+
+    public Instant getLastTransition() {
+        return lastTransition;
+    }
+
+    public void setLastTransition(Instant lastTransition) {
+        this.lastTransition = lastTransition;
+    }
+
+    public long getLastLatencyMillis() {
+        return lastLatencyMillis;
+    }
+
+    public void setLastLatencyMillis(long lastLatencyMillis) {
+        this.lastLatencyMillis = lastLatencyMillis;
+    }
+
+    public long getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(long consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public long getTransitions() {
+        return transitions;
+    }
+
+    public void setTransitions(long transitions) {
+        this.transitions = transitions;
+    }
+
+    @Override
+    public String toString() {
+        return "HealthStatusDto{" +
+                "healthy=" + healthy +
+                ", checked=" + checked +
+                ", lastCheck=" + lastCheck +
+                ", lastTransition=" + lastTransition +
+                ", lastLatencyMillis=" + lastLatencyMillis +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", transitions=" + transitions +
+                '}';
+    }
+}
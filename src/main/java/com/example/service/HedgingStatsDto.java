@@ -0,0 +1,64 @@
+package com.example.service;
+
+/**
+ * Hedged request counters of the adaptive latency policy
+ */
+public class HedgingStatsDto {
+    private boolean enabled;
+    private long hedgedCalls;
+    private long hedgeWins;
+    private long hedgesOverBudget;
+
+    // Constructors
+    public HedgingStatsDto() {}
+
+    public HedgingStatsDto(boolean enabled, long hedgedCalls, long hedgeWins, long hedgesOverBudget) {
+        this.enabled = enabled;
+        this.hedgedCalls = hedgedCalls;
+        this.hedgeWins = hedgeWins;
+        this.hedgesOverBudget = hedgesOverBudget;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHedgedCalls() {
+        return hedgedCalls;
+    }
+
+    public void setHedgedCalls(long hedgedCalls) {
+        this.hedgedCalls = hedgedCalls;
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    public void setHedgeWins(long hedgeWins) {
+        this.hedgeWins = hedgeWins;
+    }
+
+    public long getHedgesOverBudget() {
+        return hedgesOverBudget;
+    }
+
+    public void setHedgesOverBudget(long hedgesOverBudget) {
+        this.hedgesOverBudget = hedgesOverBudget;
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingStatsDto{" +
+                "enabled=" + enabled +
+                ", hedgedCalls=" + hedgedCalls +
+                ", hedgeWins=" + hedgeWins +
+                ", hedgesOverBudget=" + hedgesOverBudget +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.service;
+
+import java.time.Instant;
+
+/**
+ * Freshness and size of the office/role reverse index; the age is measured from the last run that
+ * fetched anything
+ */
+public class IndexStatsDto {
+    private boolean enabled;
+    private boolean ready;
+    private Instant builtAt;
+    private long snapshotAgeMillis;
+    private long lastBuildMillis;
+    private int indexedCells;
+    private int configuredCells;
+    private int indexedUsers;
+    private int lastRunCellsRefreshed;
+    private int lastRunCellsFailed;
+
+    // Constructors
+    public IndexStatsDto() {}
+
+    public IndexStatsDto(boolean enabled, boolean ready, Instant builtAt, long snapshotAgeMillis, long lastBuildMillis,
+                         int indexedCells, int configuredCells, int indexedUsers, int lastRunCellsRefreshed,
+                         int lastRunCellsFailed) {
+        this.enabled = enabled;
+        this.ready = ready;
+        this.builtAt = builtAt;
+        this.snapshotAgeMillis = snapshotAgeMillis;
+        this.lastBuildMillis = lastBuildMillis;
+        this.indexedCells = indexedCells;
+        this.configuredCells = configuredCells;
+        this.indexedUsers = indexedUsers;
+        this.lastRunCellsRefreshed = lastRunCellsRefreshed;
+        this.lastRunCellsFailed = lastRunCellsFailed;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(Instant builtAt) {
+        this.builtAt = builtAt;
+    }
+
+    public long getSnapshotAgeMillis() {
+        return snapshotAgeMillis;
+    }
+
+    public void setSnapshotAgeMillis(long snapshotAgeMillis) {
+        this.snapshotAgeMillis = snapshotAgeMillis;
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public void setLastBuildMillis(long lastBuildMillis) {
+        this.lastBuildMillis = lastBuildMillis;
+    }
+
+    public int getIndexedCells() {
+        return indexedCells;
+    }
+
+    public void setIndexedCells(int indexedCells) {
+        this.indexedCells = indexedCells;
+    }
+
+    public int getConfiguredCells() {
+        return configuredCells;
+    }
+
+    public void setConfiguredCells(int configuredCells) {
+        this.configuredCells = configuredCells;
+    }
+
+    public int getIndexedUsers() {
+        return indexedUsers;
+    }
+
+    public void setIndexedUsers(int indexedUsers) {
+        this.indexedUsers = indexedUsers;
+    }
+
+    public int getLastRunCellsRefreshed() {
+        return lastRunCellsRefreshed;
+    }
+
+    public void setLastRunCellsRefreshed(int lastRunCellsRefreshed) {
+        this.lastRunCellsRefreshed = lastRunCellsRefreshed;
+    }
+
+    public int getLastRunCellsFailed() {
+        return lastRunCellsFailed;
+    }
+
+    public void setLastRunCellsFailed(int lastRunCellsFailed) {
+        this.lastRunCellsFailed = lastRunCellsFailed;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexStatsDto{" +
+                "enabled=" + enabled +
+                ", ready=" + ready +
+                ", builtAt=" + builtAt +
+                ", snapshotAgeMillis=" + snapshotAgeMillis +
+                ", lastBuildMillis=" + lastBuildMillis +
+                ", indexedCells=" + indexedCells +
+                ", configuredCells=" + configuredCells +
+                ", indexedUsers=" + indexedUsers +
+                ", lastRunCellsRefreshed=" + lastRunCellsRefreshed +
+                ", lastRunCellsFailed=" + lastRunCellsFailed +
+                '}';
+    }
+}
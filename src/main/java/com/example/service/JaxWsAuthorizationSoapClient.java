@@ -0,0 +1,393 @@
+package com.example.service;
+
+import com.example.soap.client.AuthorizationServiceValidationException_Exception;
+import com.example.soap.client.AuthorizationSharedService;
+import com.example.soap.client.AuthorizationSharedService_Service;
+import com.example.soap.client.ListType;
+import com.example.soap.client.MapEntry;
+import com.example.soap.client.ObjectFactory;
+import com.example.soap.client.RequestToken;
+import com.example.soap.client.UserIdentity;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.ws.BindingProvider;
+import jakarta.xml.ws.soap.SOAPFaultException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * {@link AuthorizationSoapClient} on the wsimport-generated JAX-WS port
+ * ({@code soap.client.engine=jaxws}), for comparison with {@link SimpleAuthorizationSoapClient}.
+ * <p>
+ * The service is created once from the bundled WSDL, and ports are pooled: a call borrows a
+ * port together with its own marshaller, unmarshaller and document builder, sets the endpoint
+ * and response timeout on the port's request context, and returns it afterwards. The pool never
+ * blocks; when it is empty a new port is created, and ports beyond the pool size are dropped on
+ * return. One {@link JAXBContext} over the generated classes is shared by all ports.
+ * <p>
+ * The generated operations take and return {@code xs:anyType}, so request values are marshalled
+ * as child elements of an {@code arg0} DOM element, and the {@code return} element's children are
+ * unmarshalled into the generated types. The payload on the wire matches the Spring WS client.
+ * Users of {@link #findUsersByCriteria} are unmarshalled into a list before reaching the consumer.
+ */
+public class JaxWsAuthorizationSoapClient implements AuthorizationSoapClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(JaxWsAuthorizationSoapClient.class);
+
+    private static final String NAMESPACE_URI = "http://web.service.eas.citso.fsa.usda.gov";
+    private static final String WSDL_RESOURCE = "/wsdl/example-new.wsdl";
+    // JAX-WS RI request context properties (com.sun.xml.ws.developer.JAXWSProperties)
+    private static final String CONNECT_TIMEOUT = "com.sun.xml.ws.connect.timeout";
+    private static final String REQUEST_TIMEOUT = "com.sun.xml.ws.request.timeout";
+
+    static final String IS_HEALTHY = "isHealthy";
+    static final String FIND_MATCHING_USER_IDENTITY = "findMatchingUserIdentity";
+    static final String FIND_OFFICES_BY_EAUTH_ID = "findOfficesByEauthId";
+    static final String GET_USER_ROLES = "getUserRoles";
+    static final String FIND_USERS_BY_CRITERIA = "findUsersByCriteria";
+
+    private static final JAXBContext JAXB_CONTEXT = newJaxbContext();
+
+    private final AuthorizationSharedService_Service service;
+    private final BlockingQueue<PooledPort> ports;
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final String requestTokenApplicationIdentifier;
+    private final String requestTokenRequestHost;
+    private final RequestCoalescer requestCoalescer;
+    private final SoapClientMetrics metrics;
+    private final UpstreamGuard upstreamGuard;
+    private final AdaptiveLatencyPolicy latencyPolicy;
+    private final UpstreamEndpoints endpoints;
+
+    public JaxWsAuthorizationSoapClient(RequestCoalescer requestCoalescer, SoapClientMetrics metrics,
+                                        UpstreamGuard upstreamGuard, AdaptiveLatencyPolicy latencyPolicy,
+                                        UpstreamEndpoints endpoints, int poolSize, int connectTimeoutMillis,
+                                        int readTimeoutMillis, String requestTokenApplicationIdentifier,
+                                        String requestTokenRequestHost) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("soap.jaxws.pool-size must be positive");
+        }
+        URL wsdl = JaxWsAuthorizationSoapClient.class.getResource(WSDL_RESOURCE);
+        if (wsdl == null) {
+            throw new IllegalStateException("WSDL not found on the classpath: " + WSDL_RESOURCE);
+        }
+        this.service = new AuthorizationSharedService_Service(wsdl);
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        this.documentBuilderFactory.setNamespaceAware(true);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.requestTokenApplicationIdentifier = requestTokenApplicationIdentifier;
+        this.requestTokenRequestHost = requestTokenRequestHost;
+        this.requestCoalescer = requestCoalescer;
+        this.metrics = metrics;
+        this.upstreamGuard = upstreamGuard;
+        this.latencyPolicy = latencyPolicy;
+        this.endpoints = endpoints;
+        this.ports = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            ports.add(newPort());
+        }
+        logger.info("JAX-WS client ready with {} pooled ports", poolSize);
+    }
+
+    @Override
+    public boolean isHealthy() {
+        boolean healthy = false;
+        for (UpstreamEndpoints.Endpoint endpoint : endpoints.getEndpoints()) {
+            boolean endpointHealthy;
+            try {
+                endpointHealthy = call(IS_HEALTHY, endpoint, pooled -> pooled.port.isHealthy());
+            } catch (Exception e) {
+                logger.error("Error checking service health of {}", endpoint.getUrl(), e);
+                endpointHealthy = false;
+            }
+            endpoints.onProbe(endpoint, endpointHealthy);
+            healthy |= endpointHealthy;
+        }
+        return healthy;
+    }
+
+    @Override
+    public UserIdentityDto findMatchingUserIdentity(String usdaEauthId) {
+        try {
+            return call(FIND_MATCHING_USER_IDENTITY, null, pooled -> {
+                MapEntry entry = new MapEntry();
+                entry.setKey("usda_eauth_id");
+                entry.setValue(usdaEauthId);
+                Element arg0 = pooled.newArg0();
+                pooled.marshal("MapEntry", MapEntry.class, entry, arg0);
+                Element result = returnElement(pooled.port.findMatchingUserIdentity(arg0));
+                return toDto(pooled.unmarshalChild(result, "UserIdentity", UserIdentity.class));
+            }, usdaEauthId);
+        } catch (SoapCallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding matching user identity for eauth ID: {}", usdaEauthId, e);
+            throw new RuntimeException("Failed to find matching user identity", e);
+        }
+    }
+
+    @Override
+    public List<String> findOfficesByEauthId(String usdaEauthId, String officeType) {
+        try {
+            return call(FIND_OFFICES_BY_EAUTH_ID, null, pooled -> {
+                Element arg0 = pooled.newArg0();
+                pooled.marshal("UsdaEauthId", String.class, usdaEauthId, arg0);
+                pooled.marshal("OfficeType", String.class, officeType, arg0);
+                Element result = returnElement(pooled.port.findOfficesByEauthId(arg0));
+                return values(pooled.unmarshalChild(result, "Offices", ListType.class));
+            }, usdaEauthId, officeType);
+        } catch (SoapCallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding offices for eauth ID: {} and office type: {}", usdaEauthId, officeType, e);
+            throw new RuntimeException("Failed to find offices by eauth ID", e);
+        }
+    }
+
+    @Override
+    public UserRolesResponseDto getUserRoles(UserIdentityDto userIdentityDto) {
+        try {
+            return call(GET_USER_ROLES, null, pooled -> {
+                UserIdentity identity = new UserIdentity();
+                identity.setAuthenticationSystemIdentifier(userIdentityDto.getAuthenticationSystemIdentifier());
+                identity.setAuthorizationSystemIdentifier(userIdentityDto.getAuthorizationSystemIdentifier());
+                identity.setUserLoginName(userIdentityDto.getUserLoginName());
+                Element arg0 = pooled.newArg0();
+                pooled.marshal("UserIdentity", UserIdentity.class, identity, arg0);
+                Element result = returnElement(pooled.port.getUserRoles(arg0));
+                return new UserRolesResponseDto(
+                        values(pooled.unmarshalChild(result, "UserRoles", ListType.class)),
+                        toDto(pooled.unmarshalChild(result, "UserIdentity", UserIdentity.class)));
+            }, userIdentityDto.getAuthenticationSystemIdentifier(), userIdentityDto.getAuthorizationSystemIdentifier(),
+                    userIdentityDto.getUserLoginName());
+        } catch (SoapCallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error getting user roles for user: {}", userIdentityDto.getUserLoginName(), e);
+            throw new RuntimeException("Failed to get user roles", e);
+        }
+    }
+
+    @Override
+    public long findUsersByCriteria(String officeId, String roleName, Consumer<String> userConsumer) {
+        List<String> users;
+        try {
+            users = call(FIND_USERS_BY_CRITERIA, null, pooled -> {
+                RequestToken token = new RequestToken();
+                token.setApplicationIdentifier(requestTokenApplicationIdentifier);
+                token.setRequestHost(requestTokenRequestHost);
+                Element arg0 = pooled.newArg0();
+                pooled.marshal("OfficeId", String.class, officeId, arg0);
+                pooled.marshal("RoleName", String.class, roleName, arg0);
+                pooled.marshal("RequestToken", RequestToken.class, token, arg0);
+                Element result = returnElement(pooled.port.findUsersByCriteria(arg0));
+                return values(pooled.unmarshalChild(result, "Users", ListType.class));
+            }, officeId, roleName);
+        } catch (SoapCallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users by criteria - office: {}, role: {}", officeId, roleName, e);
+            throw new RuntimeException("Failed to find users by criteria", e);
+        }
+        users.forEach(userConsumer);
+        return users.size();
+    }
+
+    /**
+     * Same pipeline as the Spring WS client: coalesced, hedged, guarded, load balanced and metered
+     *
+     * @param endpoint replica to send to, or null to let the load balancer pick one
+     */
+    private <T> T call(String operation, UpstreamEndpoints.Endpoint endpoint, Invocation<T> invocation,
+                       String... values) {
+        return requestCoalescer.execute(
+                new RequestKey(operation, endpoint == null ? null : endpoint.getUrl(), Arrays.asList(values)),
+                () -> latencyPolicy.execute(operation, () -> doCall(operation, endpoint, invocation)));
+    }
+
+    private <T> T doCall(String operation, UpstreamEndpoints.Endpoint endpoint, Invocation<T> invocation) {
+        SoapClientMetrics.OperationMeters meters = metrics.forOperation(operation);
+        // Health probes bypass the guard, as in the Spring WS client
+        UpstreamGuard.Permit permit = IS_HEALTHY.equals(operation) ? UpstreamGuard.unguarded() : upstreamGuard.acquire();
+        UpstreamEndpoints.Lease lease = null;
+        PooledPort pooled;
+        try {
+            lease = endpoint == null ? endpoints.select() : endpoints.lease(endpoint);
+            pooled = borrow();
+        } catch (RuntimeException e) {
+            // Nothing reached the upstream; hand the permit and the replica's trial call back
+            permit.onIgnore();
+            if (lease != null) {
+                lease.onIgnore();
+            }
+            throw e;
+        }
+        Duration responseTimeout = latencyPolicy.responseTimeout(operation);
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> context = ((BindingProvider) pooled.port).getRequestContext();
+            context.put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, lease.getUrl());
+            context.put(REQUEST_TIMEOUT, responseTimeout == null ? readTimeoutMillis : (int) responseTimeout.toMillis());
+
+            T result = invocation.invoke(pooled);
+
+            permit.onSuccess();
+            lease.onSuccess();
+            long end = System.nanoTime();
+            meters.recordRequest(SoapClientMetrics.OUTCOME_SUCCESS, end - start);
+            if (result instanceof List) {
+                meters.recordListSize(((List<?>) result).size());
+            } else if (result instanceof UserRolesResponseDto) {
+                meters.recordListSize(((UserRolesResponseDto) result).getUserRoles().size());
+            }
+            latencyPolicy.record(operation, end - start);
+            return result;
+        } catch (Exception e) {
+            // A SOAP fault is an answer from a live upstream
+            boolean fault = e instanceof SOAPFaultException || e instanceof AuthorizationServiceValidationException_Exception;
+            if (fault) {
+                permit.onSuccess();
+                lease.onSuccess();
+            } else {
+                permit.onFailure();
+                lease.onFailure();
+            }
+            long elapsed = System.nanoTime() - start;
+            meters.recordRequest(fault ? SoapClientMetrics.OUTCOME_FAULT : SoapClientMetrics.OUTCOME_ERROR, elapsed);
+            latencyPolicy.recordFailure(operation, elapsed);
+            logger.error("Error sending SOAP request", e);
+            throw new RuntimeException("Failed to send SOAP request", e);
+        } finally {
+            release(pooled);
+        }
+    }
+
+    private PooledPort borrow() {
+        PooledPort pooled = ports.poll();
+        return pooled != null ? pooled : newPort();
+    }
+
+    private void release(PooledPort pooled) {
+        ports.offer(pooled);
+    }
+
+    private PooledPort newPort() {
+        AuthorizationSharedService port = service.getAuthorizationServicePort();
+        Map<String, Object> context = ((BindingProvider) port).getRequestContext();
+        context.put(CONNECT_TIMEOUT, connectTimeoutMillis);
+        context.put(REQUEST_TIMEOUT, readTimeoutMillis);
+        try {
+            return new PooledPort(port, JAXB_CONTEXT.createMarshaller(), JAXB_CONTEXT.createUnmarshaller(),
+                    documentBuilderFactory.newDocumentBuilder());
+        } catch (JAXBException | ParserConfigurationException e) {
+            throw new IllegalStateException("Failed to create JAX-WS port", e);
+        }
+    }
+
+    private static Element returnElement(Object response) {
+        if (response instanceof Element) {
+            return (Element) response;
+        }
+        throw new IllegalStateException("Unexpected response content: "
+                + (response == null ? "none" : response.getClass().getName()));
+    }
+
+    private static List<String> values(ListType list) {
+        return list == null || list.getListValue() == null ? new ArrayList<>() : list.getListValue();
+    }
+
+    /**
+     * Missing fields come back empty, as with the Spring WS parsers
+     */
+    private static UserIdentityDto toDto(UserIdentity identity) {
+        if (identity == null) {
+            return new UserIdentityDto("", "", "");
+        }
+        return new UserIdentityDto(orEmpty(identity.getAuthenticationSystemIdentifier()),
+                orEmpty(identity.getAuthorizationSystemIdentifier()), orEmpty(identity.getUserLoginName()));
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static JAXBContext newJaxbContext() {
+        try {
+            return JAXBContext.newInstance(ObjectFactory.class);
+        } catch (JAXBException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * A port with the marshalling state only its current borrower may use
+     */
+    private static final class PooledPort {
+        final AuthorizationSharedService port;
+        final Marshaller marshaller;
+        final Unmarshaller unmarshaller;
+        final DocumentBuilder documentBuilder;
+
+        PooledPort(AuthorizationSharedService port, Marshaller marshaller, Unmarshaller unmarshaller,
+                   DocumentBuilder documentBuilder) {
+            this.port = port;
+            this.marshaller = marshaller;
+            this.unmarshaller = unmarshaller;
+            this.documentBuilder = documentBuilder;
+        }
+
+        /**
+         * Holder whose children become the content of the {@code arg0} parameter
+         */
+        Element newArg0() {
+            Document document = documentBuilder.newDocument();
+            Element arg0 = document.createElementNS(null, "arg0");
+            document.appendChild(arg0);
+            return arg0;
+        }
+
+        <V> void marshal(String localName, Class<V> type, V value, Element parent) throws JAXBException {
+            marshaller.marshal(new JAXBElement<>(new QName(NAMESPACE_URI, localName), type, value), parent);
+        }
+
+        <V> V unmarshalChild(Element parent, String localName, Class<V> type) throws JAXBException {
+            for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE && localName.equals(child.getLocalName())) {
+                    return unmarshaller.unmarshal(child, type).getValue();
+                }
+            }
+            return null;
+        }
+    }
+
+    private record RequestKey(String operation, String endpoint, List<String> values) {
+    }
+
+    @FunctionalInterface
+    private interface Invocation<T> {
+        T invoke(PooledPort pooled) throws Exception;
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size key/value store in a memory-mapped file, outside the Java heap.
+ * <p>
+ * The file is a set-associative hash table: a key hashes to a bucket of {@value #WAYS} slots of
+ * {@code slotSize} bytes, and a new key takes a free slot of its bucket or evicts the bucket's
+ * oldest entry. Entries that do not fit a slot are not stored. Each slot carries a CRC of its
+ * contents and is marked live only after it is fully written, so a crash mid-write leaves at
+ * worst a lost entry, never a corrupt hit.
+ * <p>
+ * Layout: a {@value #FILE_HEADER_SIZE}-byte file header (magic, format version, slot size, slot
+ * count), then the slots. Each slot is: state (1 byte), reserved (1), key length (2), value length
+ * (2), reserved (2), key hash (4), CRC32C of key and value (4), write time in epoch millis (8),
+ * key bytes, value bytes. A file with another magic, version or geometry is discarded and
+ * recreated, so a format change is a cold start, not a misread.
+ */
+public class MappedEntryStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedEntryStore.class);
+
+    static final long MAGIC = 0x534f415043414348L; // "SOAPCACH"
+    static final int FORMAT_VERSION = 1;
+    static final int FILE_HEADER_SIZE = 64;
+    static final int WAYS = 8;
+
+    private static final int SLOT_HEADER_SIZE = 24;
+    private static final byte STATE_EMPTY = 0;
+    private static final byte STATE_LIVE = 1;
+    private static final int LOCK_STRIPES = 256;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotSize;
+    private final int buckets;
+    private final Clock clock;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong entries = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+
+    /**
+     * Opens the store, reusing the entries of an existing file with the same format and geometry
+     */
+    public static MappedEntryStore open(Path path, int slotCount, int slotSize, Clock clock) throws IOException {
+        return new MappedEntryStore(path, slotCount, slotSize, clock);
+    }
+
+    private MappedEntryStore(Path path, int slotCount, int slotSize, Clock clock) throws IOException {
+        if (slotCount < WAYS || slotCount % WAYS != 0) {
+            throw new IllegalArgumentException("slot count must be a positive multiple of " + WAYS);
+        }
+        if (slotSize <= SLOT_HEADER_SIZE || slotSize > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("slot size must be between " + (SLOT_HEADER_SIZE + 1)
+                    + " and " + Short.MAX_VALUE);
+        }
+        long fileSize = FILE_HEADER_SIZE + (long) slotCount * slotSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("store of " + fileSize + " bytes exceeds the 2 GB mapping limit");
+        }
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        this.path = path;
+        this.slotSize = slotSize;
+        this.buckets = slotCount / WAYS;
+        this.clock = clock;
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean reuse = channel.size() == fileSize && hasCompatibleHeader(slotCount);
+        if (!reuse) {
+            if (channel.size() > 0) {
+                logger.warn("Discarding second-tier cache file {}: other format or size", path);
+            }
+            channel.truncate(0);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        if (reuse) {
+            entries.set(countLiveSlots(slotCount));
+            logger.info("Reopened second-tier cache {} with {} entries", path, entries.get());
+        } else {
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, FORMAT_VERSION);
+            buffer.putInt(12, slotSize);
+            buffer.putInt(16, slotCount);
+        }
+    }
+
+    /**
+     * Value stored under the key, or null when absent, older than {@code maxAgeMillis} or damaged
+     */
+    public Entry get(byte[] key, long maxAgeMillis) {
+        int hash = hash(key);
+        int bucket = bucketOf(hash);
+        synchronized (locks[bucket % LOCK_STRIPES]) {
+            int slot = find(bucket, key, hash);
+            if (slot < 0) {
+                return null;
+            }
+            long writtenAt = buffer.getLong(slot + 16);
+            long age = clock.millis() - writtenAt;
+            int keyLength = buffer.getShort(slot + 2);
+            int valueLength = buffer.getShort(slot + 4);
+            if (valueLength < 0 || SLOT_HEADER_SIZE + keyLength + valueLength > slotSize) {
+                clear(slot);
+                return null;
+            }
+            byte[] value = new byte[valueLength];
+            buffer.get(slot + SLOT_HEADER_SIZE + keyLength, value);
+            if (age > maxAgeMillis || buffer.getInt(slot + 12) != crc(key, value)) {
+                clear(slot);
+                return null;
+            }
+            return new Entry(value, age);
+        }
+    }
+
+    /**
+     * Stores the value, replacing the key's previous value or the bucket's oldest entry
+     *
+     * @return false when the entry is too large for a slot
+     */
+    public boolean put(byte[] key, byte[] value) {
+        if (SLOT_HEADER_SIZE + key.length + value.length > slotSize) {
+            oversized.increment();
+            return false;
+        }
+        int hash = hash(key);
+        int bucket = bucketOf(hash);
+        synchronized (locks[bucket % LOCK_STRIPES]) {
+            int slot = find(bucket, key, hash);
+            if (slot < 0) {
+                slot = freeOrOldest(bucket);
+            }
+            if (buffer.get(slot) == STATE_LIVE) {
+                if (!keyEquals(slot, key, hash)) {
+                    evictions.increment();
+                }
+            } else {
+                entries.incrementAndGet();
+            }
+            // Not live while being written
+            buffer.put(slot, STATE_EMPTY);
+            buffer.putShort(slot + 2, (short) key.length);
+            buffer.putShort(slot + 4, (short) value.length);
+            buffer.putInt(slot + 8, hash);
+            buffer.putInt(slot + 12, crc(key, value));
+            buffer.putLong(slot + 16, clock.millis());
+            buffer.put(slot + SLOT_HEADER_SIZE, key);
+            buffer.put(slot + SLOT_HEADER_SIZE + key.length, value);
+            buffer.put(slot, STATE_LIVE);
+            return true;
+        }
+    }
+
+    public void remove(byte[] key) {
+        int hash = hash(key);
+        int bucket = bucketOf(hash);
+        synchronized (locks[bucket % LOCK_STRIPES]) {
+            int slot = find(bucket, key, hash);
+            if (slot >= 0) {
+                clear(slot);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            synchronized (locks[bucket % LOCK_STRIPES]) {
+                for (int way = 0; way < WAYS; way++) {
+                    buffer.put(slotOffset(bucket, way), STATE_EMPTY);
+                }
+            }
+        }
+        entries.set(0);
+    }
+
+    public long getEntryCount() {
+        return entries.get();
+    }
+
+    public long getCapacity() {
+        return (long) buckets * WAYS;
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getOversizedCount() {
+        return oversized.sum();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes the mapping to disk; the file stays valid if the process dies without it, minus
+     * whatever the OS had not written back yet
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private boolean hasCompatibleHeader(int slotCount) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        channel.read(header, 0);
+        return header.getLong(0) == MAGIC
+                && header.getInt(8) == FORMAT_VERSION
+                && header.getInt(12) == slotSize
+                && header.getInt(16) == slotCount;
+    }
+
+    private long countLiveSlots(int slotCount) {
+        long live = 0;
+        for (int i = 0; i < slotCount; i++) {
+            if (buffer.get(FILE_HEADER_SIZE + i * slotSize) == STATE_LIVE) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private int find(int bucket, byte[] key, int hash) {
+        for (int way = 0; way < WAYS; way++) {
+            int slot = slotOffset(bucket, way);
+            if (buffer.get(slot) == STATE_LIVE && keyEquals(slot, key, hash)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeOrOldest(int bucket) {
+        int oldest = slotOffset(bucket, 0);
+        for (int way = 0; way < WAYS; way++) {
+            int slot = slotOffset(bucket, way);
+            if (buffer.get(slot) != STATE_LIVE) {
+                return slot;
+            }
+            if (buffer.getLong(slot + 16) < buffer.getLong(oldest + 16)) {
+                oldest = slot;
+            }
+        }
+        return oldest;
+    }
+
+    private boolean keyEquals(int slot, byte[] key, int hash) {
+        if (buffer.getInt(slot + 8) != hash || buffer.getShort(slot + 2) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(slot + SLOT_HEADER_SIZE + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void clear(int slot) {
+        if (buffer.get(slot) == STATE_LIVE) {
+            buffer.put(slot, STATE_EMPTY);
+            entries.decrementAndGet();
+        }
+    }
+
+    private int slotOffset(int bucket, int way) {
+        return FILE_HEADER_SIZE + (bucket * WAYS + way) * slotSize;
+    }
+
+    private int bucketOf(int hash) {
+        return (hash & Integer.MAX_VALUE) % buckets;
+    }
+
+    /**
+     * Murmur3 finalizer over the array hash, so similar keys spread over buckets
+     */
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int crc(byte[] key, byte[] value) {
+        CRC32C crc = new CRC32C();
+        crc.update(key);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A stored value and how long ago it was written
+     */
+    public record Entry(byte[] value, long ageMillis) {
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local reverse index of office x role -> users and user -> offices, built in the background from
+ * {@link AuthorizationSoapClient#findUsersByCriteria} over the configured offices and roles.
+ * <p>
+ * Every office/role pair is a cell fetched on its own. A run fetches missing cells first, then the
+ * stalest ones, at most {@code maxCellsPerRun} of them (0 for all), so a large grid is refreshed
+ * over several runs instead of in one burst. Cells that fail keep their previous users, unchanged
+ * cells keep their previous list, and user -> offices is only re-derived when a cell changed.
+ * <p>
+ * Each run publishes a new immutable {@link Snapshot} with a single reference swap, so queries
+ * never see a half-built index and never take a lock.
+ */
+@Service
+public class OfficeRoleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfficeRoleIndex.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final boolean enabled;
+    private final List<String> offices;
+    private final List<String> roles;
+    private final long intervalMillis;
+    private final int maxCellsPerRun;
+    private final Clock clock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private volatile RunStats lastRun = new RunStats(0, 0, 0);
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OfficeRoleIndex(AuthorizationSoapClient authorizationSoapClient,
+                           @Value("${soap.index.enabled:false}") boolean enabled,
+                           @Value("${soap.index.offices:}") String[] offices,
+                           @Value("${soap.index.roles:}") String[] roles,
+                           @Value("${soap.index.interval:900000}") long intervalMillis,
+                           @Value("${soap.index.max-cells-per-run:0}") int maxCellsPerRun) {
+        this(authorizationSoapClient, enabled, Arrays.asList(offices), Arrays.asList(roles), intervalMillis,
+                maxCellsPerRun, Clock.systemUTC());
+    }
+
+    OfficeRoleIndex(AuthorizationSoapClient authorizationSoapClient, boolean enabled, List<String> offices,
+                    List<String> roles, long intervalMillis, int maxCellsPerRun, Clock clock) {
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.enabled = enabled;
+        this.offices = offices.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        this.roles = roles.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        this.intervalMillis = intervalMillis;
+        this.maxCellsPerRun = maxCellsPerRun;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || offices.isEmpty() || roles.isEmpty()) {
+            logger.info("Office/role index disabled");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("office-role-index-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Users holding the role in the office, or null when that cell is not indexed (yet)
+     */
+    public List<String> findUsers(String officeId, String roleName) {
+        Map<String, List<String>> byRole = snapshot.get().users.get(officeId);
+        return byRole == null ? null : byRole.get(roleName);
+    }
+
+    /**
+     * Offices in which the user holds any indexed role; empty when the user is not indexed
+     */
+    public List<String> findOffices(String eauthId) {
+        return snapshot.get().offices.getOrDefault(eauthId, List.of());
+    }
+
+    public IndexStatsDto getStats() {
+        Snapshot current = snapshot.get();
+        RunStats run = lastRun;
+        return new IndexStatsDto(
+                enabled,
+                current.builtAt != null,
+                current.builtAt,
+                current.builtAt == null ? -1 : clock.millis() - current.builtAt.toEpochMilli(),
+                run.buildMillis,
+                current.fetchedAt.size(),
+                offices.size() * roles.size(),
+                current.offices.size(),
+                run.cellsRefreshed,
+                run.cellsFailed);
+    }
+
+    /**
+     * Fetches the due cells and publishes the next snapshot; runs on the indexer thread
+     */
+    void refresh() {
+        long start = System.nanoTime();
+        Snapshot previous = snapshot.get();
+        List<Cell> due = dueCells(previous);
+
+        Map<String, Map<String, List<String>>> users = copyCells(previous.users);
+        Map<Cell, Instant> fetchedAt = new HashMap<>(previous.fetchedAt);
+        Map<String, String> canonicalIds = new HashMap<>();
+        previous.offices.keySet().forEach(id -> canonicalIds.put(id, id));
+        boolean changed = dropUnconfiguredCells(users, fetchedAt);
+        int refreshed = 0;
+        int failed = 0;
+
+        for (Cell cell : due) {
+            TreeSet<String> fetched = new TreeSet<>();
+            try {
+                authorizationSoapClient.findUsersByCriteria(cell.office, cell.role,
+                        user -> fetched.add(canonicalIds.computeIfAbsent(user, id -> id)));
+            } catch (RuntimeException e) {
+                logger.warn("Index refresh failed for office {} role {}; keeping previous users",
+                        cell.office, cell.role, e);
+                failed++;
+                continue;
+            }
+            refreshed++;
+            fetchedAt.put(cell, clock.instant());
+            List<String> before = previous.users.getOrDefault(cell.office, Map.of()).get(cell.role);
+            List<String> after = List.copyOf(fetched);
+            if (!after.equals(before)) {
+                users.computeIfAbsent(cell.office, office -> new LinkedHashMap<>()).put(cell.role, after);
+                changed = true;
+            }
+        }
+
+        Map<String, List<String>> officesByUser = changed ? invert(users) : previous.offices;
+        Instant builtAt = refreshed > 0 || changed ? clock.instant() : previous.builtAt;
+        snapshot.set(new Snapshot(freeze(users), officesByUser, Collections.unmodifiableMap(fetchedAt), builtAt));
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRun = new RunStats(buildMillis, refreshed, failed);
+        logger.debug("Office/role index refreshed {} cells ({} failed) in {} ms", refreshed, failed, buildMillis);
+    }
+
+    /**
+     * Missing cells first, then the least recently fetched, capped at {@code maxCellsPerRun}
+     */
+    private List<Cell> dueCells(Snapshot previous) {
+        List<Cell> cells = new ArrayList<>(offices.size() * roles.size());
+        for (String office : offices) {
+            for (String role : roles) {
+                cells.add(new Cell(office, role));
+            }
+        }
+        cells.sort(Comparator.comparing(cell -> previous.fetchedAt.getOrDefault(cell, Instant.MIN)));
+        return maxCellsPerRun > 0 && cells.size() > maxCellsPerRun ? cells.subList(0, maxCellsPerRun) : cells;
+    }
+
+    private boolean dropUnconfiguredCells(Map<String, Map<String, List<String>>> users,
+                                          Map<Cell, Instant> fetchedAt) {
+        boolean dropped = fetchedAt.keySet()
+                .removeIf(cell -> !offices.contains(cell.office) || !roles.contains(cell.role));
+        if (dropped) {
+            users.keySet().retainAll(offices);
+            users.values().forEach(byRole -> byRole.keySet().retainAll(roles));
+        }
+        return dropped;
+    }
+
+    private static Map<String, Map<String, List<String>>> copyCells(Map<String, Map<String, List<String>>> cells) {
+        Map<String, Map<String, List<String>>> copy = new LinkedHashMap<>();
+        cells.forEach((office, byRole) -> copy.put(office, new LinkedHashMap<>(byRole)));
+        return copy;
+    }
+
+    private static Map<String, Map<String, List<String>>> freeze(Map<String, Map<String, List<String>>> cells) {
+        Map<String, Map<String, List<String>>> frozen = new LinkedHashMap<>();
+        cells.forEach((office, byRole) -> frozen.put(office, Collections.unmodifiableMap(byRole)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static Map<String, List<String>> invert(Map<String, Map<String, List<String>>> cells) {
+        Map<String, TreeSet<String>> officesByUser = new HashMap<>();
+        cells.forEach((office, byRole) -> byRole.values().forEach(users -> users.forEach(
+                user -> officesByUser.computeIfAbsent(user, u -> new TreeSet<>()).add(office))));
+        Map<String, List<String>> inverted = new HashMap<>(officesByUser.size() * 4 / 3 + 1);
+        officesByUser.forEach((user, userOffices) -> inverted.put(user, List.copyOf(userOffices)));
+        return Collections.unmodifiableMap(inverted);
+    }
+
+    /**
+     * One office/role pair of the index
+     */
+    private record Cell(String office, String role) {
+    }
+
+    private record RunStats(long buildMillis, int cellsRefreshed, int cellsFailed) {
+    }
+
+    /**
+     * Immutable state of the index as of one refresh run
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), null);
+
+        final Map<String, Map<String, List<String>>> users;
+        final Map<String, List<String>> offices;
+        final Map<Cell, Instant> fetchedAt;
+        final Instant builtAt;
+
+        Snapshot(Map<String, Map<String, List<String>>> users, Map<String, List<String>> offices,
+                 Map<Cell, Instant> fetchedAt, Instant builtAt) {
+            this.users = users;
+            this.offices = offices;
+            this.fetchedAt = fetchedAt;
+            this.builtAt = builtAt;
+        }
+    }
+}
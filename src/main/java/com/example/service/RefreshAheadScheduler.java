@@ -0,0 +1,175 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-fetches the hottest identity, roles and offices entries shortly before they go stale, so
+ * frequently seen users keep hitting fresh cache entries instead of waiting on a miss.
+ * <p>
+ * The caches count accesses per key once this scheduler is enabled. Every interval, keys with at
+ * least {@code minAccesses} (decayed) accesses whose entry goes stale within the lead time are
+ * refreshed, hottest first, on a single background thread. Refreshes are paced to at most
+ * {@code upstreamCapacity * maxShare} calls per second, so refresh-ahead never takes more than
+ * that share of the upstream; hot keys beyond the run's budget wait for the next run. A rejected
+ * call (breaker open or concurrency limit reached) ends the run early. Counts are halved after
+ * each run, so keys that cool down drop out.
+ */
+@Service
+public class RefreshAheadScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadScheduler.class);
+
+    private final List<RefreshAheadTarget<?>> targets;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final Duration lead;
+    private final long minAccesses;
+    private final double maxRatePerSecond;
+    private final int budgetPerRun;
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private volatile int lastRunRefreshes;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public RefreshAheadScheduler(UserIdentityCache userIdentityCache, UserRolesCache userRolesCache,
+                                 UserOfficesCache userOfficesCache,
+                                 @Value("${soap.refresh-ahead.enabled:false}") boolean enabled,
+                                 @Value("${soap.refresh-ahead.interval:10000}") long intervalMillis,
+                                 @Value("${soap.refresh-ahead.lead:60000}") long leadMillis,
+                                 @Value("${soap.refresh-ahead.min-accesses:3}") long minAccesses,
+                                 @Value("${soap.refresh-ahead.upstream-capacity:200}") double upstreamCapacity,
+                                 @Value("${soap.refresh-ahead.max-share:0.1}") double maxShare) {
+        this(List.of(userIdentityCache, userRolesCache, userOfficesCache), enabled, intervalMillis,
+                Duration.ofMillis(leadMillis), minAccesses, upstreamCapacity * maxShare);
+    }
+
+    RefreshAheadScheduler(List<RefreshAheadTarget<?>> targets, boolean enabled, long intervalMillis, Duration lead,
+                          long minAccesses, double maxRatePerSecond) {
+        if (enabled && maxRatePerSecond <= 0) {
+            throw new IllegalArgumentException("soap.refresh-ahead upstream-capacity and max-share must be positive");
+        }
+        this.targets = targets;
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.lead = lead;
+        this.minAccesses = minAccesses;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.budgetPerRun = Math.max(1, (int) (maxRatePerSecond * intervalMillis / 1000));
+        if (enabled) {
+            targets.forEach(target -> target.accessTracker().activate());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Refresh-ahead disabled");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("refresh-ahead-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public RefreshAheadStatsDto getStats() {
+        return new RefreshAheadStatsDto(
+                enabled,
+                targets.stream().mapToInt(target -> target.accessTracker().size()).sum(),
+                refreshes.sum(),
+                failures.sum(),
+                deferred.sum(),
+                lastRunRefreshes,
+                maxRatePerSecond);
+    }
+
+    /**
+     * Refreshes the due hot keys within this run's budget, then decays the access counts
+     */
+    void refresh() {
+        long gapNanos = (long) (TimeUnit.SECONDS.toNanos(1) / maxRatePerSecond);
+
+        List<Candidate> due = new ArrayList<>();
+        for (RefreshAheadTarget<?> target : targets) {
+            collectDue(target, due);
+        }
+        due.sort(Comparator.comparingLong(Candidate::accesses).reversed());
+
+        int refreshed = 0;
+        long nextAt = System.nanoTime();
+        for (Candidate candidate : due) {
+            if (refreshed == budgetPerRun) {
+                deferred.add(due.size() - refreshed);
+                break;
+            }
+            long wait = nextAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            nextAt = System.nanoTime() + gapNanos;
+            try {
+                candidate.refresh.run();
+                refreshes.increment();
+            } catch (SoapCallRejectedException e) {
+                logger.debug("Refresh-ahead run stopped: upstream is shedding load");
+                failures.increment();
+                break;
+            } catch (RuntimeException e) {
+                logger.debug("Refresh-ahead of a {} entry failed", candidate.target, e);
+                failures.increment();
+            }
+            refreshed++;
+        }
+        lastRunRefreshes = refreshed;
+        targets.forEach(target -> target.accessTracker().decay());
+        if (refreshed > 0) {
+            logger.debug("Refresh-ahead refreshed {} of {} due entries", refreshed, due.size());
+        }
+    }
+
+    private <K> void collectDue(RefreshAheadTarget<K> target, List<Candidate> due) {
+        for (AccessTracker.Hot<K> hot : target.accessTracker().hottest(minAccesses)) {
+            Duration left = target.timeToStale(hot.key());
+            if (left != null && left.compareTo(lead) <= 0) {
+                due.add(new Candidate(target.name(), hot.accesses(), () -> target.refreshAhead(hot.key())));
+            }
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Refresh-ahead run failed", e);
+        }
+    }
+
+    private record Candidate(String target, long accesses, Runnable refresh) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.service;
+
+/**
+ * Counters of the refresh-ahead scheduler
+ */
+public class RefreshAheadStatsDto {
+    private boolean enabled;
+    private int trackedKeys;
+    private long refreshes;
+    private long failures;
+    private long deferred;
+    private int lastRunRefreshes;
+    private double maxRatePerSecond;
+
+    // Constructors
+    public RefreshAheadStatsDto() {}
+
+    public RefreshAheadStatsDto(boolean enabled, int trackedKeys, long refreshes, long failures, long deferred,
+                                int lastRunRefreshes, double maxRatePerSecond) {
+        this.enabled = enabled;
+        this.trackedKeys = trackedKeys;
+        this.refreshes = refreshes;
+        this.failures = failures;
+        this.deferred = deferred;
+        this.lastRunRefreshes = lastRunRefreshes;
+        this.maxRatePerSecond = maxRatePerSecond;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTrackedKeys() {
+        return trackedKeys;
+    }
+
+    public void setTrackedKeys(int trackedKeys) {
+        this.trackedKeys = trackedKeys;
+    }
+
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    public void setRefreshes(long refreshes) {
+        this.refreshes = refreshes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getDeferred() {
+        return deferred;
+    }
+
+    public void setDeferred(long deferred) {
+        this.deferred = deferred;
+    }
+
+    public int getLastRunRefreshes() {
+        return lastRunRefreshes;
+    }
+
+    public void setLastRunRefreshes(int lastRunRefreshes) {
+        this.lastRunRefreshes = lastRunRefreshes;
+    }
+
+    public double getMaxRatePerSecond() {
+        return maxRatePerSecond;
+    }
+
+    public void setMaxRatePerSecond(double maxRatePerSecond) {
+        this.maxRatePerSecond = maxRatePerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshAheadStatsDto{" +
+                "enabled=" + enabled +
+                ", trackedKeys=" + trackedKeys +
+                ", refreshes=" + refreshes +
+                ", failures=" + failures +
+                ", deferred=" + deferred +
+                ", lastRunRefreshes=" + lastRunRefreshes +
+                ", maxRatePerSecond=" + maxRatePerSecond +
+                '}';
+    }
+}
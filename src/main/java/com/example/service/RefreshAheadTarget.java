@@ -0,0 +1,25 @@
+package com.example.service;
+
+import java.time.Duration;
+
+/**
+ * A cache whose hot entries {@link RefreshAheadScheduler} re-fetches before they go stale
+ */
+interface RefreshAheadTarget<K> {
+
+    String name();
+
+    AccessTracker<K> accessTracker();
+
+    /**
+     * Time left before the cached entry goes stale or expires, or null when there is nothing
+     * worth refreshing under the key
+     */
+    Duration timeToStale(K key);
+
+    /**
+     * Fetches the key from upstream and replaces the cached entry; failures propagate and leave
+     * the current entry in place
+     */
+    void refreshAhead(K key);
+}
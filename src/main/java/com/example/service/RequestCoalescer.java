@@ -0,0 +1,81 @@
+package com.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight deduplication of concurrent identical calls.
+ * <p>
+ * The first caller for a key runs the call; callers arriving with an equal key while it is in
+ * flight wait for that call and receive the same result or exception. Nothing is retained once
+ * the call completes, so this never serves stale data.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder totalCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public RequestCoalescer(@Value("${soap.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Runs {@code call}, or joins the identical call already in flight for {@code key}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> call) {
+        totalCalls.increment();
+        if (!enabled) {
+            return call.get();
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCalls.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T result = call.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public CoalescingStatsDto getStats() {
+        long total = totalCalls.sum();
+        long coalesced = coalescedCalls.sum();
+        return new CoalescingStatsDto(total, total - coalesced, coalesced, inFlight.size());
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.service;
+
+/**
+ * Circuit breaker state and concurrency limit of the upstream guard
+ */
+public class ResilienceStatsDto {
+    private boolean enabled;
+    private String circuitState;
+    private int concurrencyLimit;
+    private int inFlight;
+    private long rejectedCircuitOpen;
+    private long rejectedConcurrencyLimit;
+
+    // Constructors
+    public ResilienceStatsDto() {}
+
+    public ResilienceStatsDto(boolean enabled, String circuitState, int concurrencyLimit, int inFlight,
+                              long rejectedCircuitOpen, long rejectedConcurrencyLimit) {
+        this.enabled = enabled;
+        this.circuitState = circuitState;
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+        this.rejectedCircuitOpen = rejectedCircuitOpen;
+        this.rejectedConcurrencyLimit = rejectedConcurrencyLimit;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(int concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getRejectedCircuitOpen() {
+        return rejectedCircuitOpen;
+    }
+
+    public void setRejectedCircuitOpen(long rejectedCircuitOpen) {
+        this.rejectedCircuitOpen = rejectedCircuitOpen;
+    }
+
+    public long getRejectedConcurrencyLimit() {
+        return rejectedConcurrencyLimit;
+    }
+
+    public void setRejectedConcurrencyLimit(long rejectedConcurrencyLimit) {
+        this.rejectedConcurrencyLimit = rejectedConcurrencyLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceStatsDto{" +
+                "enabled=" + enabled +
+                ", circuitState='" + circuitState + '\'' +
+                ", concurrencyLimit=" + concurrencyLimit +
+                ", inFlight=" + inFlight +
+                ", rejectedCircuitOpen=" + rejectedCircuitOpen +
+                ", rejectedConcurrencyLimit=" + rejectedConcurrencyLimit +
+                '}';
+    }
+}
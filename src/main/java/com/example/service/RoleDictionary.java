@@ -0,0 +1,71 @@
+package com.example.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide dictionary of role names, handing out small dense integer IDs in first-seen order.
+ * <p>
+ * Each role name is stored once and shared by every {@link UserRoleSet}, which keeps roles as bits
+ * indexed by these IDs. IDs are never reused or removed; the role universe of the upstream is a
+ * few hundred names, so the dictionary stays small. Lookups are lock-free; only new names take
+ * the lock.
+ */
+@Component
+public class RoleDictionary {
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * ID of a role name, assigning the next free one to a new name
+     */
+    public int intern(String role) {
+        Integer id = ids.get(role);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(role);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = role;
+            names = current;
+            // Published after the name, so a reader that finds the ID also finds the name
+            ids.put(role, size);
+            return size++;
+        }
+    }
+
+    /**
+     * ID of a known role name, or -1; never grows the dictionary
+     */
+    public int idOf(String role) {
+        Integer id = ids.get(role);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * The shared role name of an ID
+     */
+    public String nameOf(int id) {
+        String name = id >= 0 && id < names.length ? names[id] : null;
+        if (name == null) {
+            throw new IllegalArgumentException("Unknown role ID: " + id);
+        }
+        return name;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -1,74 +1,153 @@
 package com.example.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.config.Configurable;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.http.HttpEntityContainer;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.client.WebServiceTransportException;
 import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.client.SoapFaultClientException;
 import org.springframework.ws.soap.client.core.SoapActionCallback;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.WebServiceMessageSender;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.AbstractHttpComponents5MessageSender;
+import org.springframework.ws.transport.http.HttpComponents5Connection;
+import org.springframework.ws.transport.http.HttpUrlConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.dom.DOMResult;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-import javax.xml.XMLConstants;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Node;
-import org.w3c.dom.Element;
-
-import java.io.StringWriter;
-import java.util.ArrayList;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Source;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Fixed Simple SOAP client with proper Source handling
  */
 @Service
-public class SimpleAuthorizationSoapClient {
+public class SimpleAuthorizationSoapClient implements AuthorizationSoapClient {
 
     private static final Logger logger = LoggerFactory.getLogger(SimpleAuthorizationSoapClient.class);
     
     private static final String NAMESPACE_URI = "http://web.service.eas.citso.fsa.usda.gov";
     private static final String NAMESPACE_PREFIX = "web";
-
-    @Value("${soap.service.url:http://10.29.60.95:8080/easws/sharedservice/AuthorizationSharedService}")
-    private String serviceUrl;
+    private static final String NAMESPACE_DECLARATION = " xmlns:" + NAMESPACE_PREFIX + "=\"" + NAMESPACE_URI + "\"";
+
+    // Request payloads, compiled once; {n} marks the n-th request value
+    static final SoapRequestTemplate IS_HEALTHY_REQUEST = SoapRequestTemplate.compile(
+            "<web:isHealthy" + NAMESPACE_DECLARATION + "/>");
+
+    static final SoapRequestTemplate FIND_MATCHING_USER_IDENTITY_REQUEST = SoapRequestTemplate.compile(
+            "<web:findMatchingUserIdentity" + NAMESPACE_DECLARATION + ">"
+            + "<arg0><web:MapEntry><web:Key>usda_eauth_id</web:Key><web:Value>{0}</web:Value></web:MapEntry></arg0>"
+            + "</web:findMatchingUserIdentity>");
+
+    static final SoapRequestTemplate FIND_OFFICES_BY_EAUTH_ID_REQUEST = SoapRequestTemplate.compile(
+            "<web:findOfficesByEauthId" + NAMESPACE_DECLARATION + ">"
+            + "<arg0><web:UsdaEauthId>{0}</web:UsdaEauthId><web:OfficeType>{1}</web:OfficeType></arg0>"
+            + "</web:findOfficesByEauthId>");
+
+    static final SoapRequestTemplate GET_USER_ROLES_REQUEST = SoapRequestTemplate.compile(
+            "<web:getUserRoles" + NAMESPACE_DECLARATION + ">"
+            + "<arg0><web:UserIdentity>"
+            + "<AuthenticationSystemIdentifier>{0}</AuthenticationSystemIdentifier>"
+            + "<AuthorizationSystemIdentifier>{1}</AuthorizationSystemIdentifier>"
+            + "<UserLoginName>{2}</UserLoginName>"
+            + "</web:UserIdentity></arg0>"
+            + "</web:getUserRoles>");
+
+    static final SoapRequestTemplate FIND_USERS_BY_CRITERIA_REQUEST = SoapRequestTemplate.compile(
+            "<web:findUsersByCriteria" + NAMESPACE_DECLARATION + ">"
+            + "<arg0><web:OfficeId>{0}</web:OfficeId><web:RoleName>{1}</web:RoleName>"
+            + "<web:RequestToken><applicationIdentifier>{2}</applicationIdentifier><requestHost>{3}</requestHost>"
+            + "</web:RequestToken></arg0>"
+            + "</web:findUsersByCriteria>");
+
+    private static final SoapActionCallback SOAP_ACTION_CALLBACK = new SoapActionCallback("");
 
     private final WebServiceTemplate webServiceTemplate;
-    private final DocumentBuilderFactory docBuilderFactory;
-    private final XPathFactory xPathFactory;
-    private final TransformerFactory transformerFactory;
+    private final SoapResponseParser responseParser;
+    private final RequestCoalescer requestCoalescer;
+    private final SoapClientMetrics metrics;
+    private final UpstreamGuard upstreamGuard;
+    private final AdaptiveLatencyPolicy latencyPolicy;
+    private final UpstreamEndpoints endpoints;
+    private volatile RequestConfig defaultRequestConfig;
+
+    @Value("${soap.request-token.application-identifier:}")
+    private String requestTokenApplicationIdentifier;
+
+    @Value("${soap.request-token.request-host:}")
+    private String requestTokenRequestHost;
 
     public SimpleAuthorizationSoapClient(WebServiceTemplate webServiceTemplate) {
+        this(webServiceTemplate, new DomSoapResponseParser(), new RequestCoalescer(true),
+                new SoapClientMetrics(new SimpleMeterRegistry()), UpstreamGuard.disabled());
+    }
+
+    public SimpleAuthorizationSoapClient(WebServiceTemplate webServiceTemplate, SoapResponseParser responseParser,
+                                         RequestCoalescer requestCoalescer, SoapClientMetrics metrics,
+                                         UpstreamGuard upstreamGuard) {
+        this(webServiceTemplate, responseParser, requestCoalescer, metrics, upstreamGuard,
+                AdaptiveLatencyPolicy.disabled());
+    }
+
+    public SimpleAuthorizationSoapClient(WebServiceTemplate webServiceTemplate, SoapResponseParser responseParser,
+                                         RequestCoalescer requestCoalescer, SoapClientMetrics metrics,
+                                         UpstreamGuard upstreamGuard, AdaptiveLatencyPolicy latencyPolicy) {
+        this(webServiceTemplate, responseParser, requestCoalescer, metrics, upstreamGuard, latencyPolicy,
+                UpstreamEndpoints.single(webServiceTemplate.getDefaultUri()));
+    }
+
+    @Autowired
+    public SimpleAuthorizationSoapClient(WebServiceTemplate webServiceTemplate, SoapResponseParser responseParser,
+                                         RequestCoalescer requestCoalescer, SoapClientMetrics metrics,
+                                         UpstreamGuard upstreamGuard, AdaptiveLatencyPolicy latencyPolicy,
+                                         UpstreamEndpoints endpoints) {
         this.webServiceTemplate = webServiceTemplate;
-        this.docBuilderFactory = DocumentBuilderFactory.newInstance();
-        this.docBuilderFactory.setNamespaceAware(true);
-        this.xPathFactory = XPathFactory.newInstance();
-        this.transformerFactory = TransformerFactory.newInstance();
+        this.responseParser = responseParser;
+        this.requestCoalescer = requestCoalescer;
+        this.metrics = metrics;
+        this.upstreamGuard = upstreamGuard;
+        this.latencyPolicy = latencyPolicy;
+        this.endpoints = endpoints;
     }
 
     /**
-     * Check if the service is healthy
+     * Check if the service is healthy: probes every replica, ejecting or reinstating it in the
+     * load balancer, and reports whether at least one of them is healthy
      */
     public boolean isHealthy() {
+        boolean healthy = false;
+        for (UpstreamEndpoints.Endpoint endpoint : endpoints.getEndpoints()) {
+            boolean endpointHealthy = isHealthy(endpoint);
+            endpoints.onProbe(endpoint, endpointHealthy);
+            healthy |= endpointHealthy;
+        }
+        return healthy;
+    }
+
+    private boolean isHealthy(UpstreamEndpoints.Endpoint endpoint) {
         try {
-            Document requestDoc = createIsHealthyRequest();
-            Node responseNode = sendSoapRequest(requestDoc);
-            
-            XPath xpath = xPathFactory.newXPath();
-            String result = (String) xpath.evaluate("//return/text()", responseNode, XPathConstants.STRING);
-            
-            return Boolean.parseBoolean(result);
+            return sendSoapRequest(IS_HEALTHY_REQUEST, responseParser::parseIsHealthy, endpoint);
         } catch (Exception e) {
-            logger.error("Error checking service health", e);
+            logger.error("Error checking service health of {}", endpoint.getUrl(), e);
             return false;
         }
     }
@@ -78,9 +157,10 @@ public class SimpleAuthorizationSoapClient {
      */
     public UserIdentityDto findMatchingUserIdentity(String usdaEauthId) {
         try {
-            Document requestDoc = createFindMatchingUserIdentityRequest(usdaEauthId);
-            Node responseNode = sendSoapRequest(requestDoc);
-            return parseUserIdentity(responseNode);
+            return sendSoapRequest(FIND_MATCHING_USER_IDENTITY_REQUEST, responseParser::parseUserIdentity,
+                    usdaEauthId);
+        } catch (SoapCallRejectedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error finding matching user identity for eauth ID: {}", usdaEauthId, e);
             throw new RuntimeException("Failed to find matching user identity", e);
@@ -92,9 +172,10 @@ public class SimpleAuthorizationSoapClient {
      */
     public List<String> findOfficesByEauthId(String usdaEauthId, String officeType) {
         try {
-            Document requestDoc = createFindOfficesByEauthIdRequest(usdaEauthId, officeType);
-            Node responseNode = sendSoapRequest(requestDoc);
-            return parseListValues(responseNode, "//ns2:Offices/ns2:ListValue");
+            return sendSoapRequest(FIND_OFFICES_BY_EAUTH_ID_REQUEST, responseParser::parseOffices,
+                    usdaEauthId, officeType);
+        } catch (SoapCallRejectedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error finding offices for eauth ID: {} and office type: {}", usdaEauthId, officeType, e);
             throw new RuntimeException("Failed to find offices by eauth ID", e);
@@ -106,140 +187,90 @@ public class SimpleAuthorizationSoapClient {
      */
     public UserRolesResponseDto getUserRoles(UserIdentityDto userIdentityDto) {
         try {
-            Document requestDoc = createGetUserRolesRequest(userIdentityDto);
-            Node responseNode = sendSoapRequest(requestDoc);
-            return parseUserRoles(responseNode);
+            return sendSoapRequest(GET_USER_ROLES_REQUEST, responseParser::parseUserRoles,
+                    userIdentityDto.getAuthenticationSystemIdentifier(),
+                    userIdentityDto.getAuthorizationSystemIdentifier(),
+                    userIdentityDto.getUserLoginName());
+        } catch (SoapCallRejectedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting user roles for user: {}", userIdentityDto.getUserLoginName(), e);
             throw new RuntimeException("Failed to get user roles", e);
         }
     }
 
-    private Document createIsHealthyRequest() throws Exception {
-        DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        Element operationElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":isHealthy");
-        doc.appendChild(operationElement);
-
-        return doc;
-    }
-
-    private Document createFindMatchingUserIdentityRequest(String usdaEauthId) throws Exception {
-        DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        Element operationElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":findMatchingUserIdentity");
-        doc.appendChild(operationElement);
-
-        Element arg0 = doc.createElement("arg0");
-        operationElement.appendChild(arg0);
-
-        Element mapEntry = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":MapEntry");
-        arg0.appendChild(mapEntry);
-
-        Element key = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":Key");
-        key.setTextContent("usda_eauth_id");
-        mapEntry.appendChild(key);
-
-        Element value = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":Value");
-        value.setTextContent(usdaEauthId);
-        mapEntry.appendChild(value);
-
-        return doc;
+    /**
+     * Find users holding a role in an office. Users are passed to the consumer while the response is
+     * still being read, so the list is never held in memory; the consumer runs on the calling thread.
+     *
+     * @return the number of users
+     */
+    public long findUsersByCriteria(String officeId, String roleName, Consumer<String> userConsumer) {
+        try {
+            return streamSoapRequest(FIND_USERS_BY_CRITERIA_REQUEST,
+                    source -> responseParser.parseUsers(source, userConsumer),
+                    officeId, roleName, requestTokenApplicationIdentifier, requestTokenRequestHost);
+        } catch (SoapCallRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error finding users by criteria - office: {}, role: {}", officeId, roleName, e);
+            throw new RuntimeException("Failed to find users by criteria", e);
+        }
     }
 
-    private Document createFindOfficesByEauthIdRequest(String usdaEauthId, String officeType) throws Exception {
-        DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        Element operationElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":findOfficesByEauthId");
-        doc.appendChild(operationElement);
-
-        Element arg0 = doc.createElement("arg0");
-        operationElement.appendChild(arg0);
-
-        Element eauthIdElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":UsdaEauthId");
-        eauthIdElement.setTextContent(usdaEauthId);
-        arg0.appendChild(eauthIdElement);
-
-        Element officeTypeElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":OfficeType");
-        officeTypeElement.setTextContent(officeType);
-        arg0.appendChild(officeTypeElement);
-
-        return doc;
+    /**
+     * Sends the request, sharing one upstream call between concurrent callers with an identical payload.
+     * Only idempotent reads go through here, so slow calls may be hedged (see {@link AdaptiveLatencyPolicy}).
+     */
+    private <T> T sendSoapRequest(SoapRequestTemplate requestTemplate, PayloadParser<T> payloadParser,
+                                  String... values) {
+        return sendSoapRequest(requestTemplate, payloadParser, null, values);
     }
 
-    private Document createGetUserRolesRequest(UserIdentityDto userIdentityDto) throws Exception {
-        DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-        Document doc = docBuilder.newDocument();
-
-        Element operationElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":getUserRoles");
-        doc.appendChild(operationElement);
-
-        Element arg0 = doc.createElement("arg0");
-        operationElement.appendChild(arg0);
-
-        Element userIdentityElement = doc.createElementNS(NAMESPACE_URI, NAMESPACE_PREFIX + ":UserIdentity");
-        arg0.appendChild(userIdentityElement);
-
-        Element authSysId = doc.createElement("AuthenticationSystemIdentifier");
-        authSysId.setTextContent(userIdentityDto.getAuthenticationSystemIdentifier());
-        userIdentityElement.appendChild(authSysId);
-
-        Element authzSysId = doc.createElement("AuthorizationSystemIdentifier");
-        authzSysId.setTextContent(userIdentityDto.getAuthorizationSystemIdentifier());
-        userIdentityElement.appendChild(authzSysId);
-
-        Element loginName = doc.createElement("UserLoginName");
-        loginName.setTextContent(userIdentityDto.getUserLoginName());
-        userIdentityElement.appendChild(loginName);
-
-        return doc;
+    /**
+     * @param endpoint replica to send to, or null to let the load balancer pick one
+     */
+    private <T> T sendSoapRequest(SoapRequestTemplate requestTemplate, PayloadParser<T> payloadParser,
+                                  UpstreamEndpoints.Endpoint endpoint, String... values) {
+        return requestCoalescer.execute(
+                new RequestKey(requestTemplate, endpoint == null ? null : endpoint.getUrl(), Arrays.asList(values)),
+                () -> latencyPolicy.execute(requestTemplate.getOperationName(),
+                        () -> doSendSoapRequest(requestTemplate, payloadParser, endpoint, values)));
     }
 
-    private Node sendSoapRequest(Document requestDoc) {
+    private <T> T doSendSoapRequest(SoapRequestTemplate requestTemplate, PayloadParser<T> payloadParser,
+                                    UpstreamEndpoints.Endpoint endpoint, String... values) {
+        String operation = requestTemplate.getOperationName();
+        SoapClientMetrics.OperationMeters meters = metrics.forOperation(operation);
+        UpstreamGuard.Permit permit = acquirePermit(requestTemplate);
+        UpstreamEndpoints.Lease lease = lease(permit, endpoint);
+        Duration responseTimeout = latencyPolicy.responseTimeout(operation);
+        long start = System.nanoTime();
+        // [0] request payload written, [1] response message available
+        long[] marks = new long[2];
+        WebServiceMessage[] request = new WebServiceMessage[1];
         try {
-            logger.debug("Sending SOAP request to: {}", serviceUrl);
+            logger.debug("Sending SOAP request to: {}", lease.getUrl());
             
             if (logger.isDebugEnabled()) {
-                logger.debug("Request body content: {}", documentToString(requestDoc));
+                logger.debug("Request body content: {}", requestTemplate.render(values));
             }
 
-            webServiceTemplate.setDefaultUri(serviceUrl);
-            DOMSource requestSource = new DOMSource(requestDoc);
-
-            // Fixed: Properly handle the Source response
-            Node responseNode = webServiceTemplate.sendSourceAndReceive(
-                serviceUrl,
-                requestSource,
-                new SoapActionCallback(""),
-                source -> {
+            // The endpoint is chosen per call; the shared template (see SoapConfig) must not be mutated
+            T result = webServiceTemplate.sendAndReceive(lease.getUrl(),
+                message -> {
+                    request[0] = message;
+                    writeRequest(message, requestTemplate, values);
+                    if (responseTimeout != null) {
+                        applyResponseTimeout(responseTimeout);
+                    }
+                    marks[0] = System.nanoTime();
+                },
+                message -> {
+                    marks[1] = System.nanoTime();
+                    recordResponseSize(meters);
                     try {
-                        // Check if it's a DOMSource
-                        if (source instanceof DOMSource) {
-                            DOMSource domSource = (DOMSource) source;
-                            Node node = domSource.getNode();
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("Response: {}", nodeToString(node));
-                            }
-                            return node;
-                        } else {
-                            // Handle other source types by converting to DOM
-                            DocumentBuilder builder = docBuilderFactory.newDocumentBuilder();
-                            Document doc = builder.newDocument();
-                            
-                            // Create a transformer to convert Source to DOM
-                            Transformer transformer = transformerFactory.newTransformer();
-                            DOMResult result = new DOMResult(doc);
-                            transformer.transform(source, result);
-                            
-                            Node node = doc.getDocumentElement();
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("Response: {}", nodeToString(node));
-                            }
-                            return node;
-                        }
+                        return payloadParser.parse(message.getPayloadSource());
                     } catch (Exception e) {
                         logger.error("Error processing response", e);
                         throw new RuntimeException("Failed to process response", e);
@@ -247,131 +278,239 @@ public class SimpleAuthorizationSoapClient {
                 }
             );
 
-            return responseNode;
+            permit.onSuccess();
+            lease.onSuccess();
+            long end = System.nanoTime();
+            meters.recordPhases(start, marks[0], marks[1], end);
+            meters.recordRequest(SoapClientMetrics.OUTCOME_SUCCESS, end - start);
+            meters.recordRequestSize(requestTemplate.encodedLength(values));
+            recordListSize(meters, result);
+            latencyPolicy.record(operation, end - start);
+            return result;
         } catch (Exception e) {
+            completeExceptionally(permit, lease, e);
+            String outcome = e instanceof SoapFaultClientException
+                    ? SoapClientMetrics.OUTCOME_FAULT
+                    : SoapClientMetrics.OUTCOME_ERROR;
+            long elapsed = System.nanoTime() - start;
+            meters.recordRequest(outcome, elapsed);
+            latencyPolicy.recordFailure(operation, elapsed);
             logger.error("Error sending SOAP request", e);
             throw new RuntimeException("Failed to send SOAP request", e);
+        } finally {
+            StreamingMessageFactory.release(request[0]);
         }
     }
 
-    private String documentToString(Document doc) {
+    /**
+     * Sends the request over a connection of the template's message sender and parses the response
+     * straight off the connection stream (see {@link StreamingMessageFactory}).
+     * <p>
+     * This bypasses the template's interceptors and message tracing, which would buffer the whole
+     * response. Calls are not coalesced, since each caller consumes its own stream. Error responses
+     * are read with the regular message factory, so SOAP faults still surface as
+     * {@link SoapFaultClientException}.
+     */
+    private long streamSoapRequest(SoapRequestTemplate requestTemplate, PayloadParser<Long> payloadParser,
+                                   String... values) {
+        SoapClientMetrics.OperationMeters meters = metrics.forOperation(requestTemplate.getOperationName());
+        UpstreamGuard.Permit permit = acquirePermit(requestTemplate);
+        UpstreamEndpoints.Lease lease = lease(permit, null);
+        boolean permitReleased = false;
+        long start = System.nanoTime();
+        WebServiceMessage request = null;
+        TransportContext previousContext = TransportContextHolder.getTransportContext();
         try {
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            
-            StringWriter writer = new StringWriter();
-            transformer.transform(new DOMSource(doc), new StreamResult(writer));
-            return writer.toString();
+            logger.debug("Streaming SOAP request to: {}", lease.getUrl());
+
+            WebServiceMessageFactory messageFactory = webServiceTemplate.getMessageFactory();
+            request = messageFactory.createWebServiceMessage();
+            writeRequest(request, requestTemplate, values);
+            long requestWritten = System.nanoTime();
+
+            URI uri = URI.create(lease.getUrl());
+            try (WebServiceConnection connection = webServiceTemplate.getMessageSenders()[0].createConnection(uri)) {
+                // Lets the message factory tell error responses apart, as inside WebServiceTemplate
+                TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+                connection.send(request);
+                if (connection.hasError()) {
+                    WebServiceMessage response = connection.receive(messageFactory);
+                    if (response instanceof SoapMessage && ((SoapMessage) response).hasFault()) {
+                        throw new SoapFaultClientException((SoapMessage) response);
+                    }
+                    throw new WebServiceTransportException(connection.getErrorMessage());
+                }
+                WebServiceMessage response = connection.receive(StreamingMessageFactory.streaming(messageFactory));
+                if (response == null) {
+                    throw new WebServiceTransportException("Empty response");
+                }
+                long responseReceived = System.nanoTime();
+                // The upstream has answered; how fast the caller drains the stream is not its latency
+                permit.onSuccess();
+                lease.onSuccess();
+                permitReleased = true;
+
+                long count = payloadParser.parse(response.getPayloadSource());
+
+                long end = System.nanoTime();
+                meters.recordPhases(start, requestWritten, responseReceived, end);
+                meters.recordRequest(SoapClientMetrics.OUTCOME_SUCCESS, end - start);
+                meters.recordRequestSize(requestTemplate.encodedLength(values));
+                meters.recordListSize(count);
+                return count;
+            }
         } catch (Exception e) {
-            return "Error converting document to string: " + e.getMessage();
+            if (!permitReleased) {
+                completeExceptionally(permit, lease, e);
+            }
+            String outcome = e instanceof SoapFaultClientException
+                    ? SoapClientMetrics.OUTCOME_FAULT
+                    : SoapClientMetrics.OUTCOME_ERROR;
+            meters.recordRequest(outcome, System.nanoTime() - start);
+            logger.error("Error streaming SOAP request", e);
+            throw new RuntimeException("Failed to send SOAP request", e);
+        } finally {
+            TransportContextHolder.setTransportContext(previousContext);
+            StreamingMessageFactory.release(request);
         }
     }
 
-    private String nodeToString(Node node) {
+    /**
+     * Writes the payload into the request: bytes straight into the pooled buffer of a
+     * {@link StreamingMessageFactory} message, StAX events into the body of a SAAJ message
+     */
+    private static void writeRequest(WebServiceMessage message, SoapRequestTemplate requestTemplate,
+                                     String... values) throws IOException {
         try {
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            
-            StringWriter writer = new StringWriter();
-            transformer.transform(new DOMSource(node), new StreamResult(writer));
-            return writer.toString();
-        } catch (Exception e) {
-            return "Error converting node to string: " + e.getMessage();
+            requestTemplate.writeTo(message.getPayloadResult(), values);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write request payload", e);
+        }
+        // Pooled request messages always carry the (empty) SOAPAction header
+        if (message instanceof SoapMessage) {
+            SOAP_ACTION_CALLBACK.doWithMessage(message);
         }
     }
 
-    private UserIdentityDto parseUserIdentity(Node responseNode) throws Exception {
-        XPath xpath = xPathFactory.newXPath();
-        
-        String authSysId = (String) xpath.evaluate("//AuthenticationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
-        String authzSysId = (String) xpath.evaluate("//AuthorizationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
-        String loginName = (String) xpath.evaluate("//UserLoginName/text()", responseNode, XPathConstants.STRING);
-        
-        return new UserIdentityDto(authSysId, authzSysId, loginName);
+    /**
+     * Health probes bypass the guard: they must keep reaching the upstream while the breaker is open
+     */
+    private UpstreamGuard.Permit acquirePermit(SoapRequestTemplate requestTemplate) {
+        return requestTemplate == IS_HEALTHY_REQUEST ? UpstreamGuard.unguarded() : upstreamGuard.acquire();
     }
 
-    private List<String> parseListValues(Node responseNode, String xpathExpression) throws Exception {
-        XPath xpath = xPathFactory.newXPath();
-        
-        // Set up namespace context for xpath
-        xpath.setNamespaceContext(new javax.xml.namespace.NamespaceContext() {
-            @Override
-            public String getNamespaceURI(String prefix) {
-                switch (prefix) {
-                    case "ns2":
-                        return "http://web.service.eas.citso.fsa.usda.gov";
-                    case "soap":
-                        return "http://schemas.xmlsoap.org/soap/envelope/";
-                    default:
-                        return javax.xml.XMLConstants.NULL_NS_URI;
-                }
-            }
+    /**
+     * Leases the given replica, or lets the load balancer pick one; the permit is handed back if that fails
+     */
+    private UpstreamEndpoints.Lease lease(UpstreamGuard.Permit permit, UpstreamEndpoints.Endpoint endpoint) {
+        try {
+            return endpoint == null ? endpoints.select() : endpoints.lease(endpoint);
+        } catch (RuntimeException e) {
+            permit.onIgnore();
+            throw e;
+        }
+    }
 
-            @Override
-            public String getPrefix(String namespaceURI) {
-                return null;
-            }
+    /**
+     * A SOAP fault is an answer from a live upstream; anything else counts against it and the replica
+     */
+    private static void completeExceptionally(UpstreamGuard.Permit permit, UpstreamEndpoints.Lease lease,
+                                              Exception e) {
+        if (e instanceof SoapFaultClientException) {
+            permit.onSuccess();
+            lease.onSuccess();
+        } else {
+            permit.onFailure();
+            lease.onFailure();
+        }
+    }
 
-            @Override
-            public java.util.Iterator<String> getPrefixes(String namespaceURI) {
-                return null;
-            }
-        });
-        
-        NodeList nodeList = (NodeList) xpath.evaluate(xpathExpression, responseNode, XPathConstants.NODESET);
-        
-        List<String> values = new ArrayList<>();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node node = nodeList.item(i);
-            values.add(node.getTextContent());
+    /**
+     * Overrides the transport read timeout of the connection about to be used, from the request callback
+     */
+    private void applyResponseTimeout(Duration timeout) {
+        TransportContext context = TransportContextHolder.getTransportContext();
+        if (context == null) {
+            return;
+        }
+        WebServiceConnection connection = context.getConnection();
+        if (connection instanceof HttpComponents5Connection) {
+            ((HttpComponents5Connection) connection).getHttpPost().setConfig(
+                    RequestConfig.copy(defaultRequestConfig())
+                            .setResponseTimeout(Timeout.of(timeout))
+                            .build());
+        } else if (connection instanceof HttpUrlConnection) {
+            ((HttpUrlConnection) connection).getConnection().setReadTimeout((int) timeout.toMillis());
         }
-        
-        logger.debug("Parsed {} values from xpath: {}", values.size(), xpathExpression);
-        logger.debug("Values: {}", values);
-        
-        return values;
     }
 
-    private UserRolesResponseDto parseUserRoles(Node responseNode) throws Exception {
-        XPath xpath = xPathFactory.newXPath();
-        
-        // Set up namespace context for xpath
-        xpath.setNamespaceContext(new javax.xml.namespace.NamespaceContext() {
-            @Override
-            public String getNamespaceURI(String prefix) {
-                switch (prefix) {
-                    case "ns2":
-                        return "http://web.service.eas.citso.fsa.usda.gov";
-                    case "soap":
-                        return "http://schemas.xmlsoap.org/soap/envelope/";
-                    default:
-                        return javax.xml.XMLConstants.NULL_NS_URI;
+    /**
+     * Client-wide request config of the pooled sender; a per-request config replaces it entirely,
+     * so timeout overrides start from a copy to keep its keep-alive and other settings
+     */
+    private RequestConfig defaultRequestConfig() {
+        RequestConfig config = defaultRequestConfig;
+        if (config == null) {
+            config = RequestConfig.DEFAULT;
+            for (WebServiceMessageSender sender : webServiceTemplate.getMessageSenders()) {
+                if (sender instanceof AbstractHttpComponents5MessageSender
+                        && ((AbstractHttpComponents5MessageSender) sender).getHttpClient() instanceof Configurable) {
+                    RequestConfig clientConfig =
+                            ((Configurable) ((AbstractHttpComponents5MessageSender) sender).getHttpClient()).getConfig();
+                    if (clientConfig != null) {
+                        config = clientConfig;
+                    }
+                    break;
                 }
             }
+            defaultRequestConfig = config;
+        }
+        return config;
+    }
 
-            @Override
-            public String getPrefix(String namespaceURI) {
-                return null;
+    /**
+     * Response body size as announced by the transport; unknown (chunked) sizes are skipped
+     */
+    private static void recordResponseSize(SoapClientMetrics.OperationMeters meters) {
+        TransportContext context = TransportContextHolder.getTransportContext();
+        if (context == null) {
+            return;
+        }
+        long length = -1;
+        WebServiceConnection connection = context.getConnection();
+        if (connection instanceof HttpComponents5Connection) {
+            HttpResponse response = ((HttpComponents5Connection) connection).getHttpResponse();
+            if (response instanceof HttpEntityContainer && ((HttpEntityContainer) response).getEntity() != null) {
+                length = ((HttpEntityContainer) response).getEntity().getContentLength();
             }
+        } else if (connection instanceof HttpUrlConnection) {
+            length = ((HttpUrlConnection) connection).getConnection().getContentLengthLong();
+        }
+        if (length >= 0) {
+            meters.recordResponseSize(length);
+        }
+    }
 
-            @Override
-            public java.util.Iterator<String> getPrefixes(String namespaceURI) {
-                return null;
-            }
-        });
-        
-        // Parse roles
-        List<String> roles = parseListValues(responseNode, "//ns2:UserRoles/ns2:ListValue");
-        
-        // Parse user identity
-        String authSysId = (String) xpath.evaluate("//ns2:UserIdentity/AuthenticationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
-        String authzSysId = (String) xpath.evaluate("//ns2:UserIdentity/AuthorizationSystemIdentifier/text()", responseNode, XPathConstants.STRING);
-        String loginName = (String) xpath.evaluate("//ns2:UserIdentity/UserLoginName/text()", responseNode, XPathConstants.STRING);
-        
-        UserIdentityDto userIdentity = new UserIdentityDto(authSysId, authzSysId, loginName);
-        
-        return new UserRolesResponseDto(roles, userIdentity);
+    private static void recordListSize(SoapClientMetrics.OperationMeters meters, Object result) {
+        if (result instanceof List) {
+            meters.recordListSize(((List<?>) result).size());
+        } else if (result instanceof UserRolesResponseDto && ((UserRolesResponseDto) result).getUserRoles() != null) {
+            meters.recordListSize(((UserRolesResponseDto) result).getUserRoles().size());
+        }
+    }
+
+    /**
+     * Identity of an outbound request: the operation template, the targeted replica (null when
+     * balanced) and the request values
+     */
+    private record RequestKey(SoapRequestTemplate template, String endpoint, List<String> values) {
+    }
+
+    /**
+     * Response payload callback; delegates to the configured {@link SoapResponseParser}
+     */
+    @FunctionalInterface
+    private interface PayloadParser<T> {
+        T parse(Source source) throws Exception;
     }
 }
\ No newline at end of file
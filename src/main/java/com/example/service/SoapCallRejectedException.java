@@ -0,0 +1,23 @@
+package com.example.service;
+
+/**
+ * Thrown without contacting the upstream when the circuit breaker is open or the concurrency
+ * limit is reached. Callers should treat it as "service unavailable, try again later".
+ */
+public class SoapCallRejectedException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, CONCURRENCY_LIMIT }
+
+    private final Reason reason;
+
+    public SoapCallRejectedException(Reason reason) {
+        super(reason == Reason.CIRCUIT_OPEN
+                ? "SOAP call rejected: circuit breaker is open"
+                : "SOAP call rejected: concurrency limit reached", null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
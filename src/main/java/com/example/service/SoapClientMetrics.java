@@ -0,0 +1,150 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of {@link AuthorizationSoapClient}, per operation:
+ * <ul>
+ *   <li>{@code soap.client.requests} timer, tagged with the outcome (success, fault, error)</li>
+ *   <li>{@code soap.client.phase} timer, tagged with the phase: build (request payload written),
+ *       send (network round trip until the response message is available) and parse</li>
+ *   <li>{@code soap.client.payload.size} summary of request/response bytes</li>
+ *   <li>{@code soap.client.list.size} summary of ListValue counts in list responses</li>
+ * </ul>
+ * Timers publish percentile histograms. Meters are registered once per operation and reused.
+ * <p>
+ * Across operations, {@code soap.client.transfer.bytes} counts HTTP body bytes per direction, in
+ * two forms: as sent on the wire (compressed where the exchange was) and uncompressed. Their ratio
+ * is the compression gain; see {@link SoapHttpCompression}.
+ */
+@Component
+public class SoapClientMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAULT = "fault";
+    public static final String OUTCOME_ERROR = "error";
+
+    public static final String DIRECTION_REQUEST = "request";
+    public static final String DIRECTION_RESPONSE = "response";
+    public static final String FORM_WIRE = "wire";
+    public static final String FORM_UNCOMPRESSED = "uncompressed";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, OperationMeters> operations = new ConcurrentHashMap<>();
+
+    public SoapClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public OperationMeters forOperation(String operation) {
+        return operations.computeIfAbsent(operation, name -> new OperationMeters(meterRegistry, name));
+    }
+
+    /**
+     * Body byte counter of one direction ({@code request}, {@code response}) and form
+     * ({@code wire}, {@code uncompressed})
+     */
+    public Counter transferBytes(String direction, String form) {
+        return Counter.builder("soap.client.transfer.bytes")
+                .description("HTTP body bytes of SOAP exchanges")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .tag("form", form)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Meters of one SOAP operation
+     */
+    public static final class OperationMeters {
+        private final Timer buildTimer;
+        private final Timer sendTimer;
+        private final Timer parseTimer;
+        private final Timer successTimer;
+        private final Timer faultTimer;
+        private final Timer errorTimer;
+        private final DistributionSummary requestSize;
+        private final DistributionSummary responseSize;
+        private final DistributionSummary listSize;
+
+        private OperationMeters(MeterRegistry registry, String operation) {
+            this.buildTimer = phaseTimer(registry, operation, "build");
+            this.sendTimer = phaseTimer(registry, operation, "send");
+            this.parseTimer = phaseTimer(registry, operation, "parse");
+            this.successTimer = requestTimer(registry, operation, OUTCOME_SUCCESS);
+            this.faultTimer = requestTimer(registry, operation, OUTCOME_FAULT);
+            this.errorTimer = requestTimer(registry, operation, OUTCOME_ERROR);
+            this.requestSize = payloadSize(registry, operation, "request");
+            this.responseSize = payloadSize(registry, operation, "response");
+            this.listSize = DistributionSummary.builder("soap.client.list.size")
+                    .description("Number of ListValue entries in list responses")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        /**
+         * Records the three phases from the timestamps taken around the exchange (System.nanoTime)
+         */
+        public void recordPhases(long startNanos, long requestWrittenNanos, long responseReceivedNanos, long endNanos) {
+            buildTimer.record(requestWrittenNanos - startNanos, TimeUnit.NANOSECONDS);
+            sendTimer.record(responseReceivedNanos - requestWrittenNanos, TimeUnit.NANOSECONDS);
+            parseTimer.record(endNanos - responseReceivedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordRequest(String outcome, long durationNanos) {
+            Timer timer = OUTCOME_SUCCESS.equals(outcome) ? successTimer
+                    : OUTCOME_FAULT.equals(outcome) ? faultTimer
+                    : errorTimer;
+            timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordRequestSize(long bytes) {
+            requestSize.record(bytes);
+        }
+
+        public void recordResponseSize(long bytes) {
+            responseSize.record(bytes);
+        }
+
+        public void recordListSize(long size) {
+            listSize.record(size);
+        }
+
+        private static Timer phaseTimer(MeterRegistry registry, String operation, String phase) {
+            return Timer.builder("soap.client.phase")
+                    .description("Time spent per phase of a SOAP exchange")
+                    .tag("operation", operation)
+                    .tag("phase", phase)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static Timer requestTimer(MeterRegistry registry, String operation, String outcome) {
+            return Timer.builder("soap.client.requests")
+                    .description("Upstream SOAP requests")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static DistributionSummary payloadSize(MeterRegistry registry, String operation, String direction) {
+            return DistributionSummary.builder("soap.client.payload.size")
+                    .description("SOAP payload size")
+                    .baseUnit("bytes")
+                    .tag("operation", operation)
+                    .tag("direction", direction)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
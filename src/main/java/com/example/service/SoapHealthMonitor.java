@@ -0,0 +1,108 @@
+package com.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Probes {@link AuthorizationSoapClient#isHealthy()} in the background at a fixed interval
+ * and keeps the outcome, so health endpoints answer from memory instead of making a SOAP round
+ * trip per probe. Until the first probe has completed the status reports {@code checked=false}.
+ */
+@Service
+public class SoapHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoapHealthMonitor.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final Clock clock;
+    private final AtomicReference<HealthStatusDto> status;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public SoapHealthMonitor(AuthorizationSoapClient authorizationSoapClient,
+                             @Value("${soap.health.enabled:true}") boolean enabled,
+                             @Value("${soap.health.interval:10000}") long intervalMillis) {
+        this(authorizationSoapClient, enabled, intervalMillis, Clock.systemUTC());
+    }
+
+    SoapHealthMonitor(AuthorizationSoapClient authorizationSoapClient, boolean enabled, long intervalMillis,
+                      Clock clock) {
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+        this.status = new AtomicReference<>(new HealthStatusDto(false, false, null, null, 0, 0, 0));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Background SOAP health monitor disabled");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("soap-health-");
+        threadFactory.setDaemon(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::probe, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Last known status; never blocks on the upstream
+     */
+    public HealthStatusDto getStatus() {
+        if (!enabled) {
+            // Without a monitor fall back to a live check
+            probe();
+        }
+        return status.get();
+    }
+
+    void probe() {
+        long start = System.nanoTime();
+        boolean healthy;
+        try {
+            healthy = authorizationSoapClient.isHealthy();
+        } catch (RuntimeException e) {
+            logger.warn("Health probe failed", e);
+            healthy = false;
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Instant now = clock.instant();
+
+        HealthStatusDto previous = status.get();
+        boolean transition = !previous.isChecked() || previous.isHealthy() != healthy;
+        if (transition) {
+            logger.info("SOAP service health changed to {} ({} ms)", healthy ? "UP" : "DOWN", latencyMillis);
+        }
+        status.set(new HealthStatusDto(
+                healthy,
+                true,
+                now,
+                transition ? now : previous.getLastTransition(),
+                latencyMillis,
+                healthy ? 0 : previous.getConsecutiveFailures() + 1,
+                transition ? previous.getTransitions() + 1 : previous.getTransitions()));
+    }
+}
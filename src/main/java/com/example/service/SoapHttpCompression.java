@@ -0,0 +1,156 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.entity.GzipCompressingEntity;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compressed SOAP exchanges over the pooled HttpClient, with byte counts before and after
+ * compression.
+ * <p>
+ * Responses: HttpClient advertises {@code Accept-Encoding: gzip, x-gzip, deflate} and decodes
+ * compressed responses before the parser sees them, so parsing is unchanged. Requests: bodies of
+ * at least {@code requestMinSize} bytes are sent gzip-encoded when request compression is on; the
+ * upstream must accept {@code Content-Encoding: gzip}, so it is off by default. Small bodies are
+ * left alone, where compression costs more than it saves.
+ * <p>
+ * Both directions are counted in {@code soap.client.transfer.bytes} (see {@link SoapClientMetrics})
+ * as wire and uncompressed bytes. Decoded responses have no known length, so the per-operation
+ * response size summary only covers uncompressed responses.
+ */
+public class SoapHttpCompression {
+
+    private final boolean responseCompression;
+    private final boolean requestCompression;
+    private final long requestMinSize;
+    private final Counter requestWireBytes;
+    private final Counter requestUncompressedBytes;
+    private final Counter responseWireBytes;
+    private final Counter responseUncompressedBytes;
+
+    public SoapHttpCompression(SoapClientMetrics metrics, boolean responseCompression, boolean requestCompression,
+                               long requestMinSize) {
+        this.responseCompression = responseCompression;
+        this.requestCompression = requestCompression;
+        this.requestMinSize = requestMinSize;
+        this.requestWireBytes = metrics.transferBytes(SoapClientMetrics.DIRECTION_REQUEST, SoapClientMetrics.FORM_WIRE);
+        this.requestUncompressedBytes =
+                metrics.transferBytes(SoapClientMetrics.DIRECTION_REQUEST, SoapClientMetrics.FORM_UNCOMPRESSED);
+        this.responseWireBytes = metrics.transferBytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_WIRE);
+        this.responseUncompressedBytes =
+                metrics.transferBytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_UNCOMPRESSED);
+    }
+
+    /**
+     * Installs compression and byte counting on a client builder. Spring WS' own
+     * {@code Accept-Encoding: gzip} must be switched off on the message sender, or it replaces the
+     * header HttpClient would send.
+     */
+    public HttpClientBuilder applyTo(HttpClientBuilder builder) {
+        if (!responseCompression) {
+            builder.disableContentCompression();
+        }
+        // Outermost: sees response bodies after decoding
+        builder.addExecInterceptorFirst("soap-uncompressed-bytes", uncompressedResponseCounter());
+        // Just outside the protocol handler, which sets Content-Length and Content-Encoding from the entity
+        builder.addExecInterceptorBefore(ChainElement.PROTOCOL.name(), "soap-compression", wireHandler());
+        return builder;
+    }
+
+    private ExecChainHandler uncompressedResponseCounter() {
+        return (request, scope, chain) -> {
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            count(response, responseUncompressedBytes);
+            return response;
+        };
+    }
+
+    private ExecChainHandler wireHandler() {
+        return (request, scope, chain) -> {
+            HttpEntity entity = request.getEntity();
+            if (entity != null && !(entity instanceof CountingEntity)) {
+                long length = entity.getContentLength();
+                if (length >= 0) {
+                    requestUncompressedBytes.increment(length);
+                }
+                if (requestCompression && length >= requestMinSize && entity.getContentEncoding() == null) {
+                    entity = new GzipCompressingEntity(entity);
+                }
+                request.setEntity(new CountingEntity(entity, requestWireBytes));
+            }
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            count(response, responseWireBytes);
+            return response;
+        };
+    }
+
+    private static void count(ClassicHttpResponse response, Counter counter) {
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            response.setEntity(new CountingEntity(entity, counter));
+        }
+    }
+
+    /**
+     * Entity that adds the bytes read from or written by it to a counter
+     */
+    private static final class CountingEntity extends HttpEntityWrapper {
+        private final Counter counter;
+
+        CountingEntity(HttpEntity entity, Counter counter) {
+            super(entity);
+            this.counter = counter;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        counter.increment();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        counter.increment(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            super.writeTo(new FilterOutputStream(outputStream) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    counter.increment();
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    counter.increment(len);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled request payload with numbered text slots ({0}, {1}, ...).
+ * <p>
+ * The template XML is parsed once at compile time into pre-encoded UTF-8 literal segments and a
+ * replayable element sequence. Stream results receive the literal bytes plus the escaped slot
+ * values; other results (the DOMResult of a SAAJ body) get the elements written directly through
+ * StAX, so no request DOM is built and copied per call. Instances are immutable and thread-safe.
+ */
+public final class SoapRequestTemplate {
+
+    private static final Pattern SLOT = Pattern.compile("\\{(\\d+)}");
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private static final int START = 0;
+    private static final int END = 1;
+    private static final int TEXT = 2;
+    private static final int VALUE = 3;
+
+    private final List<Step> steps;
+    private final byte[][] literalBytes;
+    private final String[] literalChars;
+    private final int[] slotOrder;
+    private final int slotCount;
+
+    private SoapRequestTemplate(List<Step> steps, List<String> literals, int[] slotOrder, int slotCount) {
+        this.steps = steps;
+        this.literalChars = literals.toArray(new String[0]);
+        this.literalBytes = new byte[literalChars.length][];
+        for (int i = 0; i < literalChars.length; i++) {
+            literalBytes[i] = literalChars[i].getBytes(StandardCharsets.UTF_8);
+        }
+        this.slotOrder = slotOrder;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Compiles a payload such as {@code <web:op xmlns:web="..."><arg0>{0}</arg0></web:op>}.
+     * Slots may only appear as the complete text content of an element.
+     */
+    public static SoapRequestTemplate compile(String payloadXml) {
+        List<Step> steps = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int slotCount = 0;
+        try {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(payloadXml));
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        Step step = Step.start(reader);
+                        steps.add(step);
+                        step.appendTo(literal);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        Step step = Step.end(reader);
+                        steps.add(step);
+                        step.appendTo(literal);
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                        String text = reader.getText();
+                        if (text.isBlank()) {
+                            continue;
+                        }
+                        Matcher matcher = SLOT.matcher(text.strip());
+                        if (matcher.matches()) {
+                            int slot = Integer.parseInt(matcher.group(1));
+                            steps.add(Step.value(slot));
+                            literals.add(literal.toString());
+                            literal.setLength(0);
+                            slots.add(slot);
+                            slotCount = Math.max(slotCount, slot + 1);
+                        } else {
+                            Step step = Step.text(text);
+                            steps.add(step);
+                            step.appendTo(literal);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Invalid request template: " + payloadXml, e);
+        }
+        literals.add(literal.toString());
+        int[] slotOrder = slots.stream().mapToInt(Integer::intValue).toArray();
+        return new SoapRequestTemplate(List.copyOf(steps), literals, slotOrder, slotCount);
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Local name of the payload root element, i.e. the SOAP operation
+     */
+    public String getOperationName() {
+        return steps.isEmpty() ? "" : steps.get(0).localName;
+    }
+
+    /**
+     * Number of bytes {@link #writeTo(OutputStream, String...)} writes for these values
+     */
+    public long encodedLength(String... values) {
+        checkValues(values);
+        long length = 0;
+        for (byte[] literal : literalBytes) {
+            length += literal.length;
+        }
+        for (int slot : slotOrder) {
+            length += escapedLength(values[slot]);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the payload as UTF-8 bytes
+     */
+    public void writeTo(OutputStream out, String... values) throws IOException {
+        checkValues(values);
+        for (int i = 0; i < slotOrder.length; i++) {
+            out.write(literalBytes[i]);
+            writeEscaped(out, values[slotOrder[i]]);
+        }
+        out.write(literalBytes[slotOrder.length]);
+    }
+
+    /**
+     * Writes the payload as characters
+     */
+    public void writeTo(Writer writer, String... values) throws IOException {
+        checkValues(values);
+        for (int i = 0; i < slotOrder.length; i++) {
+            writer.write(literalChars[i]);
+            writeEscaped(writer, values[slotOrder[i]]);
+        }
+        writer.write(literalChars[slotOrder.length]);
+    }
+
+    /**
+     * Replays the payload as StAX events
+     */
+    public void writeTo(XMLStreamWriter writer, String... values) throws XMLStreamException {
+        checkValues(values);
+        for (Step step : steps) {
+            switch (step.type) {
+                case START:
+                    writer.writeStartElement(step.prefix, step.localName, step.namespaceUri);
+                    for (int i = 0; i < step.namespaceDeclarations.length; i += 2) {
+                        writer.writeNamespace(step.namespaceDeclarations[i], step.namespaceDeclarations[i + 1]);
+                    }
+                    break;
+                case END:
+                    writer.writeEndElement();
+                    break;
+                case TEXT:
+                    writer.writeCharacters(step.text);
+                    break;
+                case VALUE:
+                    String value = values[step.slot];
+                    if (value != null) {
+                        writer.writeCharacters(value);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown template step " + step.type);
+            }
+        }
+    }
+
+    /**
+     * Writes the payload into a message payload result, using the byte or character stream
+     * directly when the result exposes one
+     */
+    public void writeTo(Result result, String... values) throws IOException, XMLStreamException {
+        if (result instanceof StreamResult) {
+            StreamResult streamResult = (StreamResult) result;
+            if (streamResult.getOutputStream() != null) {
+                writeTo(streamResult.getOutputStream(), values);
+                return;
+            }
+            if (streamResult.getWriter() != null) {
+                writeTo(streamResult.getWriter(), values);
+                return;
+            }
+        }
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(result);
+        try {
+            writeTo(writer, values);
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Renders the payload to a String (logging and tests)
+     */
+    public String render(String... values) {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTo(writer, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Renders the payload to UTF-8 bytes
+     */
+    public byte[] toBytes(String... values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(literalBytes[0].length + 64);
+        try {
+            writeTo(out, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void checkValues(String[] values) {
+        if (values.length < slotCount) {
+            throw new IllegalArgumentException("Template expects " + slotCount + " values but got " + values.length);
+        }
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            String replacement = escape(value.charAt(i));
+            if (replacement != null) {
+                writer.write(value, start, i - start);
+                writer.write(replacement);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, length - start);
+    }
+
+    /**
+     * Escapes and UTF-8 encodes without an intermediate String or byte[]
+     */
+    private static void writeEscaped(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                String replacement = escape(c);
+                if (replacement != null) {
+                    for (int j = 0; j < replacement.length(); j++) {
+                        out.write(replacement.charAt(j));
+                    }
+                } else {
+                    out.write(c);
+                }
+            } else if (c < 0x800) {
+                out.write(0xC0 | (c >> 6));
+                out.write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.write(0xF0 | (codePoint >> 18));
+                out.write(0x80 | ((codePoint >> 12) & 0x3F));
+                out.write(0x80 | ((codePoint >> 6) & 0x3F));
+                out.write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.write('?');
+            } else {
+                out.write(0xE0 | (c >> 12));
+                out.write(0x80 | ((c >> 6) & 0x3F));
+                out.write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static long escapedLength(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                String replacement = escape(c);
+                length += replacement != null ? replacement.length() : 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static String escape(char c) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '\r':
+                return "&#13;";
+            default:
+                return null;
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value, boolean attribute) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = attribute && c == '"' ? "&quot;" : escape(c);
+            if (replacement != null) {
+                builder.append(replacement);
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    private static final class Step {
+        private final int type;
+        private String prefix = "";
+        private String localName;
+        private String namespaceUri = "";
+        private String[] namespaceDeclarations = new String[0];
+        private String text;
+        private int slot;
+
+        private Step(int type) {
+            this.type = type;
+        }
+
+        static Step start(XMLStreamReader reader) {
+            if (reader.getAttributeCount() > 0) {
+                throw new IllegalArgumentException("Attributes are not supported in request templates");
+            }
+            Step step = element(START, reader);
+            step.namespaceDeclarations = new String[reader.getNamespaceCount() * 2];
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String declaredPrefix = reader.getNamespacePrefix(i);
+                step.namespaceDeclarations[i * 2] = declaredPrefix != null ? declaredPrefix : "";
+                step.namespaceDeclarations[i * 2 + 1] = reader.getNamespaceURI(i);
+            }
+            return step;
+        }
+
+        static Step end(XMLStreamReader reader) {
+            return element(END, reader);
+        }
+
+        static Step text(String text) {
+            Step step = new Step(TEXT);
+            step.text = text;
+            return step;
+        }
+
+        static Step value(int slot) {
+            Step step = new Step(VALUE);
+            step.slot = slot;
+            return step;
+        }
+
+        private static Step element(int type, XMLStreamReader reader) {
+            Step step = new Step(type);
+            step.prefix = reader.getPrefix() != null ? reader.getPrefix() : "";
+            step.localName = reader.getLocalName();
+            step.namespaceUri = reader.getNamespaceURI() != null ? reader.getNamespaceURI() : "";
+            return step;
+        }
+
+        void appendTo(StringBuilder builder) {
+            String qualifiedName = prefix.isEmpty() ? localName : prefix + ":" + localName;
+            if (type == START) {
+                builder.append('<').append(qualifiedName);
+                for (int i = 0; i < namespaceDeclarations.length; i += 2) {
+                    builder.append(namespaceDeclarations[i].isEmpty() ? " xmlns" : " xmlns:" + namespaceDeclarations[i]);
+                    builder.append("=\"");
+                    appendEscaped(builder, namespaceDeclarations[i + 1], true);
+                    builder.append('"');
+                }
+                builder.append('>');
+            } else if (type == END) {
+                builder.append("</").append(qualifiedName).append('>');
+            } else if (type == TEXT) {
+                appendEscaped(builder, text, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.service;
+
+import javax.xml.transform.Source;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Extracts the DTOs of each AuthorizationSharedService operation from a response payload.
+ * Implementations must be thread-safe; a single instance is shared by all requests.
+ */
+public interface SoapResponseParser {
+
+    boolean parseIsHealthy(Source source) throws Exception;
+
+    UserIdentityDto parseUserIdentity(Source source) throws Exception;
+
+    List<String> parseOffices(Source source) throws Exception;
+
+    UserRolesResponseDto parseUserRoles(Source source) throws Exception;
+
+    /**
+     * Passes each user of a findUsersByCriteria response to the consumer, in document order,
+     * and returns how many there were
+     */
+    long parseUsers(Source source, Consumer<String> userConsumer) throws Exception;
+}
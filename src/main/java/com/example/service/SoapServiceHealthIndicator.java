@@ -0,0 +1,31 @@
+package com.example.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator health of the upstream authorization service, served from {@link SoapHealthMonitor}'s cached state
+ */
+@Component
+public class SoapServiceHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private SoapHealthMonitor soapHealthMonitor;
+
+    @Override
+    public Health health() {
+        HealthStatusDto status = soapHealthMonitor.getStatus();
+        Health.Builder builder = !status.isChecked()
+                ? Health.unknown()
+                : status.isHealthy() ? Health.up() : Health.down();
+        if (status.isChecked()) {
+            builder.withDetail("lastCheck", status.getLastCheck())
+                    .withDetail("lastTransition", status.getLastTransition())
+                    .withDetail("lastLatencyMillis", status.getLastLatencyMillis())
+                    .withDetail("consecutiveFailures", status.getConsecutiveFailures());
+        }
+        return builder.build();
+    }
+}
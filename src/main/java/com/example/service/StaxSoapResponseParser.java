@@ -0,0 +1,260 @@
+package com.example.service;
+
+import com.sun.xml.ws.streaming.DOMStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass StAX response parser. Reads the payload once, front to back, and fills the DTOs
+ * without building a DOM or evaluating XPath. DOM-backed payloads (SAAJ messages) are walked
+ * through a {@link DOMStreamReader} so they take the same code path.
+ */
+public class StaxSoapResponseParser implements SoapResponseParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaxSoapResponseParser.class);
+
+    private static final String NAMESPACE_URI = "http://web.service.eas.citso.fsa.usda.gov";
+
+    private static final String RETURN = "return";
+    private static final String OFFICES = "Offices";
+    private static final String USER_ROLES = "UserRoles";
+    private static final String USERS = "Users";
+    private static final String USER_IDENTITY = "UserIdentity";
+    private static final String LIST_VALUE = "ListValue";
+    private static final String AUTHENTICATION_SYSTEM_IDENTIFIER = "AuthenticationSystemIdentifier";
+    private static final String AUTHORIZATION_SYSTEM_IDENTIFIER = "AuthorizationSystemIdentifier";
+    private static final String USER_LOGIN_NAME = "UserLoginName";
+
+    private final XMLInputFactory inputFactory;
+
+    public StaxSoapResponseParser() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public boolean parseIsHealthy(Source source) throws Exception {
+        XMLStreamReader reader = createReader(source);
+        try {
+            for (int event = reader.getEventType(); ; event = reader.next()) {
+                if (event == XMLStreamConstants.START_ELEMENT && isUnqualified(reader, RETURN)) {
+                    return Boolean.parseBoolean(readText(reader));
+                }
+                if (!reader.hasNext()) {
+                    return false;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Override
+    public UserIdentityDto parseUserIdentity(Source source) throws Exception {
+        XMLStreamReader reader = createReader(source);
+        try {
+            String authSysId = null;
+            String authzSysId = null;
+            String loginName = null;
+            for (int event = reader.getEventType(); ; event = reader.next()) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    // Like the DOM parser: first occurrence of each field anywhere in the payload
+                    if (authSysId == null && isUnqualified(reader, AUTHENTICATION_SYSTEM_IDENTIFIER)) {
+                        authSysId = readText(reader);
+                    } else if (authzSysId == null && isUnqualified(reader, AUTHORIZATION_SYSTEM_IDENTIFIER)) {
+                        authzSysId = readText(reader);
+                    } else if (loginName == null && isUnqualified(reader, USER_LOGIN_NAME)) {
+                        loginName = readText(reader);
+                    }
+                    if (authSysId != null && authzSysId != null && loginName != null) {
+                        break;
+                    }
+                }
+                if (!reader.hasNext()) {
+                    break;
+                }
+            }
+            return new UserIdentityDto(orEmpty(authSysId), orEmpty(authzSysId), orEmpty(loginName));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Override
+    public List<String> parseOffices(Source source) throws Exception {
+        List<String> values = new ArrayList<>();
+        parseListValues(source, OFFICES, values::add);
+        logger.debug("Parsed {} office values", values.size());
+        return values;
+    }
+
+    @Override
+    public UserRolesResponseDto parseUserRoles(Source source) throws Exception {
+        XMLStreamReader reader = createReader(source);
+        try {
+            List<String> roles = new ArrayList<>();
+            String authSysId = null;
+            String authzSysId = null;
+            String loginName = null;
+            int depth = 0;
+            int rolesDepth = -1;
+            int identityDepth = -1;
+            for (int event = reader.getEventType(); ; event = reader.next()) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (rolesDepth < 0 && identityDepth < 0 && isQualified(reader, USER_ROLES)) {
+                        rolesDepth = depth;
+                    } else if (rolesDepth < 0 && identityDepth < 0 && isQualified(reader, USER_IDENTITY)) {
+                        identityDepth = depth;
+                    } else if (depth == rolesDepth + 1 && isQualified(reader, LIST_VALUE)) {
+                        roles.add(readText(reader));
+                        depth--;
+                    } else if (depth == identityDepth + 1) {
+                        if (authSysId == null && isUnqualified(reader, AUTHENTICATION_SYSTEM_IDENTIFIER)) {
+                            authSysId = readText(reader);
+                            depth--;
+                        } else if (authzSysId == null && isUnqualified(reader, AUTHORIZATION_SYSTEM_IDENTIFIER)) {
+                            authzSysId = readText(reader);
+                            depth--;
+                        } else if (loginName == null && isUnqualified(reader, USER_LOGIN_NAME)) {
+                            loginName = readText(reader);
+                            depth--;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == rolesDepth) {
+                        rolesDepth = -1;
+                    } else if (depth == identityDepth) {
+                        identityDepth = -1;
+                    }
+                    depth--;
+                }
+                if (!reader.hasNext()) {
+                    break;
+                }
+            }
+            logger.debug("Parsed {} role values", roles.size());
+            UserIdentityDto userIdentity = new UserIdentityDto(orEmpty(authSysId), orEmpty(authzSysId), orEmpty(loginName));
+            return new UserRolesResponseDto(roles, userIdentity);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Streams the users to the consumer as they are read; nothing is collected
+     */
+    @Override
+    public long parseUsers(Source source, Consumer<String> userConsumer) throws Exception {
+        long count = parseListValues(source, USERS, userConsumer);
+        logger.debug("Parsed {} user values", count);
+        return count;
+    }
+
+    /**
+     * Passes the ListValue children of the first {@code listName} element to the consumer
+     */
+    private long parseListValues(Source source, String listName, Consumer<String> consumer) throws XMLStreamException {
+        XMLStreamReader reader = createReader(source);
+        try {
+            long count = 0;
+            int depth = 0;
+            int listDepth = -1;
+            for (int event = reader.getEventType(); ; event = reader.next()) {
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (listDepth < 0 && isQualified(reader, listName)) {
+                        listDepth = depth;
+                    } else if (depth == listDepth + 1 && isQualified(reader, LIST_VALUE)) {
+                        consumer.accept(readText(reader));
+                        count++;
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == listDepth) {
+                        listDepth = -1;
+                    }
+                    depth--;
+                }
+                if (!reader.hasNext()) {
+                    break;
+                }
+            }
+            return count;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private XMLStreamReader createReader(Source source) throws XMLStreamException {
+        if (source instanceof DOMSource) {
+            return new DOMStreamReader(((DOMSource) source).getNode());
+        }
+        return inputFactory.createXMLStreamReader(source);
+    }
+
+    /**
+     * Reads the text content of the current element and leaves the reader on its END_ELEMENT.
+     * Used instead of getElementText(), which DOMStreamReader does not implement.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        String first = null;
+        StringBuilder text = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (first == null) {
+                        first = reader.getText();
+                    } else {
+                        if (text == null) {
+                            text = new StringBuilder(first);
+                        }
+                        text.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (text != null) {
+            return text.toString();
+        }
+        return first != null ? first : "";
+    }
+
+    private static boolean isQualified(XMLStreamReader reader, String localName) {
+        return localName.equals(reader.getLocalName()) && NAMESPACE_URI.equals(reader.getNamespaceURI());
+    }
+
+    private static boolean isUnqualified(XMLStreamReader reader, String localName) {
+        String namespaceUri = reader.getNamespaceURI();
+        return localName.equals(reader.getLocalName()) && (namespaceUri == null || namespaceUri.isEmpty());
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.ws.FaultAwareWebServiceMessage;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.WebServiceMessageFactory;
+import org.springframework.ws.transport.HeadersAwareSenderWebServiceConnection;
+import org.springframework.ws.transport.TransportOutputStream;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Message factory that keeps SOAP payloads as bytes between the HTTP transport and the parsers.
+ * <p>
+ * Requests are {@link PooledRequestMessage}s: the payload is written as UTF-8 into a pooled buffer
+ * and wrapped in a fixed SOAP 1.1 envelope when sent, so no SAAJ message or request DOM is built.
+ * A successful response read from a transport stream is not parsed into a SAAJ message either; its
+ * payload source is the raw envelope stream, which a StAX parser consumes as it arrives. The stream
+ * can be read once and only while the connection is open. A charset in the response Content-Type
+ * takes precedence over the XML declaration: other than UTF-8, the stream is decoded with it; a
+ * Content-Type that cannot be parsed leaves the response to the delegate factory.
+ * <p>
+ * Error responses come from the delegate factory, so SOAP faults are still recognised and surface
+ * as {@code SoapFaultClientException}; so do responses while received-message tracing is on, since
+ * {@code WebServiceTemplate}'s tracer reads the message before the caller does. Callers that send
+ * outside {@code WebServiceTemplate} are not traced and use {@link #streaming}, which always
+ * streams; they must expose their connection through {@link TransportContextHolder}.
+ */
+public class StreamingMessageFactory implements WebServiceMessageFactory {
+
+    private static final Logger receivedTracingLogger =
+            LoggerFactory.getLogger("org.springframework.ws.client.MessageTracing.received");
+
+    private static final String CONTENT_TYPE = "text/xml; charset=utf-8";
+    private static final byte[] ENVELOPE_START = ("<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<SOAP-ENV:Header/><SOAP-ENV:Body>").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENVELOPE_END = "</SOAP-ENV:Body></SOAP-ENV:Envelope>".getBytes(StandardCharsets.UTF_8);
+
+    private final WebServiceMessageFactory delegate;
+    private final BufferPool bufferPool;
+    private final boolean traced;
+
+    public StreamingMessageFactory(WebServiceMessageFactory delegate, BufferPool bufferPool) {
+        this(delegate, bufferPool, true);
+    }
+
+    private StreamingMessageFactory(WebServiceMessageFactory delegate, BufferPool bufferPool, boolean traced) {
+        this.delegate = delegate;
+        this.bufferPool = bufferPool;
+        this.traced = traced;
+    }
+
+    /**
+     * Streaming factory for responses read outside {@code WebServiceTemplate}: the same delegate and
+     * buffers as {@code messageFactory} if it already streams, but never falls back to the delegate
+     * for tracing
+     */
+    static StreamingMessageFactory streaming(WebServiceMessageFactory messageFactory) {
+        if (messageFactory instanceof StreamingMessageFactory) {
+            StreamingMessageFactory streaming = (StreamingMessageFactory) messageFactory;
+            return streaming.traced
+                    ? new StreamingMessageFactory(streaming.delegate, streaming.bufferPool, false)
+                    : streaming;
+        }
+        return new StreamingMessageFactory(messageFactory, BufferPool.withDefaults(), false);
+    }
+
+    @Override
+    public WebServiceMessage createWebServiceMessage() {
+        return new PooledRequestMessage(bufferPool.acquire());
+    }
+
+    @Override
+    public WebServiceMessage createWebServiceMessage(InputStream inputStream) throws IOException {
+        TransportContext context = TransportContextHolder.getTransportContext();
+        WebServiceConnection connection = context != null ? context.getConnection() : null;
+        if ((connection != null && connection.hasError()) || (traced && receivedTracingLogger.isTraceEnabled())) {
+            return delegate.createWebServiceMessage(inputStream);
+        }
+        Charset charset;
+        try {
+            charset = responseCharset(connection);
+        } catch (InvalidMimeTypeException e) {
+            return delegate.createWebServiceMessage(inputStream);
+        }
+        return new StreamingResponseMessage(inputStream, charset);
+    }
+
+    /**
+     * Charset of the response Content-Type, or null when the header names none
+     *
+     * @throws InvalidMimeTypeException for a malformed header or an unsupported charset
+     */
+    private static Charset responseCharset(WebServiceConnection connection) throws IOException {
+        if (!(connection instanceof HeadersAwareSenderWebServiceConnection)) {
+            return null;
+        }
+        Iterator<String> contentTypes =
+                ((HeadersAwareSenderWebServiceConnection) connection).getResponseHeaders("Content-Type");
+        if (contentTypes == null || !contentTypes.hasNext()) {
+            return null;
+        }
+        MimeType contentType = MimeTypeUtils.parseMimeType(contentTypes.next());
+        return contentType.getCharset();
+    }
+
+    /**
+     * Returns the request buffer of a message from this factory to its pool; other messages are ignored
+     */
+    static void release(WebServiceMessage message) {
+        if (message instanceof PooledRequestMessage) {
+            ((PooledRequestMessage) message).buffer.release();
+        }
+    }
+
+    /**
+     * Outbound SOAP 1.1 message whose payload lives in a pooled buffer. Written as many times as
+     * needed (tracing, retries) until {@link #release} is called.
+     * <p>
+     * Fault-aware because {@code WebServiceTemplate} only reads an HTTP 500 response as a possible
+     * SOAP fault when the request is; a request itself never carries one.
+     */
+    static final class PooledRequestMessage implements FaultAwareWebServiceMessage {
+        private final BufferPool.PooledBuffer buffer;
+
+        PooledRequestMessage(BufferPool.PooledBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Source getPayloadSource() {
+            return new StreamSource(buffer.inputStream());
+        }
+
+        /**
+         * UTF-8 byte stream for the payload; replaces anything written before
+         */
+        @Override
+        public Result getPayloadResult() {
+            buffer.reset();
+            return new StreamResult(buffer);
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            if (outputStream instanceof TransportOutputStream) {
+                TransportOutputStream transportOutputStream = (TransportOutputStream) outputStream;
+                transportOutputStream.addHeader("Content-Type", CONTENT_TYPE);
+                transportOutputStream.addHeader("SOAPAction", "\"\"");
+            }
+            outputStream.write(ENVELOPE_START);
+            buffer.writeTo(outputStream);
+            outputStream.write(ENVELOPE_END);
+        }
+
+        @Override
+        public boolean hasFault() {
+            return false;
+        }
+
+        @Override
+        public QName getFaultCode() {
+            return null;
+        }
+
+        @Override
+        public String getFaultReason() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "PooledRequestMessage";
+        }
+    }
+
+    /**
+     * Read-once view of a response envelope
+     */
+    static final class StreamingResponseMessage implements WebServiceMessage {
+        private final InputStream inputStream;
+        private final Charset charset;
+        private boolean consumed;
+
+        /**
+         * @param charset charset from the Content-Type, or null to let the parser detect it
+         */
+        StreamingResponseMessage(InputStream inputStream, Charset charset) {
+            this.inputStream = inputStream;
+            this.charset = charset;
+        }
+
+        /**
+         * The whole envelope; payload parsers locate their elements inside it. UTF-8 (the usual
+         * case) stays a byte stream for the parser to decode; other charsets are decoded here.
+         */
+        @Override
+        public synchronized Source getPayloadSource() {
+            checkNotConsumed();
+            if (charset == null || StandardCharsets.UTF_8.equals(charset)) {
+                return new StreamSource(inputStream);
+            }
+            return new StreamSource(new InputStreamReader(inputStream, charset));
+        }
+
+        @Override
+        public Result getPayloadResult() {
+            throw new UnsupportedOperationException("Streaming response messages are read-only");
+        }
+
+        @Override
+        public synchronized void writeTo(OutputStream outputStream) throws IOException {
+            checkNotConsumed();
+            inputStream.transferTo(outputStream);
+        }
+
+        private void checkNotConsumed() {
+            if (consumed) {
+                throw new IllegalStateException("Streaming response has already been read");
+            }
+            consumed = true;
+        }
+
+        @Override
+        public String toString() {
+            return "StreamingResponseMessage";
+        }
+    }
+}
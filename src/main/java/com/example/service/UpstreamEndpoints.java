@@ -0,0 +1,326 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side load balancing across the replicas of the upstream service.
+ * <p>
+ * Each call goes to the better of two randomly chosen available replicas (power of two choices),
+ * where a replica's cost is its smoothed latency times its outstanding calls plus one, so a slow
+ * replica sheds load to the others instead of setting everyone's latency. With
+ * {@code strategy=least-outstanding} the replica with the fewest outstanding calls wins instead.
+ * <p>
+ * Every replica has its own {@link CircuitBreaker} over its error rate: a replica failing too often
+ * is ejected for the ejection duration and then takes a few trial calls before it is reinstated.
+ * A failed {@code isHealthy} probe ejects a replica until a later probe passes. If no replica is
+ * available, calls are spread over all of them rather than failing outright.
+ */
+@Component
+public class UpstreamEndpoints {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamEndpoints.class);
+
+    public enum Strategy { P2C, LEAST_OUTSTANDING }
+
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    private final List<Endpoint> endpoints;
+    private final Strategy strategy;
+    private final long latencyDecayNanos;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public UpstreamEndpoints(@Value("${soap.service.urls:${soap.service.url:http://10.29.60.95:8080/easws/sharedservice/AuthorizationSharedService}}") String[] urls,
+                             @Value("${soap.load-balancing.strategy:p2c}") String strategy,
+                             @Value("${soap.load-balancing.latency-decay:10000}") long latencyDecayMillis,
+                             @Value("${soap.load-balancing.ejection.failure-rate-threshold:50}") double failureRateThreshold,
+                             @Value("${soap.load-balancing.ejection.window-size:20}") int windowSize,
+                             @Value("${soap.load-balancing.ejection.minimum-calls:10}") int minimumCalls,
+                             @Value("${soap.load-balancing.ejection.duration:30000}") long ejectionMillis,
+                             @Value("${soap.load-balancing.ejection.trial-calls:3}") int trialCalls,
+                             MeterRegistry meterRegistry) {
+        this(Arrays.asList(urls), Strategy.valueOf(strategy.trim().toUpperCase().replace('-', '_')),
+                Duration.ofMillis(latencyDecayMillis), failureRateThreshold, windowSize, minimumCalls,
+                Duration.ofMillis(ejectionMillis), trialCalls, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamEndpoints(List<String> urls, Strategy strategy, Duration latencyDecay, double failureRateThreshold,
+                      int windowSize, int minimumCalls, Duration ejection, int trialCalls,
+                      MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank()) {
+                // Slow calls are the balancer's business, not the ejection's
+                CircuitBreaker breaker = new CircuitBreaker(failureRateThreshold, windowSize, minimumCalls,
+                        ejection, Duration.ofNanos(Long.MAX_VALUE), trialCalls, nanoTime);
+                endpoints.add(new Endpoint(url.trim(), breaker, meterRegistry));
+            }
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one SOAP service URL is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.strategy = strategy;
+        this.latencyDecayNanos = latencyDecay.toNanos();
+        this.nanoTime = nanoTime;
+        logger.info("Balancing SOAP calls over {} endpoint(s) with {}", endpoints.size(), strategy);
+    }
+
+    /**
+     * A single endpoint with default settings, for clients built outside the container
+     */
+    static UpstreamEndpoints single(String url) {
+        return new UpstreamEndpoints(List.of(url), Strategy.P2C, Duration.ofSeconds(10), 50, 20, 10,
+                Duration.ofSeconds(30), 3, new SimpleMeterRegistry(), System::nanoTime);
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Picks the replica for the next call
+     */
+    public Lease select() {
+        if (endpoints.size() == 1) {
+            return lease(endpoints.get(0));
+        }
+        List<Endpoint> available = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable()) {
+                available.add(endpoint);
+            }
+        }
+        if (available.isEmpty()) {
+            // Panic mode: everything is ejected, so ejection no longer tells replicas apart
+            return new Lease(leastCostly(endpoints), false, nanoTime.getAsLong());
+        }
+
+        Endpoint first;
+        Endpoint second = null;
+        if (strategy == Strategy.LEAST_OUTSTANDING || available.size() == 1) {
+            first = leastCostly(available);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int i = random.nextInt(available.size());
+            int j = random.nextInt(available.size() - 1);
+            Endpoint a = available.get(i);
+            Endpoint b = available.get(j >= i ? j + 1 : j);
+            boolean aFirst = cost(a) <= cost(b);
+            first = aFirst ? a : b;
+            second = aFirst ? b : a;
+        }
+        // Trial calls of a reinstating replica are limited; take the other choice when they run out
+        if (first.breaker.tryAcquire()) {
+            return new Lease(first, true, nanoTime.getAsLong());
+        }
+        if (second != null && second.breaker.tryAcquire()) {
+            return new Lease(second, true, nanoTime.getAsLong());
+        }
+        for (Endpoint endpoint : available) {
+            if (endpoint != first && endpoint != second && endpoint.breaker.tryAcquire()) {
+                return new Lease(endpoint, true, nanoTime.getAsLong());
+            }
+        }
+        return new Lease(first, false, nanoTime.getAsLong());
+    }
+
+    /**
+     * Leases a specific replica, e.g. for its health probe
+     */
+    public Lease lease(Endpoint endpoint) {
+        return new Lease(endpoint, endpoint.breaker.tryAcquire(), nanoTime.getAsLong());
+    }
+
+    /**
+     * Records the outcome of an {@code isHealthy} probe of a replica
+     */
+    public void onProbe(Endpoint endpoint, boolean healthy) {
+        if (endpoint.probeHealthy != healthy) {
+            logger.info("SOAP endpoint {} {} by health probe", endpoint.url, healthy ? "reinstated" : "ejected");
+            if (!healthy) {
+                endpoint.ejections.increment();
+            }
+        }
+        endpoint.probeHealthy = healthy;
+    }
+
+    public List<EndpointStatsDto> getStats() {
+        List<EndpointStatsDto> stats = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            stats.add(new EndpointStatsDto(endpoint.url, endpoint.isAvailable(), endpoint.probeHealthy,
+                    endpoint.breaker.getState().name(), endpoint.inFlight.get(),
+                    endpoint.latencyNanos / 1_000_000.0, (long) endpoint.successTimer.count(),
+                    (long) endpoint.failureTimer.count(), (long) endpoint.ejections.count()));
+        }
+        return stats;
+    }
+
+    /**
+     * Scans from a random offset so ties do not all land on the first replica
+     */
+    private Endpoint leastCostly(List<Endpoint> candidates) {
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        Endpoint best = candidates.get(offset);
+        for (int i = 1; i < candidates.size(); i++) {
+            Endpoint candidate = candidates.get((offset + i) % candidates.size());
+            if (strategy == Strategy.LEAST_OUTSTANDING
+                    ? candidate.inFlight.get() < best.inFlight.get()
+                    : cost(candidate) < cost(best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Smoothed latency times (outstanding + 1). A replica without recent samples costs nothing,
+     * so one that was slow a while ago gets traffic again and its latency is re-measured.
+     */
+    private double cost(Endpoint endpoint) {
+        long now = nanoTime.getAsLong();
+        double latency = now - endpoint.lastSampleNanos > latencyDecayNanos ? 0 : endpoint.latencyNanos;
+        return latency * (endpoint.inFlight.get() + 1);
+    }
+
+    /**
+     * One replica of the upstream service
+     */
+    public static final class Endpoint {
+        private final String url;
+        private final CircuitBreaker breaker;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private final Counter ejections;
+        private volatile boolean probeHealthy = true;
+        private volatile double latencyNanos;
+        private volatile long lastSampleNanos = Long.MIN_VALUE / 2;
+        private CircuitBreaker.State lastState = CircuitBreaker.State.CLOSED;
+
+        private Endpoint(String url, CircuitBreaker breaker, MeterRegistry registry) {
+            this.url = url;
+            this.breaker = breaker;
+            this.successTimer = requestTimer(registry, url, SoapClientMetrics.OUTCOME_SUCCESS);
+            this.failureTimer = requestTimer(registry, url, SoapClientMetrics.OUTCOME_ERROR);
+            this.ejections = Counter.builder("soap.client.endpoint.ejections")
+                    .description("Times an upstream replica was ejected")
+                    .tag("endpoint", url)
+                    .register(registry);
+            Gauge.builder("soap.client.endpoint.in-flight", inFlight, AtomicInteger::get)
+                    .description("Outstanding calls to an upstream replica")
+                    .tag("endpoint", url)
+                    .register(registry);
+            Gauge.builder("soap.client.endpoint.available", this, e -> e.isAvailable() ? 1 : 0)
+                    .description("Whether an upstream replica takes calls (1) or is ejected (0)")
+                    .tag("endpoint", url)
+                    .register(registry);
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        boolean isAvailable() {
+            return probeHealthy && breaker.getState() != CircuitBreaker.State.OPEN;
+        }
+
+        private synchronized void recordOutcome(boolean admitted, boolean failure, long durationNanos) {
+            if (!admitted) {
+                return;
+            }
+            if (failure) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess(durationNanos);
+            }
+            CircuitBreaker.State state = breaker.getState();
+            if (state == CircuitBreaker.State.OPEN && lastState != CircuitBreaker.State.OPEN) {
+                ejections.increment();
+                logger.warn("SOAP endpoint {} ejected after too many failures", url);
+            } else if (state == CircuitBreaker.State.CLOSED && lastState != CircuitBreaker.State.CLOSED) {
+                logger.info("SOAP endpoint {} reinstated", url);
+            }
+            lastState = state;
+        }
+
+        private void recordLatency(long durationNanos, long now) {
+            double previous = latencyNanos;
+            latencyNanos = previous == 0 ? durationNanos
+                    : previous + LATENCY_SMOOTHING * (durationNanos - previous);
+            lastSampleNanos = now;
+        }
+
+        private static Timer requestTimer(MeterRegistry registry, String url, String outcome) {
+            return Timer.builder("soap.client.endpoint.requests")
+                    .description("Calls to an upstream replica")
+                    .tag("endpoint", url)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * One call in flight to a replica; complete it exactly once
+     */
+    public final class Lease {
+        private final Endpoint endpoint;
+        private final boolean admitted;
+        private final long start;
+
+        private Lease(Endpoint endpoint, boolean admitted, long start) {
+            this.endpoint = endpoint;
+            this.admitted = admitted;
+            this.start = start;
+            endpoint.inFlight.incrementAndGet();
+        }
+
+        public String getUrl() {
+            return endpoint.url;
+        }
+
+        public void onSuccess() {
+            long now = nanoTime.getAsLong();
+            long duration = now - start;
+            endpoint.inFlight.decrementAndGet();
+            endpoint.recordLatency(duration, now);
+            endpoint.successTimer.record(duration, TimeUnit.NANOSECONDS);
+            endpoint.recordOutcome(admitted, false, duration);
+        }
+
+        public void onFailure() {
+            long duration = nanoTime.getAsLong() - start;
+            endpoint.inFlight.decrementAndGet();
+            endpoint.failureTimer.record(duration, TimeUnit.NANOSECONDS);
+            endpoint.recordOutcome(admitted, true, duration);
+        }
+
+        /**
+         * Nothing was sent; gives back the replica's trial call without recording an outcome
+         */
+        public void onIgnore() {
+            endpoint.inFlight.decrementAndGet();
+            if (admitted) {
+                endpoint.breaker.onIgnore();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for upstream SOAP calls: a {@link CircuitBreaker} that fails fast while the
+ * upstream is unhealthy, followed by an {@link AdaptiveConcurrencyLimiter} that bounds how many
+ * calls wait on it at once. Rejected calls throw {@link SoapCallRejectedException} immediately,
+ * so request threads are not tied up behind a slow upstream.
+ */
+@Component
+public class UpstreamGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    private static final Permit UNGUARDED = new Permit(null, 0) {
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onFailure() {
+        }
+
+        @Override
+        public void onIgnore() {
+        }
+    };
+
+    private final boolean enabled;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongAdder rejectedCircuitOpen = new LongAdder();
+    private final LongAdder rejectedConcurrencyLimit = new LongAdder();
+
+    @Autowired
+    public UpstreamGuard(@Value("${soap.resilience.enabled:true}") boolean enabled,
+                         @Value("${soap.resilience.limit.initial:20}") int initialLimit,
+                         @Value("${soap.resilience.limit.min:2}") int minLimit,
+                         @Value("${soap.resilience.limit.max:100}") int maxLimit,
+                         @Value("${soap.resilience.breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                         @Value("${soap.resilience.breaker.window-size:50}") int windowSize,
+                         @Value("${soap.resilience.breaker.minimum-calls:20}") int minimumCalls,
+                         @Value("${soap.resilience.breaker.open-duration:10000}") long openMillis,
+                         @Value("${soap.resilience.breaker.slow-call-threshold:5000}") long slowCallMillis,
+                         @Value("${soap.resilience.breaker.half-open-calls:5}") int halfOpenCalls) {
+        this(enabled,
+                new CircuitBreaker(failureRateThreshold, windowSize, minimumCalls, Duration.ofMillis(openMillis),
+                        Duration.ofMillis(slowCallMillis), halfOpenCalls, System::nanoTime),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit));
+    }
+
+    UpstreamGuard(boolean enabled, CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter) {
+        this.enabled = enabled;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+    }
+
+    /**
+     * A guard that admits every call
+     */
+    static UpstreamGuard disabled() {
+        return new UpstreamGuard(false, null, null);
+    }
+
+    /**
+     * Permit for a call that bypasses the guard (e.g. health probes, which must reach the
+     * upstream while the breaker is open)
+     */
+    static Permit unguarded() {
+        return UNGUARDED;
+    }
+
+    /**
+     * Admits one call; the returned permit must be completed exactly once
+     *
+     * @throws SoapCallRejectedException when the breaker is open or the limit is reached
+     */
+    public Permit acquire() {
+        if (!enabled) {
+            return UNGUARDED;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCircuitOpen.increment();
+            throw new SoapCallRejectedException(SoapCallRejectedException.Reason.CIRCUIT_OPEN);
+        }
+        if (!limiter.tryAcquire()) {
+            circuitBreaker.onIgnore();
+            rejectedConcurrencyLimit.increment();
+            logger.debug("SOAP concurrency limit {} reached", limiter.getLimit());
+            throw new SoapCallRejectedException(SoapCallRejectedException.Reason.CONCURRENCY_LIMIT);
+        }
+        return new Permit(this, System.nanoTime());
+    }
+
+    /**
+     * Whether {@link #acquire} would admit a call right now. Only a hint: a call may still be
+     * rejected, but callers that cannot report a rejection later (e.g. once a streamed response
+     * has started) can fail fast with it.
+     */
+    public boolean isAdmitting() {
+        if (!enabled) {
+            return true;
+        }
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN
+                && limiter.getInFlight() < limiter.getLimit();
+    }
+
+    public ResilienceStatsDto getStats() {
+        if (!enabled) {
+            return new ResilienceStatsDto(false, null, 0, 0, 0, 0);
+        }
+        return new ResilienceStatsDto(
+                true,
+                circuitBreaker.getState().name(),
+                limiter.getLimit(),
+                limiter.getInFlight(),
+                rejectedCircuitOpen.sum(),
+                rejectedConcurrencyLimit.sum());
+    }
+
+    /**
+     * One admitted call
+     */
+    public static class Permit {
+        private final UpstreamGuard guard;
+        private final long startNanos;
+
+        private Permit(UpstreamGuard guard, long startNanos) {
+            this.guard = guard;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * The upstream answered (including SOAP faults, which show it is alive)
+         */
+        public void onSuccess() {
+            long duration = System.nanoTime() - startNanos;
+            guard.limiter.onSuccess(duration);
+            guard.circuitBreaker.onSuccess(duration);
+        }
+
+        /**
+         * Transport error or timeout
+         */
+        public void onFailure() {
+            guard.limiter.onDropped();
+            guard.circuitBreaker.onFailure();
+        }
+
+        /**
+         * The call failed before reaching the upstream
+         */
+        public void onIgnore() {
+            guard.limiter.onIgnore();
+            guard.circuitBreaker.onIgnore();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process cache in front of {@link AuthorizationSoapClient#findMatchingUserIdentity}.
+ * <p>
+ * Backed by Caffeine (W-TinyLFU eviction, so frequently used IDs survive scans of one-off IDs).
+ * Identities that the upstream does not know (all fields blank) are cached as negative entries
+ * with their own, shorter TTL. Failed lookups are not cached. Cached DTOs are shared between
+ * callers and must not be modified.
+ * <p>
+ * A miss checks the {@link DiskCacheTier} before going upstream, and upstream results are written
+ * through to it, so identities fetched before a restart are served without a new lookup. Identities
+ * read from disk keep their age: they expire when they would have had they stayed in memory.
+ */
+@Service
+public class UserIdentityCache implements RefreshAheadTarget<String> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityCache.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final DiskCacheTier diskTier;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, UserIdentityDto> cache;
+    private final AccessTracker<String> accessTracker = new AccessTracker<>(AccessTracker.DEFAULT_MAX_KEYS);
+    // Age of identities just loaded from disk, handed from the loader to the expiry
+    private final ConcurrentMap<String, Long> diskAgeNanos = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserIdentityCache(AuthorizationSoapClient authorizationSoapClient, DiskCacheTier diskTier,
+                             @Value("${soap.cache.identity.enabled:true}") boolean enabled,
+                             @Value("${soap.cache.identity.ttl:3600000}") long ttlMillis,
+                             @Value("${soap.cache.identity.negative-ttl:60000}") long negativeTtlMillis,
+                             @Value("${soap.cache.identity.max-size:100000}") long maxSize) {
+        this(authorizationSoapClient, diskTier, enabled, Duration.ofMillis(ttlMillis),
+                Duration.ofMillis(negativeTtlMillis), maxSize, Ticker.systemTicker());
+    }
+
+    UserIdentityCache(AuthorizationSoapClient authorizationSoapClient, boolean enabled, Duration ttl,
+                      Duration negativeTtl, long maxSize, Ticker ticker) {
+        this(authorizationSoapClient, DiskCacheTier.disabled(), enabled, ttl, negativeTtl, maxSize, ticker);
+    }
+
+    UserIdentityCache(AuthorizationSoapClient authorizationSoapClient, DiskCacheTier diskTier, boolean enabled,
+                      Duration ttl, Duration negativeTtl, long maxSize, Ticker ticker) {
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.diskTier = diskTier;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new IdentityExpiry(ttl.toNanos(), negativeTtl.toNanos(), diskAgeNanos))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached equivalent of {@link AuthorizationSoapClient#findMatchingUserIdentity}
+     */
+    public UserIdentityDto findMatchingUserIdentity(String usdaEauthId) {
+        if (!enabled) {
+            return authorizationSoapClient.findMatchingUserIdentity(usdaEauthId);
+        }
+        accessTracker.record(usdaEauthId);
+        return cache.get(usdaEauthId, this::load);
+    }
+
+    /**
+     * Drops the cached identity so the next lookup goes upstream
+     */
+    public void invalidate(String usdaEauthId) {
+        cache.invalidate(usdaEauthId);
+        diskTier.invalidateIdentity(usdaEauthId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        diskTier.invalidateAll();
+        logger.debug("Identity cache cleared");
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadFailureCount(),
+                stats.evictionCount());
+    }
+
+    @Override
+    public String name() {
+        return "identity";
+    }
+
+    @Override
+    public AccessTracker<String> accessTracker() {
+        return accessTracker;
+    }
+
+    /**
+     * Time left of a positive entry; unknown IDs are left to expire
+     */
+    @Override
+    public Duration timeToStale(String usdaEauthId) {
+        if (!enabled || isUnknown(cache.policy().getIfPresentQuietly(usdaEauthId))) {
+            return null;
+        }
+        return cache.policy().expireVariably()
+                .flatMap(expiry -> expiry.getExpiresAfter(usdaEauthId))
+                .orElse(null);
+    }
+
+    @Override
+    public void refreshAhead(String usdaEauthId) {
+        UserIdentityDto identity = authorizationSoapClient.findMatchingUserIdentity(usdaEauthId);
+        diskTier.putIdentity(usdaEauthId, identity);
+        if (identity != null) {
+            cache.put(usdaEauthId, identity);
+        }
+    }
+
+    private UserIdentityDto load(String usdaEauthId) {
+        DiskCacheTier.Stored<UserIdentityDto> stored = diskTier.getIdentity(usdaEauthId, ttl);
+        if (stored != null && stored.value() != null) {
+            diskAgeNanos.put(usdaEauthId, TimeUnit.MILLISECONDS.toNanos(stored.ageMillis()));
+            return stored.value();
+        }
+        UserIdentityDto identity = authorizationSoapClient.findMatchingUserIdentity(usdaEauthId);
+        diskTier.putIdentity(usdaEauthId, identity);
+        return identity;
+    }
+
+    /**
+     * An identity the upstream could not match comes back with every field blank
+     */
+    static boolean isUnknown(UserIdentityDto identity) {
+        return identity == null
+                || (isBlank(identity.getAuthenticationSystemIdentifier())
+                    && isBlank(identity.getAuthorizationSystemIdentifier())
+                    && isBlank(identity.getUserLoginName()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Positive entries live for the TTL, unknown IDs for the negative TTL; reads do not extend either.
+     * Entries loaded from disk only live for what is left of the TTL.
+     */
+    private static final class IdentityExpiry implements Expiry<String, UserIdentityDto> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+        private final ConcurrentMap<String, Long> diskAgeNanos;
+
+        IdentityExpiry(long ttlNanos, long negativeTtlNanos, ConcurrentMap<String, Long> diskAgeNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+            this.diskAgeNanos = diskAgeNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, UserIdentityDto value, long currentTime) {
+            Long age = diskAgeNanos.remove(key);
+            long lifetime = isUnknown(value) ? negativeTtlNanos : ttlNanos;
+            return age == null ? lifetime : Math.max(0, lifetime - age);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, UserIdentityDto value, long currentTime, long currentDuration) {
+            return isUnknown(value) ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, UserIdentityDto value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.service;
+
+/**
+ * Value key for a user identity triple (authentication system ID, authorization system ID, login name)
+ */
+public record UserIdentityKey(String authenticationSystemIdentifier,
+                              String authorizationSystemIdentifier,
+                              String userLoginName) {
+
+    public static UserIdentityKey of(UserIdentityDto userIdentity) {
+        return new UserIdentityKey(
+                userIdentity.getAuthenticationSystemIdentifier(),
+                userIdentity.getAuthorizationSystemIdentifier(),
+                userIdentity.getUserLoginName());
+    }
+
+    public UserIdentityDto toDto() {
+        return new UserIdentityDto(authenticationSystemIdentifier, authorizationSystemIdentifier, userLoginName);
+    }
+}
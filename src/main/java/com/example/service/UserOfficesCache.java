@@ -0,0 +1,117 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded in-process cache in front of {@link AuthorizationSoapClient#findOfficesByEauthId},
+ * keyed by eauth ID and office type. Entries live for a fixed TTL; failed lookups are not cached.
+ * Cached lists are shared between callers and must not be modified.
+ */
+@Service
+public class UserOfficesCache implements RefreshAheadTarget<UserOfficesCache.OfficesKey> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOfficesCache.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<OfficesKey, List<String>> cache;
+    private final AccessTracker<OfficesKey> accessTracker;
+
+    @Autowired
+    public UserOfficesCache(AuthorizationSoapClient authorizationSoapClient,
+                            @Value("${soap.cache.offices.enabled:true}") boolean enabled,
+                            @Value("${soap.cache.offices.ttl:600000}") long ttlMillis,
+                            @Value("${soap.cache.offices.max-size:100000}") long maxSize) {
+        this(authorizationSoapClient, enabled, Duration.ofMillis(ttlMillis), maxSize, Ticker.systemTicker());
+    }
+
+    UserOfficesCache(AuthorizationSoapClient authorizationSoapClient, boolean enabled, Duration ttl,
+                     long maxSize, Ticker ticker) {
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.accessTracker = new AccessTracker<>(AccessTracker.DEFAULT_MAX_KEYS);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached equivalent of {@link AuthorizationSoapClient#findOfficesByEauthId}
+     */
+    public List<String> findOfficesByEauthId(String usdaEauthId, String officeType) {
+        if (!enabled) {
+            return authorizationSoapClient.findOfficesByEauthId(usdaEauthId, officeType);
+        }
+        OfficesKey key = new OfficesKey(usdaEauthId, officeType);
+        accessTracker.record(key);
+        return cache.get(key, this::fetch);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        logger.debug("Offices cache cleared");
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadFailureCount(),
+                stats.evictionCount());
+    }
+
+    @Override
+    public String name() {
+        return "offices";
+    }
+
+    @Override
+    public AccessTracker<OfficesKey> accessTracker() {
+        return accessTracker;
+    }
+
+    @Override
+    public Duration timeToStale(OfficesKey key) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiry -> expiry.ageOf(key))
+                .map(ttl::minus)
+                .orElse(null);
+    }
+
+    @Override
+    public void refreshAhead(OfficesKey key) {
+        List<String> offices = fetch(key);
+        if (offices != null) {
+            cache.put(key, offices);
+        }
+    }
+
+    private List<String> fetch(OfficesKey key) {
+        return authorizationSoapClient.findOfficesByEauthId(key.usdaEauthId(), key.officeType());
+    }
+
+    public record OfficesKey(String usdaEauthId, String officeType) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated profile: identity, roles and offices per office type for one eauth ID
+ */
+public class UserProfileDto {
+    private String eauthId;
+    private UserIdentityDto userIdentity;
+    private List<String> userRoles;
+    private Map<String, List<String>> offices;
+    private Map<String, String> errors;
+
+    // Constructors
+    public UserProfileDto() {}
+
+    public UserProfileDto(String eauthId, UserIdentityDto userIdentity, List<String> userRoles,
+                          Map<String, List<String>> offices, Map<String, String> errors) {
+        this.eauthId = eauthId;
+        this.userIdentity = userIdentity;
+        this.userRoles = userRoles;
+        this.offices = offices;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public String getEauthId() {
+        return eauthId;
+    }
+
+    public void setEauthId(String eauthId) {
+        this.eauthId = eauthId;
+    }
+
+    public UserIdentityDto getUserIdentity() {
+        return userIdentity;
+    }
+
+    public void setUserIdentity(UserIdentityDto userIdentity) {
+        this.userIdentity = userIdentity;
+    }
+
+    public List<String> getUserRoles() {
+        return userRoles;
+    }
+
+    public void setUserRoles(List<String> userRoles) {
+        this.userRoles = userRoles;
+    }
+
+    public Map<String, List<String>> getOffices() {
+        return offices;
+    }
+
+    public void setOffices(Map<String, List<String>> offices) {
+        this.offices = offices;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "UserProfileDto{" +
+                "eauthId='" + eauthId + '\'' +
+                ", userIdentity=" + userIdentity +
+                ", userRoles=" + userRoles +
+                ", offices=" + offices +
+                ", errors=" + errors +
+                '}';
+    }
+}
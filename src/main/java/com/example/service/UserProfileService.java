@@ -0,0 +1,90 @@
+package com.example.service;
+
+import com.example.soap.client.OfficeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Builds a {@link UserProfileDto} with every upstream lookup in flight at once.
+ * <p>
+ * The identity -> roles chain runs alongside one office lookup per requested office type, so the
+ * latency is that of the slowest branch rather than the sum. A failed office lookup is reported
+ * in {@link UserProfileDto#getErrors()}; a failed identity lookup fails the whole profile.
+ */
+@Service
+public class UserProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileService.class);
+
+    /**
+     * Every value of the WSDL officeType enumeration
+     */
+    public static final List<String> ALL_OFFICE_TYPES = Arrays.stream(OfficeType.values())
+            .map(OfficeType::value)
+            .toList();
+
+    private final AsyncAuthorizationSoapClient asyncSoapClient;
+    private final UserIdentityCache userIdentityCache;
+    private final UserRolesCache userRolesCache;
+    private final UserOfficesCache userOfficesCache;
+
+    @Autowired
+    public UserProfileService(AsyncAuthorizationSoapClient asyncSoapClient, UserIdentityCache userIdentityCache,
+                              UserRolesCache userRolesCache, UserOfficesCache userOfficesCache) {
+        this.asyncSoapClient = asyncSoapClient;
+        this.userIdentityCache = userIdentityCache;
+        this.userRolesCache = userRolesCache;
+        this.userOfficesCache = userOfficesCache;
+    }
+
+    public CompletableFuture<UserProfileDto> getProfileAsync(String eauthId, List<String> officeTypes) {
+        CompletableFuture<UserIdentityDto> identityFuture =
+                asyncSoapClient.supplyAsync(() -> userIdentityCache.findMatchingUserIdentity(eauthId));
+        CompletableFuture<UserRolesResponseDto> rolesFuture = identityFuture.thenCompose(
+                identity -> asyncSoapClient.supplyAsync(() -> userRolesCache.getUserRoles(identity)));
+
+        Map<String, CompletableFuture<List<String>>> officeFutures = new LinkedHashMap<>();
+        for (String officeType : officeTypes) {
+            officeFutures.put(officeType, asyncSoapClient.supplyAsync(
+                    () -> userOfficesCache.findOfficesByEauthId(eauthId, officeType)));
+        }
+
+        CompletableFuture<?>[] all = new CompletableFuture<?>[officeFutures.size() + 1];
+        all[0] = rolesFuture;
+        int i = 1;
+        for (CompletableFuture<List<String>> officeFuture : officeFutures.values()) {
+            all[i++] = officeFuture.exceptionally(e -> null);
+        }
+
+        return CompletableFuture.allOf(all)
+                .exceptionally(e -> null)
+                .thenApply(ignored -> {
+                    // Identity and roles are mandatory; join() rethrows their failure
+                    UserIdentityDto identity = identityFuture.join();
+                    UserRolesResponseDto roles = rolesFuture.join();
+
+                    Map<String, List<String>> offices = new LinkedHashMap<>();
+                    Map<String, String> errors = new LinkedHashMap<>();
+                    officeFutures.forEach((officeType, officeFuture) -> {
+                        try {
+                            offices.put(officeType, officeFuture.join());
+                        } catch (CompletionException e) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            logger.warn("Office lookup failed for eauth ID: {} and office type: {}", eauthId, officeType, cause);
+                            errors.put("offices." + officeType, String.valueOf(cause.getMessage()));
+                        }
+                    });
+
+                    return new UserProfileDto(eauthId, identity, roles.getUserRoles(), offices, errors);
+                });
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, compact role set of one user: a bitset over {@link RoleDictionary} IDs.
+ * <p>
+ * {@code hasRole}, {@code hasAnyRole} and {@code hasAllRoles} are a dictionary lookup and a bit test
+ * per role and do not allocate. Conversion to and from {@link UserRolesResponseDto} is lossless:
+ * when the upstream list is not already in dictionary order or repeats a role, the original
+ * sequence of IDs is kept as well, and a {@code null} list stays {@code null}.
+ */
+public final class UserRoleSet {
+
+    private static final long[] NO_WORDS = new long[0];
+
+    private final RoleDictionary dictionary;
+    private final long[] words;
+    private final int[] sequence;
+    private final int count;
+    private final boolean rolesPresent;
+    private final UserIdentityDto userIdentity;
+
+    private UserRoleSet(RoleDictionary dictionary, long[] words, int[] sequence, int count, boolean rolesPresent,
+                        UserIdentityDto userIdentity) {
+        this.dictionary = dictionary;
+        this.words = words;
+        this.sequence = sequence;
+        this.count = count;
+        this.rolesPresent = rolesPresent;
+        this.userIdentity = userIdentity;
+    }
+
+    public static UserRoleSet of(UserRolesResponseDto dto, RoleDictionary dictionary) {
+        List<String> roles = dto.getUserRoles();
+        if (roles == null || roles.isEmpty()) {
+            return new UserRoleSet(dictionary, NO_WORDS, null, 0, roles != null, dto.getUserIdentity());
+        }
+
+        int[] ids = new int[roles.size()];
+        int maxId = 0;
+        boolean ascending = true;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dictionary.intern(roles.get(i));
+            maxId = Math.max(maxId, ids[i]);
+            ascending &= i == 0 || ids[i] > ids[i - 1];
+        }
+        long[] words = new long[(maxId >>> 6) + 1];
+        for (int id : ids) {
+            words[id >>> 6] |= 1L << id;
+        }
+        return new UserRoleSet(dictionary, words, ascending ? null : ids, ids.length, true, dto.getUserIdentity());
+    }
+
+    public boolean hasRole(String role) {
+        return contains(dictionary.idOf(role));
+    }
+
+    public boolean hasAnyRole(String... roles) {
+        for (String role : roles) {
+            if (hasRole(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAllRoles(String... roles) {
+        for (String role : roles) {
+            if (!hasRole(role)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of roles as listed by the upstream, repeats included
+     */
+    public int size() {
+        return count;
+    }
+
+    public UserIdentityDto getUserIdentity() {
+        return userIdentity;
+    }
+
+    /**
+     * Role names in upstream order; the strings are the dictionary's shared instances
+     */
+    public List<String> getRoles() {
+        if (!rolesPresent) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>(count);
+        if (sequence != null) {
+            for (int id : sequence) {
+                roles.add(dictionary.nameOf(id));
+            }
+        } else {
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    roles.add(dictionary.nameOf((w << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+        return Collections.unmodifiableList(roles);
+    }
+
+    public UserRolesResponseDto toDto() {
+        return new UserRolesResponseDto(getRoles(), userIdentity);
+    }
+
+    private boolean contains(int id) {
+        return id >= 0 && (id >>> 6) < words.length && (words[id >>> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "UserRoleSet{" +
+                "userRoles=" + getRoles() +
+                ", userIdentity=" + userIdentity +
+                '}';
+    }
+}
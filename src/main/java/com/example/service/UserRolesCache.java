@@ -0,0 +1,274 @@
+package com.example.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stale-while-revalidate cache for {@link AuthorizationSoapClient#getUserRoles}, keyed by the
+ * identity triple.
+ * <p>
+ * After the soft TTL an entry is still returned immediately, and a single background refresh is
+ * started for that key (Caffeine refreshes at most once per key at a time). Only after the hard
+ * TTL is an entry dropped and the caller waits for the upstream again. Refreshes run on a small
+ * bounded pool; when it is saturated the submission is rejected, the stale entry is kept and a
+ * later read retries the refresh.
+ * <p>
+ * Entries are held as {@link UserRoleSet}s over the shared {@link RoleDictionary}, so cached users
+ * do not each keep their own copies of the role strings, and role checks need no list scan.
+ * <p>
+ * A miss checks the {@link DiskCacheTier} before going upstream and upstream results are written
+ * through to it; background refreshes always go upstream. Roles read from disk keep their age, so
+ * they are dropped at the hard TTL of the original fetch; those already past the soft TTL are served
+ * and refreshed right away, as a stale in-process entry would be.
+ */
+@Service
+public class UserRolesCache implements RefreshAheadTarget<UserIdentityKey> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRolesCache.class);
+
+    private final AuthorizationSoapClient authorizationSoapClient;
+    private final RoleDictionary roleDictionary;
+    private final DiskCacheTier diskTier;
+    private final boolean enabled;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final Executor refreshExecutor;
+    private final LoadingCache<UserIdentityKey, UserRoleSet> cache;
+    private final AccessTracker<UserIdentityKey> accessTracker = new AccessTracker<>(AccessTracker.DEFAULT_MAX_KEYS);
+    // Age of roles just loaded from disk, handed from the loader to the expiry
+    private final ConcurrentMap<UserIdentityKey, Long> diskAgeNanos = new ConcurrentHashMap<>();
+    // Keys loaded from disk past the soft TTL, refreshed once their load has completed
+    private final Set<UserIdentityKey> staleFromDisk = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UserRolesCache(AuthorizationSoapClient authorizationSoapClient, RoleDictionary roleDictionary,
+                          DiskCacheTier diskTier,
+                          @Value("${soap.cache.roles.enabled:true}") boolean enabled,
+                          @Value("${soap.cache.roles.soft-ttl:300000}") long softTtlMillis,
+                          @Value("${soap.cache.roles.hard-ttl:3600000}") long hardTtlMillis,
+                          @Value("${soap.cache.roles.max-size:100000}") long maxSize,
+                          @Value("${soap.cache.roles.refresh-threads:4}") int refreshThreads) {
+        this(authorizationSoapClient, roleDictionary, diskTier, enabled, Duration.ofMillis(softTtlMillis),
+                Duration.ofMillis(hardTtlMillis), maxSize, newRefreshExecutor(refreshThreads), Ticker.systemTicker());
+    }
+
+    UserRolesCache(AuthorizationSoapClient authorizationSoapClient, RoleDictionary roleDictionary,
+                   boolean enabled, Duration softTtl, Duration hardTtl, long maxSize, Executor refreshExecutor,
+                   Ticker ticker) {
+        this(authorizationSoapClient, roleDictionary, DiskCacheTier.disabled(), enabled, softTtl, hardTtl, maxSize,
+                refreshExecutor, ticker);
+    }
+
+    UserRolesCache(AuthorizationSoapClient authorizationSoapClient, RoleDictionary roleDictionary,
+                   DiskCacheTier diskTier, boolean enabled, Duration softTtl, Duration hardTtl, long maxSize,
+                   Executor refreshExecutor, Ticker ticker) {
+        if (hardTtl.compareTo(softTtl) <= 0) {
+            throw new IllegalArgumentException("soap.cache.roles.hard-ttl must be greater than soft-ttl");
+        }
+        this.authorizationSoapClient = authorizationSoapClient;
+        this.roleDictionary = roleDictionary;
+        this.diskTier = diskTier;
+        this.enabled = enabled;
+        this.softTtl = softTtl;
+        this.hardTtl = hardTtl;
+        this.refreshExecutor = refreshExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(softTtl)
+                .expireAfter(new RolesExpiry(hardTtl.toNanos(), diskAgeNanos))
+                .executor(refreshExecutor)
+                .ticker(ticker)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public UserRoleSet load(UserIdentityKey key) {
+                        return loadThroughDisk(key);
+                    }
+
+                    @Override
+                    public UserRoleSet reload(UserIdentityKey key, UserRoleSet oldValue) {
+                        return fetch(key);
+                    }
+                });
+    }
+
+    /**
+     * Cached equivalent of {@link AuthorizationSoapClient#getUserRoles}
+     */
+    public UserRolesResponseDto getUserRoles(UserIdentityDto userIdentity) {
+        if (!enabled) {
+            return authorizationSoapClient.getUserRoles(userIdentity);
+        }
+        return get(UserIdentityKey.of(userIdentity)).toDto();
+    }
+
+    /**
+     * Compact role set of a user, for role checks without materializing the role list
+     */
+    public UserRoleSet getRoleSet(UserIdentityDto userIdentity) {
+        if (!enabled) {
+            return UserRoleSet.of(authorizationSoapClient.getUserRoles(userIdentity), roleDictionary);
+        }
+        return get(UserIdentityKey.of(userIdentity));
+    }
+
+    public void invalidate(UserIdentityDto userIdentity) {
+        UserIdentityKey key = UserIdentityKey.of(userIdentity);
+        cache.invalidate(key);
+        diskTier.invalidateRoles(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        diskTier.invalidateAll();
+        logger.debug("Roles cache cleared");
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadFailureCount(),
+                stats.evictionCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService) {
+            ((ExecutorService) refreshExecutor).shutdownNow();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "roles";
+    }
+
+    @Override
+    public AccessTracker<UserIdentityKey> accessTracker() {
+        return accessTracker;
+    }
+
+    /**
+     * Time left before the soft TTL, after which a read would serve the entry stale
+     */
+    @Override
+    public Duration timeToStale(UserIdentityKey key) {
+        if (!enabled) {
+            return null;
+        }
+        // The soft TTL ends where the hard TTL does, less the time between the two
+        return cache.policy().expireVariably()
+                .flatMap(expiry -> expiry.getExpiresAfter(key))
+                .map(expiresAfter -> expiresAfter.minus(hardTtl.minus(softTtl)))
+                .orElse(null);
+    }
+
+    @Override
+    public void refreshAhead(UserIdentityKey key) {
+        cache.put(key, fetch(key));
+    }
+
+    private UserRoleSet get(UserIdentityKey key) {
+        accessTracker.record(key);
+        UserRoleSet roles = cache.get(key);
+        if (staleFromDisk.remove(key)) {
+            refreshStale(key);
+        }
+        return roles;
+    }
+
+    private UserRoleSet loadThroughDisk(UserIdentityKey key) {
+        DiskCacheTier.Stored<UserRolesResponseDto> stored = diskTier.getRoles(key, hardTtl);
+        if (stored == null) {
+            return fetch(key);
+        }
+        if (stored.ageMillis() > softTtl.toMillis()) {
+            staleFromDisk.add(key);
+        }
+        diskAgeNanos.put(key, TimeUnit.MILLISECONDS.toNanos(stored.ageMillis()));
+        return UserRoleSet.of(stored.value(), roleDictionary);
+    }
+
+    private UserRoleSet fetch(UserIdentityKey key) {
+        UserRolesResponseDto roles = authorizationSoapClient.getUserRoles(key.toDto());
+        diskTier.putRoles(key, roles);
+        return UserRoleSet.of(roles, roleDictionary);
+    }
+
+    /**
+     * Refreshes a stale entry loaded from disk, now that its load has completed; skipped when the
+     * pool is saturated, in which case the soft TTL triggers the refresh later
+     */
+    private void refreshStale(UserIdentityKey key) {
+        try {
+            cache.refresh(key);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Refresh of stale disk entry skipped; refresh pool saturated");
+        }
+    }
+
+    /**
+     * Entries live for the hard TTL from their upstream fetch, whether that was now or, for entries
+     * loaded from disk, some time ago; reads do not extend it
+     */
+    private static final class RolesExpiry implements Expiry<UserIdentityKey, UserRoleSet> {
+        private final long hardTtlNanos;
+        private final ConcurrentMap<UserIdentityKey, Long> diskAgeNanos;
+
+        RolesExpiry(long hardTtlNanos, ConcurrentMap<UserIdentityKey, Long> diskAgeNanos) {
+            this.hardTtlNanos = hardTtlNanos;
+            this.diskAgeNanos = diskAgeNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(UserIdentityKey key, UserRoleSet value, long currentTime) {
+            Long age = diskAgeNanos.remove(key);
+            return age == null ? hardTtlNanos : Math.max(0, hardTtlNanos - age);
+        }
+
+        @Override
+        public long expireAfterUpdate(UserIdentityKey key, UserRoleSet value, long currentTime,
+                                      long currentDuration) {
+            return hardTtlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(UserIdentityKey key, UserRoleSet value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static ExecutorService newRefreshExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 64),
+                new CustomizableThreadFactory("roles-refresh-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
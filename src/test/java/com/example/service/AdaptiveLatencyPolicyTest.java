@@ -0,0 +1,184 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.test.client.MockWebServiceServer;
+import org.springframework.ws.transport.http.HttpUrlConnectionMessageSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.ws.test.client.RequestMatchers.anything;
+import static org.springframework.ws.test.client.ResponseCreators.withException;
+import static org.springframework.ws.test.client.ResponseCreators.withPayload;
+
+class AdaptiveLatencyPolicyTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testResponseTimeout_DerivedFromPercentileAndClamped() {
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(true, 99, 3, Duration.ofMillis(5),
+                Duration.ofMillis(100), 100, false, 95, 0, null);
+        for (int i = 0; i < 99; i++) {
+            policy.record("getUserRoles", TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertNull(policy.responseTimeout("getUserRoles"), "read timeout applies until min-samples are seen");
+
+        policy.record("getUserRoles", TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(Duration.ofMillis(30), policy.responseTimeout("getUserRoles"));
+
+        for (int i = 0; i < 64; i++) {
+            policy.record("getUserRoles", TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(Duration.ofMillis(100), policy.responseTimeout("getUserRoles"));
+        assertNull(policy.responseTimeout("isHealthy"));
+    }
+
+    @Test
+    void testResponseTimeout_WidensWhenLatencyShiftsUpward() {
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(true, 99, 3, Duration.ofMillis(5),
+                Duration.ofSeconds(10), 100, false, 95, 0, null);
+        for (int i = 0; i < 100; i++) {
+            policy.record("getUserRoles", TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(Duration.ofMillis(30), policy.responseTimeout("getUserRoles"));
+
+        // The upstream now answers in 200 ms: every call is cut off at the current deadline
+        long upstreamLatency = TimeUnit.MILLISECONDS.toNanos(200);
+        Duration timeout = policy.responseTimeout("getUserRoles");
+        for (int i = 0; i < AdaptiveLatencyPolicy.WINDOW_SIZE && timeout.toNanos() < upstreamLatency; i++) {
+            policy.recordFailure("getUserRoles", timeout.toNanos());
+            timeout = policy.responseTimeout("getUserRoles");
+        }
+
+        assertTrue(timeout.toNanos() >= upstreamLatency, "timeout stuck at " + timeout);
+    }
+
+    @Test
+    void testExecute_SlowPrimaryIsHedgedAndFirstResultWins() {
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(false, 99, 3, Duration.ZERO, Duration.ZERO,
+                1, true, 50, 0.05, executor);
+        policy.record("findMatchingUserIdentity", TimeUnit.MILLISECONDS.toNanos(20));
+        AtomicInteger attempts = new AtomicInteger();
+        // The primary cannot answer before the call returns, so only the hedge can win
+        CountDownLatch releasePrimary = new CountDownLatch(1);
+
+        String result;
+        try {
+            result = policy.execute("findMatchingUserIdentity", () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    await(releasePrimary);
+                    return "primary";
+                }
+                return "hedge";
+            });
+        } finally {
+            releasePrimary.countDown();
+        }
+
+        assertEquals("hedge", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, policy.getStats().getHedgedCalls());
+        assertEquals(1, policy.getStats().getHedgeWins());
+    }
+
+    @Test
+    void testExecute_HedgesAreCappedByBudget() {
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(false, 99, 3, Duration.ZERO, Duration.ZERO,
+                1, true, 50, 0, executor);
+        policy.record("getUserRoles", TimeUnit.MILLISECONDS.toNanos(1));
+
+        // Each primary waits until its hedge (or the over-budget decision) has been made
+        for (int i = 0; i < 12; i++) {
+            AtomicInteger attempts = new AtomicInteger();
+            long hedgedBefore = policy.getStats().getHedgedCalls() + policy.getStats().getHedgesOverBudget();
+            assertEquals("done", policy.execute("getUserRoles", () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    awaitUntil(() -> policy.getStats().getHedgedCalls()
+                            + policy.getStats().getHedgesOverBudget() > hedgedBefore);
+                }
+                return "done";
+            }));
+        }
+
+        assertEquals(10, policy.getStats().getHedgedCalls(), "only the initial burst of hedges is allowed");
+        assertEquals(2, policy.getStats().getHedgesOverBudget());
+    }
+
+    @Test
+    void testClient_RecordsLatencyOfSuccessfulCalls() {
+        WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+        webServiceTemplate.setDefaultUri("http://localhost:8080/mock-soap-service");
+        webServiceTemplate.setMessageSender(new HttpUrlConnectionMessageSender());
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(true, 99, 3, Duration.ofMillis(1),
+                Duration.ofSeconds(60), 1, false, 95, 0, null);
+        SimpleAuthorizationSoapClient client = new SimpleAuthorizationSoapClient(webServiceTemplate,
+                new StaxSoapResponseParser(), new RequestCoalescer(false),
+                new SoapClientMetrics(new SimpleMeterRegistry()), UpstreamGuard.disabled(), policy);
+        MockWebServiceServer mockServer = MockWebServiceServer.createServer(webServiceTemplate);
+        mockServer.expect(anything()).andRespond(withPayload(new StreamSource(new StringReader(
+                "<ns2:isHealthyResponse xmlns:ns2=\"http://web.service.eas.citso.fsa.usda.gov\">"
+                + "<return>true</return></ns2:isHealthyResponse>"))));
+
+        assertTrue(client.isHealthy());
+
+        assertTrue(policy.percentileNanos("isHealthy", 50) > 0);
+        assertNotNull(policy.responseTimeout("isHealthy"));
+        mockServer.verify();
+    }
+
+    @Test
+    void testClient_RecordsLatencyOfFailedCalls() {
+        WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+        webServiceTemplate.setDefaultUri("http://localhost:8080/mock-soap-service");
+        webServiceTemplate.setMessageSender(new HttpUrlConnectionMessageSender());
+        AdaptiveLatencyPolicy policy = new AdaptiveLatencyPolicy(true, 99, 3, Duration.ofMillis(1),
+                Duration.ofSeconds(60), 1, false, 95, 0, null);
+        SimpleAuthorizationSoapClient client = new SimpleAuthorizationSoapClient(webServiceTemplate,
+                new StaxSoapResponseParser(), new RequestCoalescer(false),
+                new SoapClientMetrics(new SimpleMeterRegistry()), UpstreamGuard.disabled(), policy);
+        MockWebServiceServer mockServer = MockWebServiceServer.createServer(webServiceTemplate);
+        mockServer.expect(anything()).andRespond(withException(new SocketTimeoutException("Read timed out")));
+
+        assertThrows(RuntimeException.class, () -> client.getUserRoles(
+                new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966")));
+
+        assertTrue(policy.percentileNanos("getUserRoles", 50) > 0);
+        mockServer.verify();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Spins until the condition holds; the deadline only guards against a hung test
+     */
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
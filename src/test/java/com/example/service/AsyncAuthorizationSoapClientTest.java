@@ -0,0 +1,87 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncAuthorizationSoapClientTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testIndependentLookupsRunInParallel() throws Exception {
+        AsyncAuthorizationSoapClient asyncClient = new AsyncAuthorizationSoapClient(soapClient, executor,
+                Duration.ofSeconds(5));
+        UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+        // Neither lookup can finish until both are running
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        when(soapClient.findMatchingUserIdentity("28200310169021026877")).thenAnswer(invocation -> {
+            bothRunning.await(5, TimeUnit.SECONDS);
+            return identity;
+        });
+        when(soapClient.findOfficesByEauthId("28200310169021026877", "FLP")).thenAnswer(invocation -> {
+            bothRunning.await(5, TimeUnit.SECONDS);
+            return List.of("47310");
+        });
+
+        CompletableFuture<UserIdentityDto> identityFuture = asyncClient.findMatchingUserIdentityAsync("28200310169021026877");
+        CompletableFuture<List<String>> officesFuture = asyncClient.findOfficesByEauthIdAsync("28200310169021026877", "FLP");
+        CompletableFuture.allOf(identityFuture, officesFuture).get(10, TimeUnit.SECONDS);
+
+        assertSame(identity, identityFuture.get());
+        assertEquals(List.of("47310"), officesFuture.get());
+    }
+
+    @Test
+    void testCallTimeout() {
+        AsyncAuthorizationSoapClient asyncClient = new AsyncAuthorizationSoapClient(soapClient, executor,
+                Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        when(soapClient.isHealthy()).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> asyncClient.isHealthyAsync().get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testFailuresCompleteExceptionally() {
+        AsyncAuthorizationSoapClient asyncClient = new AsyncAuthorizationSoapClient(soapClient, executor,
+                Duration.ofSeconds(5));
+        UserIdentityDto identity = new UserIdentityDto("auth123", "authz456", "testuser");
+        when(soapClient.getUserRoles(identity)).thenThrow(new RuntimeException("Failed to get user roles"));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> asyncClient.getUserRolesAsync(identity).get(5, TimeUnit.SECONDS));
+        assertEquals("Failed to get user roles", e.getCause().getMessage());
+    }
+}
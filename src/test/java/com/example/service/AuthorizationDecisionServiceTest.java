@@ -0,0 +1,89 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthorizationDecisionServiceTest {
+
+    private static final String EAUTH_ID = "28200310169021026877";
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private AuthorizationDecisionService decisionService;
+
+    @BeforeEach
+    void setUp() {
+        UserIdentityCache identityCache = new UserIdentityCache(soapClient, true, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), 10, System::nanoTime);
+        UserRolesCache rolesCache = new UserRolesCache(soapClient, new RoleDictionary(), true,
+                Duration.ofMinutes(1), Duration.ofMinutes(2), 10, Runnable::run, System::nanoTime);
+        UserOfficesCache officesCache = new UserOfficesCache(soapClient, true, Duration.ofMinutes(1), 10,
+                System::nanoTime);
+        decisionService = new AuthorizationDecisionService(identityCache, rolesCache, officesCache);
+    }
+
+    @Test
+    void testDecide_RolesAnyAndAll() {
+        UserIdentityDto identity = new UserIdentityDto("auth", "authz", "emp0007966");
+        when(soapClient.findMatchingUserIdentity(EAUTH_ID)).thenReturn(identity);
+        when(soapClient.getUserRoles(any()))
+                .thenReturn(new UserRolesResponseDto(List.of("app.fsa.flp.dls.lm", "app.fsa.flp.dls.fsfl"), identity));
+
+        assertTrue(decide(List.of("app.fsa.flp.dls.gl", "app.fsa.flp.dls.lm"), "any", null).isAllowed());
+        AuthorizationDecisionDto denied = decide(List.of("app.fsa.flp.dls.gl", "app.fsa.flp.dls.lm"), "all", null);
+        assertFalse(denied.isAllowed());
+        assertEquals(AuthorizationDecisionService.REASON_MISSING_ROLE, denied.getReason());
+
+        verify(soapClient, times(1)).getUserRoles(any());
+        verify(soapClient, never()).findOfficesByEauthId(anyString(), anyString());
+    }
+
+    @Test
+    void testDecide_OfficeMembership() {
+        UserIdentityDto identity = new UserIdentityDto("auth", "authz", "emp0007966");
+        when(soapClient.findMatchingUserIdentity(EAUTH_ID)).thenReturn(identity);
+        when(soapClient.getUserRoles(any()))
+                .thenReturn(new UserRolesResponseDto(List.of("app.fsa.flp.dls.lm"), identity));
+        when(soapClient.findOfficesByEauthId(EAUTH_ID, "FLP")).thenReturn(List.of("47310", "47318"));
+
+        assertTrue(decide(List.of("app.fsa.flp.dls.lm"), null, "47318").isAllowed());
+        assertEquals(AuthorizationDecisionService.REASON_NOT_IN_OFFICE,
+                decide(List.of("app.fsa.flp.dls.lm"), null, "99999").getReason());
+        // A missing role short-circuits the office lookup
+        assertEquals(AuthorizationDecisionService.REASON_MISSING_ROLE,
+                decide(List.of("app.fsa.flp.dls.gl"), null, "47318").getReason());
+        // The second office check is answered from the offices cache
+        verify(soapClient, times(1)).findOfficesByEauthId(EAUTH_ID, "FLP");
+    }
+
+    @Test
+    void testDecide_UnknownUserAndBadRequests() {
+        when(soapClient.findMatchingUserIdentity(EAUTH_ID)).thenReturn(new UserIdentityDto());
+
+        AuthorizationDecisionDto decision = decide(List.of("app.fsa.flp.dls.lm"), null, null);
+        assertFalse(decision.isAllowed());
+        assertEquals(AuthorizationDecisionService.REASON_UNKNOWN_USER, decision.getReason());
+        verify(soapClient, never()).getUserRoles(any());
+
+        assertThrows(IllegalArgumentException.class, () -> decide(List.of("r"), "some", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> decisionService.decide(new DecisionRequestDto(" ", null, null, null, null)));
+    }
+
+    private AuthorizationDecisionDto decide(List<String> roles, String match, String office) {
+        return decisionService.decide(new DecisionRequestDto(EAUTH_ID, roles, match, office, null));
+    }
+}
@@ -210,4 +210,75 @@ public class AuthorizationSoapClientTest {
         assertFalse(result);
         mockServer.verify();
     }
+
+    @Test
+    void testFindOfficesByEauthId_RequestPayload() {
+        String expectedRequest = """
+            <web:findOfficesByEauthId xmlns:web="http://web.service.eas.citso.fsa.usda.gov">
+               <arg0>
+                  <web:UsdaEauthId>28692023052412555531317</web:UsdaEauthId>
+                  <web:OfficeType>FLP</web:OfficeType>
+               </arg0>
+            </web:findOfficesByEauthId>
+            """;
+
+        String responsePayload = """
+            <ns2:findOfficesByEauthIdResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+               <return>
+                  <ns2:Offices>
+                     <ns2:ListValue>47310</ns2:ListValue>
+                  </ns2:Offices>
+               </return>
+            </ns2:findOfficesByEauthIdResponse>
+            """;
+
+        mockServer.expect(payload(new StreamSource(new java.io.StringReader(expectedRequest))))
+                .andRespond(withPayload(new StreamSource(new java.io.StringReader(responsePayload))));
+
+        // Execute test
+        List<String> result = soapClient.findOfficesByEauthId("28692023052412555531317", "FLP");
+
+        // Verify
+        assertEquals(List.of("47310"), result);
+        mockServer.verify();
+    }
+
+    @Test
+    void testFindUsersByCriteria_RequestPayload() {
+        String expectedRequest = """
+            <web:findUsersByCriteria xmlns:web="http://web.service.eas.citso.fsa.usda.gov">
+               <arg0>
+                  <web:OfficeId>47310</web:OfficeId>
+                  <web:RoleName>app.fsa.flp.dls.lm</web:RoleName>
+                  <web:RequestToken>
+                     <applicationIdentifier></applicationIdentifier>
+                     <requestHost></requestHost>
+                  </web:RequestToken>
+               </arg0>
+            </web:findUsersByCriteria>
+            """;
+
+        String responsePayload = """
+            <ns2:findUsersByCriteriaResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+               <return>
+                  <ns2:Users>
+                     <ns2:ListValue>28200310169021026877</ns2:ListValue>
+                     <ns2:ListValue>28692023052412555531317</ns2:ListValue>
+                  </ns2:Users>
+               </return>
+            </ns2:findUsersByCriteriaResponse>
+            """;
+
+        mockServer.expect(payload(new StreamSource(new java.io.StringReader(expectedRequest))))
+                .andRespond(withPayload(new StreamSource(new java.io.StringReader(responsePayload))));
+
+        // Execute test
+        List<String> users = new java.util.ArrayList<>();
+        long count = soapClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", users::add);
+
+        // Verify
+        assertEquals(2, count);
+        assertEquals(List.of("28200310169021026877", "28692023052412555531317"), users);
+        mockServer.verify();
+    }
 }
@@ -0,0 +1,157 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchAuthorizationServiceTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testGetUserRoles_DeduplicatesAndReportsPerIdErrors() {
+        when(soapClient.findMatchingUserIdentity(anyString()))
+                .thenAnswer(invocation -> new UserIdentityDto("auth", "authz", invocation.getArgument(0)));
+        when(soapClient.findMatchingUserIdentity("bad"))
+                .thenThrow(new RuntimeException("Failed to find matching user identity"));
+        when(soapClient.getUserRoles(any()))
+                .thenAnswer(invocation -> new UserRolesResponseDto(List.of("role"), invocation.getArgument(0)));
+
+        List<BatchUserRolesResultDto> results = newService(4, 100).getUserRoles(List.of("a", "bad", "b", "a"));
+
+        assertEquals(List.of("a", "bad", "b"), results.stream().map(BatchUserRolesResultDto::getEauthId).toList());
+        assertEquals("a", results.get(0).getUserRoles().getUserIdentity().getUserLoginName());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getUserRoles());
+        assertEquals("Failed to find matching user identity", results.get(1).getError());
+        verify(soapClient, times(1)).findMatchingUserIdentity("a");
+    }
+
+    @Test
+    void testGetUserRoles_RespectsConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        // Lookups only proceed in groups of three, so the batch must reach its limit to finish
+        CyclicBarrier limitReached = new CyclicBarrier(3);
+        when(soapClient.findMatchingUserIdentity(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            limitReached.await(5, TimeUnit.SECONDS);
+            inFlight.decrementAndGet();
+            return new UserIdentityDto("auth", "authz", invocation.getArgument(0));
+        });
+        when(soapClient.getUserRoles(any())).thenReturn(new UserRolesResponseDto(List.of(), null));
+
+        List<String> ids = java.util.stream.IntStream.range(0, 39).mapToObj(Integer::toString).toList();
+        List<BatchUserRolesResultDto> results = newService(3, 100).getUserRoles(ids);
+
+        assertEquals(39, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getError() == null), "a lookup missed its group");
+        assertEquals(3, maxInFlight.get());
+    }
+
+    @Test
+    void testGetUserRoles_TimedOutLookupKeepsItsSlotUntilItEnds() throws Exception {
+        AtomicInteger lookupsEnded = new AtomicInteger();
+        when(soapClient.findMatchingUserIdentity(anyString()))
+                .thenAnswer(invocation -> new UserIdentityDto("auth", "authz", invocation.getArgument(0)));
+        when(soapClient.getUserRoles(any())).thenAnswer(invocation -> {
+            lookupsEnded.incrementAndGet();
+            return new UserRolesResponseDto(List.of(), null);
+        });
+        // Every future times out at once; the lookups behind them run when the test says so
+        AsyncAuthorizationSoapClient asyncClient = mock(AsyncAuthorizationSoapClient.class);
+        BlockingQueue<Supplier<?>> lookups = new LinkedBlockingQueue<>();
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger endedWhenSecondSubmitted = new AtomicInteger(-1);
+        when(asyncClient.supplyAsync(any())).thenAnswer(invocation -> {
+            if (submitted.incrementAndGet() == 2) {
+                endedWhenSecondSubmitted.set(lookupsEnded.get());
+            }
+            lookups.add(invocation.getArgument(0));
+            return CompletableFuture.failedFuture(new TimeoutException());
+        });
+
+        CompletableFuture<List<BatchUserRolesResultDto>> batch = CompletableFuture.supplyAsync(
+                () -> newService(1, 100, asyncClient).getUserRoles(List.of("a", "b")), executor);
+        for (int i = 0; i < 2; i++) {
+            Supplier<?> lookup = lookups.poll(10, TimeUnit.SECONDS);
+            assertNotNull(lookup, "lookup " + i + " was not submitted");
+            lookup.get();
+        }
+
+        assertEquals(2, batch.get(10, TimeUnit.SECONDS).size());
+        assertEquals(1, endedWhenSecondSubmitted.get(), "second lookup started while the first was still running");
+    }
+
+    @Test
+    void testDecide_KeepsOrderAndDeniesFailedDecisions() {
+        when(soapClient.findMatchingUserIdentity(anyString()))
+                .thenAnswer(invocation -> new UserIdentityDto("auth", "authz", invocation.getArgument(0)));
+        when(soapClient.findMatchingUserIdentity("bad"))
+                .thenThrow(new RuntimeException("Failed to find matching user identity"));
+        when(soapClient.getUserRoles(any()))
+                .thenAnswer(invocation -> new UserRolesResponseDto(List.of("role"), invocation.getArgument(0)));
+
+        List<AuthorizationDecisionDto> decisions = newService(4, 100).decide(List.of(
+                new DecisionRequestDto("a", List.of("role"), null, null, null),
+                new DecisionRequestDto("bad", List.of("role"), null, null, null),
+                new DecisionRequestDto("b", List.of("other"), null, null, null)));
+
+        assertTrue(decisions.get(0).isAllowed());
+        assertEquals(AuthorizationDecisionService.REASON_ERROR, decisions.get(1).getReason());
+        assertEquals(AuthorizationDecisionService.REASON_MISSING_ROLE, decisions.get(2).getReason());
+    }
+
+    @Test
+    void testGetUserRoles_RejectsOversizedBatch() {
+        assertThrows(IllegalArgumentException.class, () -> newService(4, 2).getUserRoles(List.of("a", "b", "c")));
+    }
+
+    private BatchAuthorizationService newService(int maxConcurrency, int maxBatchSize) {
+        return newService(maxConcurrency, maxBatchSize,
+                new AsyncAuthorizationSoapClient(soapClient, executor, Duration.ofSeconds(5)));
+    }
+
+    private BatchAuthorizationService newService(int maxConcurrency, int maxBatchSize,
+                                                 AsyncAuthorizationSoapClient asyncClient) {
+        UserIdentityCache identityCache = new UserIdentityCache(soapClient, false, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), 10, System::nanoTime);
+        UserRolesCache rolesCache = new UserRolesCache(soapClient, new RoleDictionary(), false,
+                Duration.ofMinutes(1), Duration.ofMinutes(2), 10, Runnable::run, System::nanoTime);
+        AuthorizationDecisionService decisionService =
+                new AuthorizationDecisionService(identityCache, rolesCache,
+                        new UserOfficesCache(soapClient, false, Duration.ofMinutes(1), 10, System::nanoTime));
+        return new BatchAuthorizationService(asyncClient, identityCache, rolesCache, decisionService,
+                maxConcurrency, maxBatchSize);
+    }
+}
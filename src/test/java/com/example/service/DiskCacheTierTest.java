@@ -0,0 +1,183 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DiskCacheTierTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+
+    @Test
+    void testReopen_ServesWarmHitsAfterRestart() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        when(soapClient.findMatchingUserIdentity("eauth-1")).thenReturn(identity);
+        when(soapClient.getUserRoles(any())).thenReturn(new UserRolesResponseDto(List.of("a.role", "b.role"), identity));
+
+        DiskCacheTier before = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(0)));
+        newIdentityCache(before).findMatchingUserIdentity("eauth-1");
+        newRolesCache(before).getUserRoles(identity);
+        before.close();
+
+        // Fresh in-process caches over the reopened file: no upstream calls
+        DiskCacheTier after = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(1)));
+        assertEquals("emp0007966", newIdentityCache(after).findMatchingUserIdentity("eauth-1").getUserLoginName());
+        assertEquals(List.of("a.role", "b.role"), newRolesCache(after).getUserRoles(identity).getUserRoles());
+        verify(soapClient, times(1)).findMatchingUserIdentity("eauth-1");
+        verify(soapClient, times(1)).getUserRoles(any());
+        assertEquals(2, after.getStats().getHitCount());
+        after.close();
+    }
+
+    @Test
+    void testReopen_DiskEntriesKeepTheirAge() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        when(soapClient.findMatchingUserIdentity("eauth-1")).thenReturn(identity);
+        when(soapClient.getUserRoles(any())).thenReturn(new UserRolesResponseDto(List.of("a.role"), identity));
+        DiskCacheTier before = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(0)));
+        newIdentityCache(before).findMatchingUserIdentity("eauth-1");
+        newRolesCache(before).getUserRoles(identity);
+        before.close();
+
+        // Restarted 3 minutes later: both entries are 3 minutes into their TTLs
+        DiskCacheTier after = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(3)));
+        UserIdentityCache identityCache = newIdentityCache(after);
+        UserRolesCache rolesCache = newRolesCache(after);
+        identityCache.findMatchingUserIdentity("eauth-1");
+        rolesCache.getUserRoles(identity);
+
+        assertEquals(Duration.ofMinutes(57), identityCache.timeToStale("eauth-1"));
+        assertEquals(Duration.ofMinutes(2), rolesCache.timeToStale(UserIdentityKey.of(identity)));
+        ticks.addAndGet(Duration.ofMinutes(58).toNanos());
+        assertNull(identityCache.timeToStale("eauth-1"), "expired an hour after the original fetch");
+        after.close();
+    }
+
+    @Test
+    void testReopen_RolesPastSoftTtlAreServedAndRefreshed() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        when(soapClient.getUserRoles(any())).thenReturn(
+                new UserRolesResponseDto(List.of("a.role"), identity),
+                new UserRolesResponseDto(List.of("b.role"), identity));
+        DiskCacheTier before = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(0)));
+        newRolesCache(before).getUserRoles(identity);
+        before.close();
+
+        DiskCacheTier after = new DiskCacheTier(MappedEntryStore.open(file, 64, 512, clockAt(10)));
+        UserRolesCache rolesCache = newRolesCache(after);
+
+        assertEquals(List.of("a.role"), rolesCache.getUserRoles(identity).getUserRoles());
+        assertEquals(List.of("b.role"), rolesCache.getUserRoles(identity).getUserRoles());
+        verify(soapClient, times(2)).getUserRoles(any());
+        after.close();
+    }
+
+    @Test
+    void testCorruptedSlotIsAMiss() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        when(soapClient.findMatchingUserIdentity("eauth-1")).thenReturn(identity);
+        DiskCacheTier before = new DiskCacheTier(MappedEntryStore.open(file, MappedEntryStore.WAYS, 512, clockAt(0)));
+        newIdentityCache(before).findMatchingUserIdentity("eauth-1");
+        before.close();
+
+        // Value lengths pointing past the end of their slots
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int way = 0; way < MappedEntryStore.WAYS; way++) {
+                channel.write(ByteBuffer.wrap(new byte[] {0x7f, (byte) 0xff}),
+                        MappedEntryStore.FILE_HEADER_SIZE + way * 512L + 4);
+            }
+        }
+
+        DiskCacheTier after = new DiskCacheTier(MappedEntryStore.open(file, MappedEntryStore.WAYS, 512, clockAt(1)));
+        assertEquals("emp0007966", newIdentityCache(after).findMatchingUserIdentity("eauth-1").getUserLoginName());
+        verify(soapClient, times(2)).findMatchingUserIdentity("eauth-1");
+        assertEquals(0, after.getStats().getHitCount());
+        after.close();
+    }
+
+    @Test
+    void testOpen_DiscardsOtherGeometryAndExpiresOldEntries() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        try (MappedEntryStore store = MappedEntryStore.open(file, 64, 512, clockAt(0))) {
+            store.put(key("k"), key("v"));
+        }
+        try (MappedEntryStore store = MappedEntryStore.open(file, 64, 512, clockAt(10))) {
+            assertEquals(1, store.getEntryCount());
+            assertNull(store.get(key("k"), Duration.ofMinutes(5).toMillis()));
+            assertEquals(0, store.getEntryCount());
+            store.put(key("k"), key("v"));
+        }
+        try (MappedEntryStore store = MappedEntryStore.open(file, 128, 512, clockAt(10))) {
+            assertEquals(0, store.getEntryCount());
+            assertNull(store.get(key("k"), Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testPut_EvictsOldestOfFullBucketAndSkipsOversized() throws IOException {
+        // A single bucket: the ninth key evicts the first
+        AtomicLong millis = new AtomicLong(START.toEpochMilli());
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> millis.getAndIncrement());
+        try (MappedEntryStore store = MappedEntryStore.open(dir.resolve("cache.bin"), MappedEntryStore.WAYS, 64,
+                clock)) {
+            for (int i = 0; i <= MappedEntryStore.WAYS; i++) {
+                assertTrue(store.put(key("k" + i), key("v" + i)));
+            }
+            assertNull(store.get(key("k0"), Long.MAX_VALUE));
+            assertArrayEquals(key("v8"), store.get(key("k8"), Long.MAX_VALUE).value());
+            assertEquals(MappedEntryStore.WAYS, store.getEntryCount());
+            assertEquals(1, store.getEvictionCount());
+
+            assertFalse(store.put(key("big"), new byte[64]));
+            assertEquals(1, store.getOversizedCount());
+        }
+    }
+
+    private UserIdentityCache newIdentityCache(DiskCacheTier tier) {
+        return new UserIdentityCache(soapClient, tier, true, Duration.ofHours(1), Duration.ofMinutes(1), 10,
+                ticks::get);
+    }
+
+    private UserRolesCache newRolesCache(DiskCacheTier tier) {
+        return new UserRolesCache(soapClient, new RoleDictionary(), tier, true, Duration.ofMinutes(5),
+                Duration.ofMinutes(60), 10, Runnable::run, ticks::get);
+    }
+
+    private static Clock clockAt(long minutes) {
+        return Clock.fixed(START.plus(Duration.ofMinutes(minutes)), ZoneOffset.UTC);
+    }
+
+    private static byte[] key(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the generated JAX-WS client over HTTP against {@link StubSoapServer}
+ */
+public class JaxWsAuthorizationSoapClientTest {
+
+    private StubSoapServer stub;
+    private JaxWsAuthorizationSoapClient soapClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubSoapServer.start(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 50, 7, 500, 0));
+        soapClient = new JaxWsAuthorizationSoapClient(new RequestCoalescer(false),
+                new SoapClientMetrics(new SimpleMeterRegistry()), UpstreamGuard.disabled(),
+                AdaptiveLatencyPolicy.disabled(), UpstreamEndpoints.single(stub.getUrl()), 2, 5000, 5000,
+                "app", "host");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testMatchesSpringWsClientResults() {
+        assertTrue(soapClient.isHealthy());
+
+        UserIdentityDto identity = soapClient.findMatchingUserIdentity("28200310169021026877");
+        assertEquals("28200310169021026877", identity.getAuthenticationSystemIdentifier());
+        assertEquals("-1452175789", identity.getAuthorizationSystemIdentifier());
+        assertEquals("emp0007966", identity.getUserLoginName());
+
+        List<String> offices = soapClient.findOfficesByEauthId("28200310169021026877", "FLP");
+        assertEquals(50, offices.size());
+        assertEquals("40", offices.get(0));
+
+        UserRolesResponseDto roles = soapClient.getUserRoles(identity);
+        assertEquals(7, roles.getUserRoles().size());
+        assertEquals("app.fsa.flp.dls.role0", roles.getUserRoles().get(0));
+        assertEquals("emp0007966", roles.getUserIdentity().getUserLoginName());
+
+        List<String> users = new ArrayList<>();
+        assertEquals(500, soapClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", users::add));
+        assertEquals(500, users.size());
+        assertEquals(5, stub.getRequestCount());
+    }
+
+    @Test
+    void testFault() {
+        stub.setSettings(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 1, 1, 1, 1.0));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> soapClient.findMatchingUserIdentity("28200310169021026877"));
+        assertEquals("Failed to find matching user identity", e.getMessage());
+        assertFalse(soapClient.isHealthy());
+    }
+
+    @Test
+    void testPortsAreSharedAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<UserIdentityDto>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> soapClient.findMatchingUserIdentity("28200310169021026877")));
+            }
+            for (Future<UserIdentityDto> future : futures) {
+                assertEquals("emp0007966", future.get().getUserLoginName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(64, stub.getRequestCount());
+    }
+}
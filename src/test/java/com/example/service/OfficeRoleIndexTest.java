@@ -0,0 +1,140 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OfficeRoleIndexTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final MutableClock clock = new MutableClock();
+    private final Map<String, List<String>> upstream = new HashMap<>();
+
+    @Test
+    void testRefresh_BuildsBothDirections() {
+        upstream.put("47310/lm", List.of("u2", "u1"));
+        upstream.put("47310/gl", List.of("u1"));
+        upstream.put("47318/lm", List.of("u3", "u1"));
+        upstream.put("47318/gl", List.of());
+        OfficeRoleIndex index = newIndex(0);
+        assertNull(index.findUsers("47310", "lm"));
+        assertFalse(index.getStats().isReady());
+
+        index.refresh();
+
+        assertEquals(List.of("u1", "u2"), index.findUsers("47310", "lm"));
+        assertEquals(List.of(), index.findUsers("47318", "gl"));
+        assertEquals(List.of("47310", "47318"), index.findOffices("u1"));
+        assertEquals(List.of("47318"), index.findOffices("u3"));
+        assertEquals(List.of(), index.findOffices("unknown"));
+
+        IndexStatsDto stats = index.getStats();
+        assertTrue(stats.isReady());
+        assertEquals(4, stats.getIndexedCells());
+        assertEquals(3, stats.getIndexedUsers());
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(30000, index.getStats().getSnapshotAgeMillis());
+    }
+
+    @Test
+    void testRefresh_FailedCellKeepsPreviousUsers() {
+        upstream.put("47310/lm", List.of("u1"));
+        upstream.put("47310/gl", List.of("u2"));
+        upstream.put("47318/lm", List.of());
+        upstream.put("47318/gl", List.of());
+        OfficeRoleIndex index = newIndex(0);
+        index.refresh();
+
+        upstream.remove("47310/lm");
+        upstream.put("47310/gl", List.of("u2", "u4"));
+        index.refresh();
+
+        assertEquals(List.of("u1"), index.findUsers("47310", "lm"));
+        assertEquals(List.of("u2", "u4"), index.findUsers("47310", "gl"));
+        assertEquals(List.of("47310"), index.findOffices("u4"));
+        assertEquals(1, index.getStats().getLastRunCellsFailed());
+        assertEquals(3, index.getStats().getLastRunCellsRefreshed());
+    }
+
+    @Test
+    void testRefresh_IncrementalRunsFetchStalestCellsFirst() {
+        upstream.put("47310/lm", List.of("u1"));
+        upstream.put("47310/gl", List.of("u2"));
+        upstream.put("47318/lm", List.of("u3"));
+        upstream.put("47318/gl", List.of("u4"));
+        OfficeRoleIndex index = newIndex(2);
+
+        index.refresh();
+        assertEquals(2, index.getStats().getIndexedCells());
+        clock.advance(Duration.ofMinutes(1));
+        index.refresh();
+        assertEquals(4, index.getStats().getIndexedCells());
+        assertEquals(List.of("u3"), index.findUsers("47318", "lm"));
+
+        clock.advance(Duration.ofMinutes(1));
+        index.refresh();
+        // The third run goes back to the two cells of the first run
+        verify(soapClient, times(2)).findUsersByCriteria(eq("47310"), eq("lm"), any());
+        verify(soapClient, times(1)).findUsersByCriteria(eq("47318"), eq("lm"), any());
+    }
+
+    private OfficeRoleIndex newIndex(int maxCellsPerRun) {
+        lenient().when(soapClient.findUsersByCriteria(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            List<String> users = upstream.get(invocation.getArgument(0) + "/" + invocation.getArgument(1));
+            if (users == null) {
+                throw new RuntimeException("Failed to find users by criteria");
+            }
+            Consumer<String> consumer = invocation.getArgument(2);
+            users.forEach(consumer);
+            return (long) users.size();
+        });
+        return new OfficeRoleIndex(soapClient, true, List.of("47310", "47318"), List.of("lm", "gl"), 60000,
+                maxCellsPerRun, clock);
+    }
+
+    /**
+     * Clock the test moves forward explicitly
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshAheadSchedulerTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void testRefresh_RefreshesHotEntriesBeforeTheyGoStale() {
+        UserIdentityDto hot = new UserIdentityDto("auth", "authz", "hot");
+        UserIdentityDto cold = new UserIdentityDto("auth", "authz", "cold");
+        when(soapClient.getUserRoles(any()))
+                .thenAnswer(invocation -> new UserRolesResponseDto(List.of("role"), invocation.getArgument(0)));
+        UserRolesCache rolesCache = new UserRolesCache(soapClient, new RoleDictionary(), true,
+                Duration.ofMinutes(5), Duration.ofMinutes(60), 100, Runnable::run, nanos::get);
+        RefreshAheadScheduler scheduler = new RefreshAheadScheduler(List.of(rolesCache), true, 1000,
+                Duration.ofMinutes(1), 3, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            rolesCache.getUserRoles(hot);
+        }
+        rolesCache.getUserRoles(cold);
+
+        // Not due yet: five minutes of freshness left
+        scheduler.refresh();
+        verify(soapClient, times(2)).getUserRoles(any());
+
+        advanceMinutes(4.5);
+        // Counts were halved by the previous run; keep the key hot
+        for (int i = 0; i < 3; i++) {
+            rolesCache.getUserRoles(hot);
+        }
+        scheduler.refresh();
+        // Only the hot user is refreshed; the cold one is left to its soft TTL
+        verify(soapClient, times(3)).getUserRoles(any());
+        assertEquals(Duration.ofMinutes(5), rolesCache.timeToStale(UserIdentityKey.of(hot)));
+        assertEquals(1, scheduler.getStats().getRefreshes());
+    }
+
+    @Test
+    void testRefresh_StaysWithinBudgetHottestFirst() {
+        when(soapClient.findOfficesByEauthId(any(), any())).thenReturn(List.of("47310"));
+        UserOfficesCache officesCache = new UserOfficesCache(soapClient, true, Duration.ofMinutes(10), 100,
+                nanos::get);
+        // 1 call per second over a 1 second interval: one refresh per run
+        RefreshAheadScheduler scheduler = new RefreshAheadScheduler(List.of(officesCache), true, 1000,
+                Duration.ofMinutes(1), 1, 1);
+
+        for (int i = 0; i < 5; i++) {
+            officesCache.findOfficesByEauthId("hotter", "FLP");
+        }
+        for (int i = 0; i < 2; i++) {
+            officesCache.findOfficesByEauthId("hot", "FLP");
+        }
+        advanceMinutes(9.5);
+        scheduler.refresh();
+
+        verify(soapClient, times(2)).findOfficesByEauthId("hotter", "FLP");
+        verify(soapClient, times(1)).findOfficesByEauthId("hot", "FLP");
+        RefreshAheadStatsDto stats = scheduler.getStats();
+        assertEquals(1, stats.getLastRunRefreshes());
+        assertEquals(1, stats.getDeferred());
+    }
+
+    private void advanceMinutes(double minutes) {
+        nanos.addAndGet((long) (minutes * TimeUnit.MINUTES.toNanos(1)));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest {
+
+    @Test
+    void testExecute_ConcurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(true);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        CountDownLatch joined = new CountDownLatch(callers - 1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.execute(new JoinCountingKey("emp0007966", joined), () -> {
+                    upstreamCalls.incrementAndGet();
+                    await(release);
+                    return "roles";
+                })));
+            }
+            // Every follower has found the leader's call in flight before it is allowed to finish
+            assertTrue(joined.await(5, TimeUnit.SECONDS), "followers did not join the leader's call");
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("roles", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, upstreamCalls.get());
+        CoalescingStatsDto stats = coalescer.getStats();
+        assertEquals(callers - 1, stats.getCoalescedCalls());
+        assertEquals(1, stats.getUpstreamCalls());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    void testExecute_ErrorsArePropagatedAndNotRetained() {
+        RequestCoalescer coalescer = new RequestCoalescer(true);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.execute("key", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals("ok", coalescer.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void testExecute_Disabled() {
+        RequestCoalescer coalescer = new RequestCoalescer(false);
+
+        assertEquals("ok", coalescer.execute("key", () -> "ok"));
+        assertEquals(1, coalescer.getStats().getUpstreamCalls());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Equal to any key with the same ID; counts the callers that compare themselves against the
+     * key already in flight, which only happens while that call is still running
+     */
+    private static final class JoinCountingKey {
+        private final String id;
+        private final CountDownLatch joined;
+
+        JoinCountingKey(String id, CountDownLatch joined) {
+            this.id = id;
+            this.joined = joined;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof JoinCountingKey) || !id.equals(((JoinCountingKey) other).id)) {
+                return false;
+            }
+            if (other != this) {
+                joined.countDown();
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+}
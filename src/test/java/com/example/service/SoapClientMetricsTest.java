@@ -0,0 +1,82 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.test.client.MockWebServiceServer;
+import org.springframework.ws.transport.http.HttpUrlConnectionMessageSender;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.ws.test.client.RequestMatchers.anything;
+import static org.springframework.ws.test.client.ResponseCreators.withPayload;
+import static org.springframework.ws.test.client.ResponseCreators.withServerOrReceiverFault;
+
+class SoapClientMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private SimpleAuthorizationSoapClient soapClient;
+    private MockWebServiceServer mockServer;
+
+    @BeforeEach
+    void setUp() {
+        WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+        webServiceTemplate.setDefaultUri("http://localhost:8080/mock-soap-service");
+        webServiceTemplate.setMessageSender(new HttpUrlConnectionMessageSender());
+
+        registry = new SimpleMeterRegistry();
+        soapClient = new SimpleAuthorizationSoapClient(webServiceTemplate, new StaxSoapResponseParser(),
+                new RequestCoalescer(false), new SoapClientMetrics(registry), UpstreamGuard.disabled());
+        mockServer = MockWebServiceServer.createServer(webServiceTemplate);
+    }
+
+    @Test
+    void recordsPhasesSizesAndCardinalityOfSuccessfulCall() {
+        String responsePayload = """
+            <ns2:findOfficesByEauthIdResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+               <return>
+                  <ns2:Offices>
+                     <ns2:ListValue>47310</ns2:ListValue>
+                     <ns2:ListValue>47318</ns2:ListValue>
+                  </ns2:Offices>
+               </return>
+            </ns2:findOfficesByEauthIdResponse>
+            """;
+        mockServer.expect(anything())
+                .andRespond(withPayload(new StreamSource(new StringReader(responsePayload))));
+
+        soapClient.findOfficesByEauthId("28692023052412555531317", "FLP");
+
+        String operation = "findOfficesByEauthId";
+        assertEquals(1, registry.get("soap.client.requests")
+                .tags("operation", operation, "outcome", SoapClientMetrics.OUTCOME_SUCCESS).timer().count());
+        for (String phase : new String[] {"build", "send", "parse"}) {
+            assertEquals(1, registry.get("soap.client.phase")
+                    .tags("operation", operation, "phase", phase).timer().count(), phase);
+        }
+        assertTrue(registry.get("soap.client.payload.size")
+                .tags("operation", operation, "direction", "request").summary().totalAmount() > 0);
+        assertEquals(2.0, registry.get("soap.client.list.size")
+                .tags("operation", operation).summary().totalAmount());
+        mockServer.verify();
+    }
+
+    @Test
+    void tagsSoapFaultsSeparatelyFromSuccesses() {
+        mockServer.expect(anything())
+                .andRespond(withServerOrReceiverFault("Service unavailable", Locale.ENGLISH));
+
+        assertThrows(RuntimeException.class, () -> soapClient.findMatchingUserIdentity("28200310169021026877"));
+
+        assertEquals(1, registry.get("soap.client.requests")
+                .tags("operation", "findMatchingUserIdentity", "outcome", SoapClientMetrics.OUTCOME_FAULT)
+                .timer().count());
+        assertEquals(0, registry.get("soap.client.requests")
+                .tags("operation", "findMatchingUserIdentity", "outcome", SoapClientMetrics.OUTCOME_SUCCESS)
+                .timer().count());
+    }
+}
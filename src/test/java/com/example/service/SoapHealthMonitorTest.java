@@ -0,0 +1,67 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SoapHealthMonitorTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void testGetStatus_ServedFromLastProbe() {
+        SoapHealthMonitor monitor = new SoapHealthMonitor(soapClient, true, 10000, clock);
+        assertFalse(monitor.getStatus().isChecked());
+
+        when(soapClient.isHealthy()).thenReturn(true);
+        monitor.probe();
+
+        HealthStatusDto status = monitor.getStatus();
+        assertTrue(status.isChecked());
+        assertTrue(status.isHealthy());
+        assertEquals(clock.instant(), status.getLastCheck());
+        assertEquals(1, status.getTransitions());
+        monitor.getStatus();
+        verify(soapClient, times(1)).isHealthy();
+    }
+
+    @Test
+    void testProbe_TracksTransitionsAndFailures() {
+        SoapHealthMonitor monitor = new SoapHealthMonitor(soapClient, true, 10000, clock);
+        when(soapClient.isHealthy()).thenReturn(true, false, false, true);
+
+        monitor.probe();
+        monitor.probe();
+        monitor.probe();
+        assertFalse(monitor.getStatus().isHealthy());
+        assertEquals(2, monitor.getStatus().getConsecutiveFailures());
+        assertEquals(2, monitor.getStatus().getTransitions());
+
+        monitor.probe();
+        assertTrue(monitor.getStatus().isHealthy());
+        assertEquals(0, monitor.getStatus().getConsecutiveFailures());
+        assertEquals(3, monitor.getStatus().getTransitions());
+    }
+
+    @Test
+    void testGetStatus_DisabledChecksLive() {
+        SoapHealthMonitor monitor = new SoapHealthMonitor(soapClient, false, 10000, clock);
+        when(soapClient.isHealthy()).thenReturn(true);
+
+        assertTrue(monitor.getStatus().isHealthy());
+        assertTrue(monitor.getStatus().isHealthy());
+        verify(soapClient, times(2)).isHealthy();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.service;
+
+import com.example.config.SoapConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.transport.WebServiceMessageSender;
+import org.springframework.ws.transport.http.HttpComponents5ClientFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compressed exchanges with {@link StubSoapServer} through the pooled transport's HttpClient setup
+ */
+public class SoapHttpCompressionTest {
+
+    private static final UserIdentityDto USER = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+
+    private StubSoapServer stub;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubSoapServer.start(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 50, 50, 2000, 0));
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testDecodesCompressedResponsesAndCountsBothForms() {
+        stub.setGzipResponses(true);
+        SimpleAuthorizationSoapClient soapClient = client(true, false, 2048);
+
+        AtomicLong users = new AtomicLong();
+        assertEquals(2000, soapClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> users.incrementAndGet()));
+        assertEquals(2000, users.get());
+        assertEquals(50, soapClient.getUserRoles(USER).getUserRoles().size());
+
+        double wire = bytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_WIRE);
+        double uncompressed = bytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_UNCOMPRESSED);
+        assertTrue(wire > 0 && wire * 5 < uncompressed, "wire " + wire + ", uncompressed " + uncompressed);
+    }
+
+    @Test
+    void testResponseCompressionCanBeTurnedOff() {
+        stub.setGzipResponses(true);
+        SimpleAuthorizationSoapClient soapClient = client(false, false, 2048);
+
+        assertEquals(50, soapClient.getUserRoles(USER).getUserRoles().size());
+
+        assertEquals(bytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_UNCOMPRESSED),
+                bytes(SoapClientMetrics.DIRECTION_RESPONSE, SoapClientMetrics.FORM_WIRE));
+    }
+
+    @Test
+    void testCompressesRequestsFromThreshold() {
+        SimpleAuthorizationSoapClient compressing = client(true, true, 64);
+        assertEquals("emp0007966", compressing.findMatchingUserIdentity("28200310169021026877").getUserLoginName());
+        assertEquals(1, stub.getGzipRequestCount());
+        assertTrue(bytes(SoapClientMetrics.DIRECTION_REQUEST, SoapClientMetrics.FORM_WIRE)
+                != bytes(SoapClientMetrics.DIRECTION_REQUEST, SoapClientMetrics.FORM_UNCOMPRESSED));
+
+        // Below the threshold requests go out as is
+        SimpleAuthorizationSoapClient thresholded = client(true, true, 1 << 20);
+        assertEquals("emp0007966", thresholded.findMatchingUserIdentity("28200310169021026877").getUserLoginName());
+        assertEquals(1, stub.getGzipRequestCount());
+    }
+
+    private double bytes(String direction, String form) {
+        return registry.get("soap.client.transfer.bytes").tag("direction", direction).tag("form", form)
+                .counter().count();
+    }
+
+    /**
+     * Client over SoapConfig's pooled sender, on an HttpClient with the same compression setup
+     */
+    private SimpleAuthorizationSoapClient client(boolean compressResponses, boolean compressRequests, long minSize) {
+        SoapClientMetrics metrics = new SoapClientMetrics(registry);
+        SoapHttpCompression compression = new SoapHttpCompression(metrics, compressResponses, compressRequests, minSize);
+        WebServiceMessageSender messageSender = SoapConfig.pooledMessageSender(
+                compression.applyTo(HttpClients.custom())
+                        .addRequestInterceptorFirst(new HttpComponents5ClientFactory.RemoveSoapHeadersInterceptor())
+                        .build());
+        WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+        webServiceTemplate.setDefaultUri(stub.getUrl());
+        webServiceTemplate.setMessageSender(messageSender);
+        return new SimpleAuthorizationSoapClient(webServiceTemplate, new StaxSoapResponseParser(),
+                new RequestCoalescer(false), metrics, UpstreamGuard.disabled());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SoapRequestTemplateTest {
+
+    private static final String NAMESPACE_URI = "http://web.service.eas.citso.fsa.usda.gov";
+
+    private static final SoapRequestTemplate TEMPLATE = SoapRequestTemplate.compile(
+            "<web:findOfficesByEauthId xmlns:web=\"" + NAMESPACE_URI + "\">"
+            + "<arg0><web:UsdaEauthId>{0}</web:UsdaEauthId><web:OfficeType>{1}</web:OfficeType></arg0>"
+            + "</web:findOfficesByEauthId>");
+
+    @Test
+    void testRender_EscapesValues() {
+        String result = TEMPLATE.render("a<b&c>", "FLP");
+
+        assertEquals("<web:findOfficesByEauthId xmlns:web=\"" + NAMESPACE_URI + "\">"
+                + "<arg0><web:UsdaEauthId>a&lt;b&amp;c&gt;</web:UsdaEauthId><web:OfficeType>FLP</web:OfficeType></arg0>"
+                + "</web:findOfficesByEauthId>", result);
+        assertEquals(2, TEMPLATE.getSlotCount());
+    }
+
+    @Test
+    void testWriteTo_OutputStreamEncodesUtf8() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TEMPLATE.writeTo(new StreamResult(out), "été 😀", null);
+
+        assertEquals(TEMPLATE.render("été 😀", null), out.toString(StandardCharsets.UTF_8));
+        assertEquals(out.size(), TEMPLATE.encodedLength("été 😀", null));
+        assertEquals("findOfficesByEauthId", TEMPLATE.getOperationName());
+    }
+
+    @Test
+    void testWriteTo_DomResult() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().newDocument();
+
+        TEMPLATE.writeTo(new DOMResult(document), "28692023052412555531317", "FLP & more");
+
+        Element root = document.getDocumentElement();
+        assertEquals(NAMESPACE_URI, root.getNamespaceURI());
+        assertEquals("findOfficesByEauthId", root.getLocalName());
+        Element arg0 = (Element) root.getFirstChild();
+        assertEquals("arg0", arg0.getLocalName());
+        assertNull(arg0.getNamespaceURI());
+        assertEquals("28692023052412555531317",
+                arg0.getElementsByTagNameNS(NAMESPACE_URI, "UsdaEauthId").item(0).getTextContent());
+        assertEquals("FLP & more",
+                arg0.getElementsByTagNameNS(NAMESPACE_URI, "OfficeType").item(0).getTextContent());
+    }
+
+    @Test
+    void testWriteTo_MissingValues() {
+        assertThrows(IllegalArgumentException.class, () -> TEMPLATE.render("only-one"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StaxSoapResponseParserTest {
+
+    private static final String ROLES_RESPONSE = """
+        <ns2:getUserRolesResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+           <return>
+              <ns2:UserRoles>
+                 <ns2:ListValue>app.fsa.flp.dls.fsfl</ns2:ListValue>
+                 <ns2:ListValue>app.fsa.flp.dls.lm</ns2:ListValue>
+                 <ns2:ListValue>app.fsa.flp.dls.lm.cm &amp; more</ns2:ListValue>
+              </ns2:UserRoles>
+              <ns2:UserIdentity>
+                 <AuthenticationSystemIdentifier>28200310169021026877</AuthenticationSystemIdentifier>
+                 <AuthorizationSystemIdentifier>-1452175789</AuthorizationSystemIdentifier>
+                 <UserLoginName>emp0007966</UserLoginName>
+              </ns2:UserIdentity>
+           </return>
+        </ns2:getUserRolesResponse>
+        """;
+
+    private static final String OFFICES_RESPONSE = """
+        <ns2:findOfficesByEauthIdResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+           <return>
+              <ns2:Offices>
+                 <ns2:ListValue>47310</ns2:ListValue>
+                 <ns2:ListValue>47318</ns2:ListValue>
+              </ns2:Offices>
+              <ns2:Other>
+                 <ns2:ListValue>ignored</ns2:ListValue>
+              </ns2:Other>
+           </return>
+        </ns2:findOfficesByEauthIdResponse>
+        """;
+
+    private final StaxSoapResponseParser staxParser = new StaxSoapResponseParser();
+    private final DomSoapResponseParser domParser = new DomSoapResponseParser();
+
+    @Test
+    void testParseUserRoles_MatchesDomParser() throws Exception {
+        UserRolesResponseDto fromStream = staxParser.parseUserRoles(streamSource(ROLES_RESPONSE));
+        UserRolesResponseDto fromDom = staxParser.parseUserRoles(domSource(ROLES_RESPONSE));
+        UserRolesResponseDto expected = domParser.parseUserRoles(streamSource(ROLES_RESPONSE));
+
+        for (UserRolesResponseDto actual : List.of(fromStream, fromDom)) {
+            assertEquals(expected.getUserRoles(), actual.getUserRoles());
+            assertEquals("app.fsa.flp.dls.lm.cm & more", actual.getUserRoles().get(2));
+            assertEquals("28200310169021026877", actual.getUserIdentity().getAuthenticationSystemIdentifier());
+            assertEquals("-1452175789", actual.getUserIdentity().getAuthorizationSystemIdentifier());
+            assertEquals("emp0007966", actual.getUserIdentity().getUserLoginName());
+        }
+    }
+
+    @Test
+    void testParseOffices_OnlyOfficesList() throws Exception {
+        assertEquals(List.of("47310", "47318"), staxParser.parseOffices(streamSource(OFFICES_RESPONSE)));
+        assertEquals(List.of("47310", "47318"), staxParser.parseOffices(domSource(OFFICES_RESPONSE)));
+        assertEquals(domParser.parseOffices(streamSource(OFFICES_RESPONSE)),
+                staxParser.parseOffices(streamSource(OFFICES_RESPONSE)));
+    }
+
+    @Test
+    void testParseUsers_StreamsFromEnvelope() throws Exception {
+        String envelope = """
+            <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+               <soap:Body>
+                  <ns2:findUsersByCriteriaResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+                     <return>
+                        <ns2:Users>
+                           <ns2:ListValue>28200310169021026877</ns2:ListValue>
+                           <ns2:ListValue>28692023052412555531317</ns2:ListValue>
+                        </ns2:Users>
+                     </return>
+                  </ns2:findUsersByCriteriaResponse>
+               </soap:Body>
+            </soap:Envelope>
+            """;
+
+        List<String> users = new ArrayList<>();
+        long count = staxParser.parseUsers(streamSource(envelope), users::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of("28200310169021026877", "28692023052412555531317"), users);
+    }
+
+    @Test
+    void testParseUserIdentity_FirstOccurrence() throws Exception {
+        UserIdentityDto result = staxParser.parseUserIdentity(streamSource(ROLES_RESPONSE));
+
+        assertEquals("28200310169021026877", result.getAuthenticationSystemIdentifier());
+        assertEquals("-1452175789", result.getAuthorizationSystemIdentifier());
+        assertEquals("emp0007966", result.getUserLoginName());
+    }
+
+    @Test
+    void testParseIsHealthy() throws Exception {
+        String healthy = """
+            <ns2:isHealthyResponse xmlns:ns2="http://web.service.eas.citso.fsa.usda.gov">
+               <return>true</return>
+            </ns2:isHealthyResponse>
+            """;
+
+        assertTrue(staxParser.parseIsHealthy(streamSource(healthy)));
+        assertTrue(staxParser.parseIsHealthy(domSource(healthy)));
+        assertFalse(staxParser.parseIsHealthy(streamSource("<empty/>")));
+    }
+
+    private static Source streamSource(String xml) {
+        return new StreamSource(new StringReader(xml));
+    }
+
+    private static Source domSource(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        return new DOMSource(document.getDocumentElement());
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.YamlProcessor;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.HeadersAwareSenderWebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
+
+import jakarta.xml.soap.MessageFactory;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pooled request buffers and streamed responses over HTTP against {@link StubSoapServer}, including
+ * an allocation-rate regression check against the SAAJ message factory, under the logging levels
+ * the application ships with
+ */
+public class StreamingMessageFactoryTest {
+
+    private static final UserIdentityDto USER = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+    private static final int WARM_UP_CALLS = 300;
+    private static final int MEASURED_CALLS = 300;
+    private static final String LOGGING_LEVEL = "logging.level.";
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, Level> savedLevels = new HashMap<>();
+    private StubSoapServer stub;
+    private BufferPool bufferPool;
+    private SimpleAuthorizationSoapClient streamingClient;
+    private SimpleAuthorizationSoapClient saajClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        useShippedLogLevels();
+        stub = StubSoapServer.start(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 50, 50, 10, 0));
+        SaajSoapMessageFactory saajMessageFactory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+        bufferPool = new BufferPool(1024, 8192, 16);
+        streamingClient = client(new WebServiceTemplate(new StreamingMessageFactory(saajMessageFactory, bufferPool)));
+        saajClient = client(new WebServiceTemplate(saajMessageFactory));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        savedLevels.forEach((name, level) -> ((Logger) LoggerFactory.getLogger(name)).setLevel(level));
+    }
+
+    @Test
+    void testRoundTripMatchesSaaj() {
+        UserRolesResponseDto streamed = streamingClient.getUserRoles(USER);
+        UserRolesResponseDto parsed = saajClient.getUserRoles(USER);
+
+        assertEquals(parsed.getUserRoles(), streamed.getUserRoles());
+        assertEquals(parsed.getUserIdentity().getUserLoginName(), streamed.getUserIdentity().getUserLoginName());
+        assertEquals(50, streamingClient.findOfficesByEauthId("28200310169021026877", "FLP").size());
+        assertEquals(10, streamingClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> { }));
+        // Every request buffer went back to the pool
+        assertEquals(bufferPool.getAllocationCount(), bufferPool.getPooledCount());
+    }
+
+    @Test
+    void testUsersAreStreamedBeforeTheResponseIsRead() throws Exception {
+        // The dev profile turns on received-message tracing, which only WebServiceTemplate calls honour
+        useShippedLogLevels("dev");
+        CountDownLatch firstUserSeen = new CountDownLatch(1);
+        AtomicBoolean streamed = new AtomicBoolean();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(StubSoapServer.PATH, exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream out = exchange.getResponseBody();
+                out.write(("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+                        + "<ns2:findUsersByCriteriaResponse xmlns:ns2=\"http://web.service.eas.citso.fsa.usda.gov\">"
+                        + "<return><ns2:Users><ns2:ListValue>user0</ns2:ListValue>").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                // The rest of the list is only sent once the client has passed on the first user
+                streamed.set(firstUserSeen.await(5, TimeUnit.SECONDS));
+                out.write(("<ns2:ListValue>user1</ns2:ListValue></ns2:Users></return>"
+                        + "</ns2:findUsersByCriteriaResponse></soap:Body></soap:Envelope>").getBytes(StandardCharsets.UTF_8));
+                out.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        try {
+            SimpleAuthorizationSoapClient client = client(new WebServiceTemplate(new StreamingMessageFactory(
+                    new SaajSoapMessageFactory(MessageFactory.newInstance()), bufferPool)),
+                    "http://127.0.0.1:" + server.getAddress().getPort() + StubSoapServer.PATH);
+            List<String> users = new ArrayList<>();
+
+            long count = client.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> {
+                users.add(user);
+                firstUserSeen.countDown();
+            });
+
+            assertEquals(2, count);
+            assertEquals(List.of("user0", "user1"), users);
+            assertTrue(streamed.get(), "users were only handed on after the whole response was read");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testFaultsStillSurfaceAsSoapFaults() {
+        stub.setSettings(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 1, 1, 1, 1.0));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> streamingClient.findMatchingUserIdentity("28200310169021026877"));
+        assertInstanceOf(SoapFaultClientException.class, e.getCause().getCause());
+        e = assertThrows(RuntimeException.class,
+                () -> streamingClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> { }));
+        assertInstanceOf(SoapFaultClientException.class, e.getCause().getCause());
+    }
+
+    @Test
+    void testResponseIsDecodedWithContentTypeCharset() throws Exception {
+        String envelope = "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\"><SOAP-ENV:Body>"
+                + "<UserIdentity><AuthenticationSystemIdentifier>1</AuthenticationSystemIdentifier>"
+                + "<AuthorizationSystemIdentifier>2</AuthorizationSystemIdentifier>"
+                + "<UserLoginName>jos\u00e9</UserLoginName></UserIdentity></SOAP-ENV:Body></SOAP-ENV:Envelope>";
+        StreamingMessageFactory messageFactory = new StreamingMessageFactory(
+                new SaajSoapMessageFactory(MessageFactory.newInstance()), bufferPool);
+
+        WebServiceMessage latin1 = receive(messageFactory, "text/xml; charset=ISO-8859-1",
+                envelope.getBytes(StandardCharsets.ISO_8859_1));
+        WebServiceMessage utf8 = receive(messageFactory, "text/xml; charset=utf-8",
+                envelope.getBytes(StandardCharsets.UTF_8));
+
+        StaxSoapResponseParser parser = new StaxSoapResponseParser();
+        assertEquals("jos\u00e9", parser.parseUserIdentity(latin1.getPayloadSource()).getUserLoginName());
+        assertEquals("jos\u00e9", parser.parseUserIdentity(utf8.getPayloadSource()).getUserLoginName());
+    }
+
+    @Test
+    void testAllocationPerRequestIsFlatAcrossConcurrency() throws Exception {
+        long saajBytes = bytesPerCall(saajClient);
+        long singleThreadBytes = bytesPerCall(streamingClient);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Long> concurrentBytes = new ArrayList<>();
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> bytesPerCall(streamingClient)));
+            }
+            for (Future<Long> future : futures) {
+                concurrentBytes.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // No request DOM, SAAJ envelope or response DOM per call
+        assertTrue(singleThreadBytes * 2 < saajBytes,
+                "Pooled path allocates " + singleThreadBytes + " bytes per call, SAAJ " + saajBytes);
+        for (long bytes : concurrentBytes) {
+            assertTrue(bytes < singleThreadBytes * 3 / 2,
+                    "Allocation per call grew with concurrency: " + bytes + " vs " + singleThreadBytes);
+        }
+        // Request buffers are reused rather than allocated per call
+        assertTrue(bufferPool.getAllocationCount() <= 16, "Allocated " + bufferPool.getAllocationCount() + " buffers");
+    }
+
+    /**
+     * Bytes allocated by the calling thread per call, after a warm-up
+     */
+    private long bytesPerCall(SimpleAuthorizationSoapClient client) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            client.getUserRoles(USER);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            client.getUserRoles(USER);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+    }
+
+    /**
+     * Response message created while a connection with the given Content-Type is current
+     */
+    private static WebServiceMessage receive(StreamingMessageFactory messageFactory, String contentType, byte[] body)
+            throws Exception {
+        HeadersAwareSenderWebServiceConnection connection = mock(HeadersAwareSenderWebServiceConnection.class);
+        when(connection.getResponseHeaders("Content-Type")).thenReturn(List.of(contentType).iterator());
+        TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+        try {
+            return messageFactory.createWebServiceMessage(new ByteArrayInputStream(body));
+        } finally {
+            TransportContextHolder.setTransportContext(null);
+        }
+    }
+
+    /**
+     * Applies the logging levels application.yml ships with, for the default and the given profiles
+     */
+    private void useShippedLogLevels(String... profiles) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        yaml.setDocumentMatchers(properties -> {
+            String profile = properties.getProperty("spring.config.activate.on-profile");
+            return profile == null || List.of(profiles).contains(profile)
+                    ? YamlProcessor.MatchStatus.FOUND : YamlProcessor.MatchStatus.NOT_FOUND;
+        });
+        Properties properties = yaml.getObject();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(LOGGING_LEVEL)) {
+                String name = key.substring(LOGGING_LEVEL.length());
+                Logger logger = (Logger) LoggerFactory.getLogger(name);
+                savedLevels.putIfAbsent(name, logger.getLevel());
+                logger.setLevel(Level.toLevel(properties.getProperty(key)));
+            }
+        }
+    }
+
+    private SimpleAuthorizationSoapClient client(WebServiceTemplate webServiceTemplate) throws Exception {
+        return client(webServiceTemplate, stub.getUrl());
+    }
+
+    private SimpleAuthorizationSoapClient client(WebServiceTemplate webServiceTemplate, String url) throws Exception {
+        HttpComponents5MessageSender messageSender = new HttpComponents5MessageSender();
+        messageSender.afterPropertiesSet();
+        webServiceTemplate.setDefaultUri(url);
+        webServiceTemplate.setMessageSender(messageSender);
+        return new SimpleAuthorizationSoapClient(webServiceTemplate, new StaxSoapResponseParser(),
+                new RequestCoalescer(false), new SoapClientMetrics(new SimpleMeterRegistry()),
+                UpstreamGuard.disabled());
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stand-in for AuthorizationSharedService that speaks the example-new.wsdl contract.
+ * <p>
+ * Serves isHealthy, findMatchingUserIdentity, findOfficesByEauthId, getUserRoles and
+ * findUsersByCriteria over plain HTTP with configurable response latency, list sizes and SOAP
+ * fault rate. Responses are rendered once per {@link Settings} so the stub itself stays cheap under
+ * load. Settings can be swapped while the server is running. Gzip-encoded requests are decoded, and
+ * responses can be gzip-encoded for clients that accept it.
+ */
+public class StubSoapServer implements AutoCloseable {
+
+    static final String PATH = "/easws/sharedservice/AuthorizationSharedService";
+
+    private static final String NAMESPACE_URI = "http://web.service.eas.citso.fsa.usda.gov";
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        // The JDK server leaves Nagle on by default, which adds delayed-ACK stalls to small responses.
+        // Read once when the server classes initialise, so it only applies if set before first use.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong faultCount = new AtomicLong();
+    private final AtomicLong gzipRequestCount = new AtomicLong();
+    private volatile Responses responses;
+    private volatile boolean gzipResponses;
+
+    public StubSoapServer(int port, Settings settings) throws IOException {
+        this.responses = new Responses(settings);
+        this.executor = Executors.newCachedThreadPool(daemonThreadFactory());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext(PATH, this::handle);
+    }
+
+    /**
+     * Starts a stub on a free port
+     */
+    public static StubSoapServer start(Settings settings) throws IOException {
+        StubSoapServer stub = new StubSoapServer(0, settings);
+        stub.server.start();
+        return stub;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public void setSettings(Settings settings) {
+        this.responses = new Responses(settings);
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getFaultCount() {
+        return faultCount.get();
+    }
+
+    /**
+     * Requests that arrived with {@code Content-Encoding: gzip}
+     */
+    public long getGzipRequestCount() {
+        return gzipRequestCount.get();
+    }
+
+    /**
+     * Gzip-encodes responses to requests that accept gzip
+     */
+    public void setGzipResponses(boolean gzipResponses) {
+        this.gzipResponses = gzipResponses;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Responses current = responses;
+        requestCount.incrementAndGet();
+        try (exchange) {
+            byte[] request;
+            boolean gzipRequest = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            if (gzipRequest) {
+                gzipRequestCount.incrementAndGet();
+            }
+            try (InputStream in = gzipRequest
+                    ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody()) {
+                request = in.readAllBytes();
+            }
+            String operation = operationOf(request);
+
+            sleep(current.settings.latency.sample());
+
+            byte[] body;
+            int status;
+            if (operation == null || !current.byOperation.containsKey(operation)) {
+                status = 500;
+                body = fault("Client", "Unknown operation " + operation);
+            } else if (ThreadLocalRandom.current().nextDouble() < current.settings.faultRate) {
+                faultCount.incrementAndGet();
+                status = 500;
+                body = current.fault;
+            } else {
+                status = 200;
+                body = current.byOperation.get(operation);
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (gzipResponses && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Local name of the first element inside the SOAP body
+     */
+    private static String operationOf(byte[] request) {
+        try {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(request));
+            try {
+                boolean inBody = false;
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        if (inBody) {
+                            return reader.getLocalName();
+                        }
+                        inBody = "Body".equals(reader.getLocalName());
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("stub-soap-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static byte[] envelope(String payload) {
+        return ("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+                + payload
+                + "</soap:Body></soap:Envelope>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] fault(String code, String message) {
+        return envelope("<soap:Fault><faultcode>soap:" + code + "</faultcode>"
+                + "<faultstring>" + message + "</faultstring></soap:Fault>");
+    }
+
+    private static String response(String operation, String content) {
+        return "<ns2:" + operation + "Response xmlns:ns2=\"" + NAMESPACE_URI + "\"><return>" + content
+                + "</return></ns2:" + operation + "Response>";
+    }
+
+    private static String list(String element, int count, String valuePrefix) {
+        StringBuilder xml = new StringBuilder("<ns2:").append(element).append('>');
+        for (int i = 0; i < count; i++) {
+            xml.append("<ns2:ListValue>").append(valuePrefix).append(i).append("</ns2:ListValue>");
+        }
+        return xml.append("</ns2:").append(element).append('>').toString();
+    }
+
+    /**
+     * Pre-rendered response envelopes for one set of settings
+     */
+    private static final class Responses {
+        private final Settings settings;
+        private final Map<String, byte[]> byOperation;
+        private final byte[] fault;
+
+        Responses(Settings settings) {
+            String identity = "<ns2:UserIdentity>"
+                    + "<AuthenticationSystemIdentifier>28200310169021026877</AuthenticationSystemIdentifier>"
+                    + "<AuthorizationSystemIdentifier>-1452175789</AuthorizationSystemIdentifier>"
+                    + "<UserLoginName>emp0007966</UserLoginName>"
+                    + "</ns2:UserIdentity>";
+            this.settings = settings;
+            this.byOperation = Map.of(
+                    "isHealthy", envelope(response("isHealthy", "true")),
+                    "findMatchingUserIdentity", envelope(response("findMatchingUserIdentity", identity)),
+                    "findOfficesByEauthId", envelope(response("findOfficesByEauthId",
+                            list("Offices", settings.officeCount, "4"))),
+                    "getUserRoles", envelope(response("getUserRoles",
+                            list("UserRoles", settings.roleCount, "app.fsa.flp.dls.role") + identity)),
+                    "findUsersByCriteria", envelope(response("findUsersByCriteria",
+                            list("Users", settings.userCount, "2820031016902102"))));
+            this.fault = fault("Server", "Stub fault");
+        }
+    }
+
+    /**
+     * Immutable stub behaviour: latency distribution, list sizes per operation and fault rate
+     */
+    public static final class Settings {
+        private final Latency latency;
+        private final int officeCount;
+        private final int roleCount;
+        private final int userCount;
+        private final double faultRate;
+
+        public Settings(Latency latency, int officeCount, int roleCount, int userCount, double faultRate) {
+            if (faultRate < 0 || faultRate > 1) {
+                throw new IllegalArgumentException("faultRate must be between 0 and 1");
+            }
+            this.latency = latency;
+            this.officeCount = officeCount;
+            this.roleCount = roleCount;
+            this.userCount = userCount;
+            this.faultRate = faultRate;
+        }
+
+        /**
+         * No added latency, small lists, no faults
+         */
+        public static Settings defaults() {
+            return new Settings(Latency.none(), 3, 3, 10, 0);
+        }
+    }
+
+    /**
+     * Response latency distribution
+     */
+    public static final class Latency {
+        private final long medianNanos;
+        private final double sigma;
+
+        private Latency(long medianNanos, double sigma) {
+            this.medianNanos = medianNanos;
+            this.sigma = sigma;
+        }
+
+        public static Latency none() {
+            return new Latency(0, 0);
+        }
+
+        public static Latency fixed(Duration latency) {
+            return new Latency(latency.toNanos(), 0);
+        }
+
+        /**
+         * Log-normal latency with the given median and 99th percentile, a common shape for
+         * service response times (most calls near the median, a long right tail)
+         */
+        public static Latency logNormal(Duration median, Duration p99) {
+            if (p99.compareTo(median) < 0) {
+                throw new IllegalArgumentException("p99 must not be below the median");
+            }
+            double sigma = median.isZero() ? 0 : Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+            return new Latency(median.toNanos(), sigma);
+        }
+
+        long sample() {
+            if (sigma == 0) {
+                return medianNanos;
+            }
+            return (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+}
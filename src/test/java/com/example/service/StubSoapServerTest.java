@@ -0,0 +1,90 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real client over HTTP against {@link StubSoapServer}
+ */
+public class StubSoapServerTest {
+
+    private StubSoapServer stub;
+    private SimpleAuthorizationSoapClient soapClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubSoapServer.start(new StubSoapServer.Settings(
+                StubSoapServer.Latency.fixed(Duration.ofMillis(5)), 50, 7, 500, 0));
+
+        HttpComponents5MessageSender messageSender = new HttpComponents5MessageSender();
+        messageSender.afterPropertiesSet();
+        WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+        webServiceTemplate.setDefaultUri(stub.getUrl());
+        webServiceTemplate.setMessageSender(messageSender);
+        soapClient = new SimpleAuthorizationSoapClient(webServiceTemplate, new StaxSoapResponseParser(),
+                new RequestCoalescer(false), new SoapClientMetrics(new SimpleMeterRegistry()),
+                UpstreamGuard.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testServesConfiguredPayloads() {
+        assertTrue(soapClient.isHealthy());
+
+        UserIdentityDto identity = soapClient.findMatchingUserIdentity("28200310169021026877");
+        assertEquals("emp0007966", identity.getUserLoginName());
+
+        List<String> offices = soapClient.findOfficesByEauthId("28200310169021026877", "FLP");
+        assertEquals(50, offices.size());
+
+        UserRolesResponseDto roles = soapClient.getUserRoles(identity);
+        assertEquals(7, roles.getUserRoles().size());
+        assertEquals(4, stub.getRequestCount());
+    }
+
+    @Test
+    void testFaultRate() {
+        stub.setSettings(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 1, 1, 1, 1.0));
+
+        assertThrows(RuntimeException.class, () -> soapClient.findMatchingUserIdentity("28200310169021026877"));
+        assertFalse(soapClient.isHealthy());
+        assertEquals(2, stub.getFaultCount());
+    }
+
+    @Test
+    void testFindUsersByCriteria_StreamsOffTheConnection() {
+        AtomicLong received = new AtomicLong();
+
+        long count = soapClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> {
+            assertTrue(user.startsWith("2820031016902102"));
+            received.incrementAndGet();
+        });
+
+        assertEquals(500, count);
+        assertEquals(500, received.get());
+    }
+
+    @Test
+    void testFindUsersByCriteria_Fault() {
+        stub.setSettings(new StubSoapServer.Settings(StubSoapServer.Latency.none(), 1, 1, 1, 1.0));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> soapClient.findUsersByCriteria("47310", "app.fsa.flp.dls.lm", user -> fail()));
+        assertInstanceOf(SoapFaultClientException.class, e.getCause().getCause());
+    }
+}
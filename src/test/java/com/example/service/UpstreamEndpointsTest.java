@@ -0,0 +1,155 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamEndpointsTest {
+
+    private static final String FAST = "http://replica-1/service";
+    private static final String SLOW = "http://replica-2/service";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private UpstreamEndpoints newEndpoints(UpstreamEndpoints.Strategy strategy) {
+        return new UpstreamEndpoints(List.of(FAST, SLOW), strategy, Duration.ofSeconds(10), 50, 4, 4,
+                Duration.ofSeconds(30), 2, registry, nanoTime::get);
+    }
+
+    @Test
+    void testSelect_SlowReplicaShedsLoad() {
+        UpstreamEndpoints endpoints = newEndpoints(UpstreamEndpoints.Strategy.P2C);
+        complete(endpoints.lease(endpoint(endpoints, FAST)), 10);
+        complete(endpoints.lease(endpoint(endpoints, SLOW)), 100);
+
+        List<UpstreamEndpoints.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            leases.add(endpoints.select());
+        }
+
+        long fast = leases.stream().filter(lease -> lease.getUrl().equals(FAST)).count();
+        assertTrue(fast >= 15, "the fast replica takes most calls, took " + fast);
+        assertTrue(fast < 20, "load still spreads once the fast replica queues up");
+        assertEquals((double) fast, registry.get("soap.client.endpoint.in-flight")
+                .tag("endpoint", FAST).gauge().value());
+    }
+
+    @Test
+    void testSelect_LeastOutstanding() {
+        UpstreamEndpoints endpoints = newEndpoints(UpstreamEndpoints.Strategy.LEAST_OUTSTANDING);
+
+        UpstreamEndpoints.Lease first = endpoints.select();
+        UpstreamEndpoints.Lease second = endpoints.select();
+
+        assertNotEquals(first.getUrl(), second.getUrl());
+    }
+
+    @Test
+    void testErrorRateEjectsAndTrialCallsReinstate() {
+        UpstreamEndpoints endpoints = newEndpoints(UpstreamEndpoints.Strategy.P2C);
+        UpstreamEndpoints.Endpoint slow = endpoint(endpoints, SLOW);
+        for (int i = 0; i < 4; i++) {
+            endpoints.lease(slow).onFailure();
+        }
+
+        assertFalse(slow.isAvailable());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FAST, endpoints.select().getUrl());
+        }
+        assertEquals(1.0, registry.get("soap.client.endpoint.ejections").tag("endpoint", SLOW).counter().count());
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(slow.isAvailable());
+        endpoints.lease(slow).onSuccess();
+        endpoints.lease(slow).onSuccess();
+        assertEquals("CLOSED", endpoints.getStats().get(1).getEjectionState());
+    }
+
+    @Test
+    void testIgnoredLeaseGivesTrialCallBack() {
+        UpstreamEndpoints endpoints = newEndpoints(UpstreamEndpoints.Strategy.P2C);
+        UpstreamEndpoints.Endpoint slow = endpoint(endpoints, SLOW);
+        for (int i = 0; i < 4; i++) {
+            endpoints.lease(slow).onFailure();
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Both trial calls fail before sending anything
+        endpoints.lease(slow).onIgnore();
+        endpoints.lease(slow).onIgnore();
+
+        assertEquals(0.0, registry.get("soap.client.endpoint.in-flight").tag("endpoint", SLOW).gauge().value());
+        endpoints.lease(slow).onSuccess();
+        endpoints.lease(slow).onSuccess();
+        assertEquals("CLOSED", endpoints.getStats().get(1).getEjectionState());
+    }
+
+    @Test
+    void testFailedProbeEjectsUntilProbePasses() {
+        UpstreamEndpoints endpoints = newEndpoints(UpstreamEndpoints.Strategy.P2C);
+        UpstreamEndpoints.Endpoint slow = endpoint(endpoints, SLOW);
+
+        endpoints.onProbe(slow, false);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FAST, endpoints.select().getUrl());
+        }
+
+        endpoints.onProbe(endpoint(endpoints, FAST), false);
+        assertNotNull(endpoints.select(), "calls still go out when every replica is ejected");
+
+        endpoints.onProbe(slow, true);
+        assertEquals(SLOW, endpoints.select().getUrl());
+    }
+
+    @Test
+    void testClient_SpreadsCallsAndEjectsDeadReplica() throws Exception {
+        StubSoapServer.Settings settings = new StubSoapServer.Settings(StubSoapServer.Latency.none(), 1, 1, 1, 0);
+        try (StubSoapServer first = StubSoapServer.start(settings);
+             StubSoapServer second = StubSoapServer.start(settings)) {
+            HttpComponents5MessageSender messageSender = new HttpComponents5MessageSender();
+            messageSender.afterPropertiesSet();
+            WebServiceTemplate webServiceTemplate = new WebServiceTemplate();
+            webServiceTemplate.setDefaultUri(first.getUrl());
+            webServiceTemplate.setMessageSender(messageSender);
+            UpstreamEndpoints endpoints = new UpstreamEndpoints(List.of(first.getUrl(), second.getUrl()),
+                    UpstreamEndpoints.Strategy.LEAST_OUTSTANDING, Duration.ofSeconds(10), 50, 4, 4,
+                    Duration.ofSeconds(30), 2, registry, System::nanoTime);
+            SimpleAuthorizationSoapClient client = new SimpleAuthorizationSoapClient(webServiceTemplate,
+                    new StaxSoapResponseParser(), new RequestCoalescer(false),
+                    new SoapClientMetrics(new SimpleMeterRegistry()), UpstreamGuard.disabled(),
+                    AdaptiveLatencyPolicy.disabled(), endpoints);
+
+            for (int i = 0; i < 10; i++) {
+                client.findMatchingUserIdentity("28200310169021026877");
+            }
+            assertTrue(first.getRequestCount() > 0);
+            assertTrue(second.getRequestCount() > 0);
+
+            second.close();
+            assertTrue(client.isHealthy(), "healthy while one replica answers");
+            assertFalse(endpoints.getStats().get(1).isAvailable());
+            for (int i = 0; i < 10; i++) {
+                client.findMatchingUserIdentity("28200310169021026877");
+            }
+        }
+    }
+
+    private void complete(UpstreamEndpoints.Lease lease, long millis) {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        lease.onSuccess();
+    }
+
+    private static UpstreamEndpoints.Endpoint endpoint(UpstreamEndpoints endpoints, String url) {
+        return endpoints.getEndpoints().stream().filter(e -> e.getUrl().equals(url)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ws.client.core.WebServiceMessageCallback;
+import org.springframework.ws.client.core.WebServiceMessageExtractor;
+import org.springframework.ws.client.core.WebServiceTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class UpstreamGuardTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private CircuitBreaker newBreaker() {
+        return new CircuitBreaker(50, 10, 4, Duration.ofSeconds(10), Duration.ofSeconds(5), 2, nanoTime::get);
+    }
+
+    @Test
+    void testCircuitBreaker_OpensHalfOpensAndCloses() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(TimeUnit.SECONDS.toNanos(6)); // slow call, 2 of 4 failed
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only the configured trial calls pass while half-open");
+        breaker.onSuccess(1);
+        breaker.onSuccess(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testCircuitBreaker_TrialFailureReopens() {
+        CircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testLimiter_ShrinksWhenLatencyRisesAndOnDrops() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100);
+        // Keep the limit busy so it is allowed to move, with a stable 10 ms latency
+        for (int i = 0; i < 50; i++) {
+            fill(limiter);
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+            drain(limiter);
+        }
+        int steady = limiter.getLimit();
+        assertTrue(steady > 20, "limit grows while latency is stable, was " + steady);
+
+        for (int i = 0; i < 20; i++) {
+            fill(limiter);
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+            drain(limiter);
+        }
+        int congested = limiter.getLimit();
+        assertTrue(congested < steady, "limit shrinks when latency climbs, was " + congested);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertTrue(limiter.getLimit() < congested);
+    }
+
+    @Test
+    void testLimiter_RejectsAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.onIgnore();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testIsAdmitting_FollowsBreakerAndLimit() {
+        CircuitBreaker breaker = newBreaker();
+        UpstreamGuard guard = new UpstreamGuard(true, breaker, new AdaptiveConcurrencyLimiter(1, 1, 1));
+        assertTrue(guard.isAdmitting());
+
+        UpstreamGuard.Permit permit = guard.acquire();
+        assertFalse(guard.isAdmitting(), "limit reached");
+        permit.onIgnore();
+        assertTrue(guard.isAdmitting());
+
+        for (int i = 0; i < 4; i++) {
+            guard.acquire().onFailure();
+        }
+        assertFalse(guard.isAdmitting(), "breaker open");
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(guard.isAdmitting());
+        assertTrue(UpstreamGuard.disabled().isAdmitting());
+    }
+
+    @Test
+    void testClient_FailsFastWithDistinctErrorWhileOpen() {
+        WebServiceTemplate webServiceTemplate = mock(WebServiceTemplate.class);
+        when(webServiceTemplate.getDefaultUri()).thenReturn("http://localhost:8080/mock-soap-service");
+        when(webServiceTemplate.sendAndReceive(anyString(), any(WebServiceMessageCallback.class),
+                any(WebServiceMessageExtractor.class))).thenThrow(new RuntimeException("connect timed out"));
+        UpstreamGuard guard = new UpstreamGuard(true, newBreaker(), new AdaptiveConcurrencyLimiter(10, 1, 10));
+        SimpleAuthorizationSoapClient client = new SimpleAuthorizationSoapClient(webServiceTemplate,
+                new StaxSoapResponseParser(), new RequestCoalescer(false),
+                new SoapClientMetrics(new SimpleMeterRegistry()), guard);
+
+        for (int i = 0; i < 4; i++) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> client.findMatchingUserIdentity("id"));
+            assertFalse(e instanceof SoapCallRejectedException);
+        }
+
+        SoapCallRejectedException rejected = assertThrows(SoapCallRejectedException.class,
+                () -> client.findMatchingUserIdentity("id"));
+        assertEquals(SoapCallRejectedException.Reason.CIRCUIT_OPEN, rejected.getReason());
+        verify(webServiceTemplate, times(4)).sendAndReceive(anyString(), any(WebServiceMessageCallback.class),
+                any(WebServiceMessageExtractor.class));
+        assertEquals("OPEN", guard.getStats().getCircuitState());
+        assertEquals(1, guard.getStats().getRejectedCircuitOpen());
+    }
+
+    private static void fill(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // take every free slot
+        }
+    }
+
+    private static void drain(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnore();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdentityCacheTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private UserIdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        identityCache = new UserIdentityCache(soapClient, true, Duration.ofMinutes(60), Duration.ofMinutes(1),
+                100, nanos::get);
+    }
+
+    @Test
+    void testFindMatchingUserIdentity_CachesPositiveEntries() {
+        UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+        when(soapClient.findMatchingUserIdentity("28200310169021026877")).thenReturn(identity);
+
+        assertSame(identity, identityCache.findMatchingUserIdentity("28200310169021026877"));
+        advance(30);
+        assertSame(identity, identityCache.findMatchingUserIdentity("28200310169021026877"));
+
+        verify(soapClient, times(1)).findMatchingUserIdentity("28200310169021026877");
+        CacheStatsDto stats = identityCache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void testFindMatchingUserIdentity_NegativeEntriesExpireEarly() {
+        when(soapClient.findMatchingUserIdentity("unknown")).thenReturn(new UserIdentityDto("", "", ""));
+
+        identityCache.findMatchingUserIdentity("unknown");
+        identityCache.findMatchingUserIdentity("unknown");
+        verify(soapClient, times(1)).findMatchingUserIdentity("unknown");
+
+        advance(2);
+        identityCache.findMatchingUserIdentity("unknown");
+        verify(soapClient, times(2)).findMatchingUserIdentity("unknown");
+    }
+
+    @Test
+    void testFindMatchingUserIdentity_FailuresAreNotCached() {
+        when(soapClient.findMatchingUserIdentity("flaky"))
+                .thenThrow(new RuntimeException("Failed to find matching user identity"))
+                .thenReturn(new UserIdentityDto("auth123", "authz456", "testuser"));
+
+        assertThrows(RuntimeException.class, () -> identityCache.findMatchingUserIdentity("flaky"));
+        assertEquals("testuser", identityCache.findMatchingUserIdentity("flaky").getUserLoginName());
+        assertEquals(1, identityCache.getStats().getLoadFailureCount());
+    }
+
+    @Test
+    void testFindMatchingUserIdentity_Disabled() {
+        UserIdentityCache disabled = new UserIdentityCache(soapClient, false, Duration.ofMinutes(60),
+                Duration.ofMinutes(1), 100, nanos::get);
+        when(soapClient.findMatchingUserIdentity("id")).thenReturn(new UserIdentityDto("a", "b", "c"));
+
+        disabled.findMatchingUserIdentity("id");
+        disabled.findMatchingUserIdentity("id");
+
+        verify(soapClient, times(2)).findMatchingUserIdentity("id");
+    }
+
+    private void advance(long minutes) {
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+    }
+}
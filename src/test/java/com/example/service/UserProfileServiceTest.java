@@ -0,0 +1,73 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserProfileServiceTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testGetProfile_AggregatesAllLookups() {
+        UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+        when(soapClient.findMatchingUserIdentity("28200310169021026877")).thenReturn(identity);
+        when(soapClient.getUserRoles(any())).thenReturn(new UserRolesResponseDto(List.of("app.fsa.flp.dls.fsfl"), identity));
+        when(soapClient.findOfficesByEauthId(eq("28200310169021026877"), anyString()))
+                .thenAnswer(invocation -> List.of(invocation.getArgument(1) + "-47310"));
+        when(soapClient.findOfficesByEauthId("28200310169021026877", "FLPFinance"))
+                .thenThrow(new RuntimeException("Failed to find offices by eauth ID"));
+
+        UserProfileDto profile = newService().getProfileAsync("28200310169021026877", UserProfileService.ALL_OFFICE_TYPES).join();
+
+        assertEquals("emp0007966", profile.getUserIdentity().getUserLoginName());
+        assertEquals(List.of("app.fsa.flp.dls.fsfl"), profile.getUserRoles());
+        assertEquals(List.of("FSA", "FLP", "FLPJurisdiction"), List.copyOf(profile.getOffices().keySet()));
+        assertEquals(List.of("FLP-47310"), profile.getOffices().get("FLP"));
+        assertEquals("Failed to find offices by eauth ID", profile.getErrors().get("offices.FLPFinance"));
+    }
+
+    @Test
+    void testGetProfile_IdentityFailureFailsProfile() {
+        when(soapClient.findMatchingUserIdentity("unknown")).thenThrow(new RuntimeException("Failed to find matching user identity"));
+        when(soapClient.findOfficesByEauthId(eq("unknown"), anyString())).thenReturn(List.of());
+
+        assertThrows(CompletionException.class,
+                () -> newService().getProfileAsync("unknown", List.of("FLP")).join());
+        verify(soapClient, never()).getUserRoles(any());
+    }
+
+    private UserProfileService newService() {
+        AsyncAuthorizationSoapClient asyncClient = new AsyncAuthorizationSoapClient(soapClient, executor, Duration.ofSeconds(5));
+        UserIdentityCache identityCache = new UserIdentityCache(soapClient, false, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), 10, System::nanoTime);
+        UserRolesCache rolesCache = new UserRolesCache(soapClient, new RoleDictionary(), false,
+                Duration.ofMinutes(1), Duration.ofMinutes(2), 10, Runnable::run, System::nanoTime);
+        UserOfficesCache officesCache = new UserOfficesCache(soapClient, false, Duration.ofMinutes(1), 10,
+                System::nanoTime);
+        return new UserProfileService(asyncClient, identityCache, rolesCache, officesCache);
+    }
+}
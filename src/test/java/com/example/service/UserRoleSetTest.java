@@ -0,0 +1,63 @@
+package com.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserRoleSetTest {
+
+    private final RoleDictionary dictionary = new RoleDictionary();
+    private final UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+
+    @Test
+    void testRoleChecks() {
+        UserRoleSet roles = UserRoleSet.of(dto("app.fsa.flp.dls.lm", "app.fsa.flp.dls.fsfl"), dictionary);
+
+        assertTrue(roles.hasRole("app.fsa.flp.dls.fsfl"));
+        assertFalse(roles.hasRole("app.fsa.flp.dls.gl"));
+        assertTrue(roles.hasAnyRole("app.fsa.flp.dls.gl", "app.fsa.flp.dls.lm"));
+        assertFalse(roles.hasAnyRole("app.fsa.flp.dls.gl"));
+        assertTrue(roles.hasAllRoles("app.fsa.flp.dls.lm", "app.fsa.flp.dls.fsfl"));
+        assertFalse(roles.hasAllRoles("app.fsa.flp.dls.lm", "app.fsa.flp.dls.gl"));
+        assertEquals(2, dictionary.size(), "lookups of unknown roles do not grow the dictionary");
+    }
+
+    @Test
+    void testConversion_IsLossless() {
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            many.add("role." + i);
+        }
+        UserRolesResponseDto[] dtos = {
+                dto("b", "a", "c"),
+                dto("a", "b", "a"),
+                dto("a", "b", "c"),
+                new UserRolesResponseDto(many, identity),
+                new UserRolesResponseDto(List.of(), identity),
+                new UserRolesResponseDto(null, null)
+        };
+        for (UserRolesResponseDto dto : dtos) {
+            UserRolesResponseDto copy = UserRoleSet.of(dto, dictionary).toDto();
+            assertEquals(dto.getUserRoles(), copy.getUserRoles());
+            assertSame(dto.getUserIdentity(), copy.getUserIdentity());
+        }
+        assertTrue(UserRoleSet.of(new UserRolesResponseDto(many, identity), dictionary).hasRole("role.199"));
+    }
+
+    @Test
+    void testRoleNamesAreSharedAcrossUsers() {
+        UserRoleSet first = UserRoleSet.of(dto(new String("app.fsa.flp.dls.lm")), dictionary);
+        UserRoleSet second = UserRoleSet.of(dto(new String("app.fsa.flp.dls.lm")), dictionary);
+
+        assertSame(first.getRoles().get(0), second.getRoles().get(0));
+        assertEquals(0, dictionary.idOf("app.fsa.flp.dls.lm"));
+        assertEquals(-1, dictionary.idOf("app.fsa.flp.dls.gl"));
+    }
+
+    private UserRolesResponseDto dto(String... roles) {
+        return new UserRolesResponseDto(List.of(roles), identity);
+    }
+}
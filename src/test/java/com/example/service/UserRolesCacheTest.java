@@ -0,0 +1,113 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserRolesCacheTest {
+
+    @Mock
+    private SimpleAuthorizationSoapClient soapClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Queue<Runnable> backgroundTasks = new ArrayDeque<>();
+    private final UserIdentityDto identity = new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966");
+    private UserRolesCache rolesCache;
+
+    @BeforeEach
+    void setUp() {
+        // Background tasks are queued and run explicitly by the test
+        rolesCache = new UserRolesCache(soapClient, new RoleDictionary(), true, Duration.ofMinutes(5),
+                Duration.ofMinutes(60), 100, backgroundTasks::add, nanos::get);
+    }
+
+    @Test
+    void testGetUserRoles_KeyedByIdentityTriple() {
+        when(soapClient.getUserRoles(any())).thenReturn(roles("app.fsa.flp.dls.fsfl"));
+
+        rolesCache.getUserRoles(identity);
+        rolesCache.getUserRoles(new UserIdentityDto("28200310169021026877", "-1452175789", "emp0007966"));
+
+        verify(soapClient, times(1)).getUserRoles(any());
+        assertEquals(1, rolesCache.getStats().getHitCount());
+    }
+
+    @Test
+    void testGetUserRoles_ServesStaleWhileRefreshing() {
+        when(soapClient.getUserRoles(any()))
+                .thenReturn(roles("old.role"))
+                .thenReturn(roles("new.role"));
+
+        assertEquals(List.of("old.role"), rolesCache.getUserRoles(identity).getUserRoles());
+
+        advance(6);
+        // Past the soft TTL the stale value is returned and a refresh is triggered
+        assertEquals(List.of("old.role"), rolesCache.getUserRoles(identity).getUserRoles());
+        // Only one refresh is started per key
+        assertEquals(List.of("old.role"), rolesCache.getUserRoles(identity).getUserRoles());
+        runBackgroundTasks();
+
+        assertEquals(List.of("new.role"), rolesCache.getUserRoles(identity).getUserRoles());
+        verify(soapClient, times(2)).getUserRoles(any());
+    }
+
+    @Test
+    void testGetUserRoles_HardExpiryLoadsSynchronously() {
+        when(soapClient.getUserRoles(any()))
+                .thenReturn(roles("old.role"))
+                .thenReturn(roles("new.role"));
+
+        rolesCache.getUserRoles(identity);
+        advance(61);
+
+        assertEquals(List.of("new.role"), rolesCache.getUserRoles(identity).getUserRoles());
+    }
+
+    @Test
+    void testGetRoleSet_SharesCachedEntry() {
+        when(soapClient.getUserRoles(any())).thenReturn(roles("app.fsa.flp.dls.lm", "app.fsa.flp.dls.fsfl"));
+
+        UserRoleSet roleSet = rolesCache.getRoleSet(identity);
+
+        assertTrue(roleSet.hasRole("app.fsa.flp.dls.fsfl"));
+        assertFalse(roleSet.hasRole("app.fsa.flp.dls.gl"));
+        assertEquals(List.of("app.fsa.flp.dls.lm", "app.fsa.flp.dls.fsfl"),
+                rolesCache.getUserRoles(identity).getUserRoles());
+        verify(soapClient, times(1)).getUserRoles(any());
+    }
+
+    @Test
+    void testConstructor_RejectsHardTtlBelowSoftTtl() {
+        assertThrows(IllegalArgumentException.class, () -> new UserRolesCache(soapClient, new RoleDictionary(),
+                true, Duration.ofMinutes(5), Duration.ofMinutes(1), 100, backgroundTasks::add, nanos::get));
+    }
+
+    private UserRolesResponseDto roles(String... roles) {
+        return new UserRolesResponseDto(List.of(roles), identity);
+    }
+
+    private void runBackgroundTasks() {
+        Runnable task;
+        while ((task = backgroundTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advance(long minutes) {
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+    }
+}